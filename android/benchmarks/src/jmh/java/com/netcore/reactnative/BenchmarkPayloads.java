@@ -0,0 +1,121 @@
+package com.netcore.reactnative;
+
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeArray;
+import com.facebook.react.bridge.WritableNativeMap;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Realistic event payloads shared by the benchmarks, built both as bridge maps and as JSON.
+ */
+final class BenchmarkPayloads {
+
+    static final String FLAT = "flat";
+    static final String NESTED = "nested";
+    static final String LARGE_ARRAY = "largeArray";
+    static final String UNICODE = "unicode";
+
+    private static final int NESTED_DEPTH = 5;
+    private static final int LARGE_ARRAY_SIZE = 1000;
+    private static final String UNICODE_TEXT = "\u00DCn\u00EFc\u00F6d\u00E9 \u2713 \u0928\u092E\u0938\u094D\u0924\u0947 \u4F60\u597D\u4E16\u754C \u3053\u3093\u306B\u3061\u306F \uD83D\uDE80\uD83D\uDD25 \u0645\u0631\u062D\u0628\u0627";
+
+    private BenchmarkPayloads() {
+    }
+
+    static WritableMap readableMap(String type) {
+        switch (type) {
+            case FLAT:
+                return flatMap();
+            case NESTED:
+                return nestedMap(NESTED_DEPTH);
+            case LARGE_ARRAY:
+                WritableMap map = flatMap();
+                map.putArray("items", largeArray());
+                return map;
+            case UNICODE:
+                return unicodeMap();
+            default:
+                throw new IllegalArgumentException("Unknown payload type: " + type);
+        }
+    }
+
+    // JSON form of the same payload, built from the bridge map so that both carry the same values.
+    static JSONObject json(String type) {
+        return new JSONObject(readableMap(type).toHashMap());
+    }
+
+    static JSONArray jsonArray(String type) {
+        if (LARGE_ARRAY.equals(type)) {
+            return json(type).getJSONArray("items");
+        }
+        JSONArray array = new JSONArray();
+        for (int i = 0; i < 10; i++) {
+            array.put(json(type));
+        }
+        return array;
+    }
+
+    private static WritableMap flatMap() {
+        WritableMap map = new WritableNativeMap();
+        map.putString("productName", "Running Shoes");
+        map.putString("category", "footwear");
+        map.putString("sku", "SKU-000123-XL");
+        map.putInt("quantity", 2);
+        map.putDouble("price", 1499.99);
+        map.putInt("productId", 908172);
+        map.putBoolean("inStock", true);
+        map.putBoolean("isGift", false);
+        map.putString("currency", "INR");
+        map.putDouble("discount", 12.5);
+        map.putString("screen", "ProductDetail");
+        map.putInt("position", 4);
+        map.putNull("coupon");
+        map.putString("campaign", "summer_sale_2020");
+        map.putDouble("timestamp", 1602063517000d);
+        return map;
+    }
+
+    private static WritableMap nestedMap(int depth) {
+        WritableMap map = flatMap();
+        if (depth > 1) {
+            map.putMap("child", nestedMap(depth - 1));
+            WritableArray children = new WritableNativeArray();
+            children.pushMap(flatMap());
+            children.pushString("leaf");
+            map.putArray("children", children);
+        }
+        return map;
+    }
+
+    private static WritableArray largeArray() {
+        WritableArray array = new WritableNativeArray();
+        for (int i = 0; i < LARGE_ARRAY_SIZE; i++) {
+            switch (i % 4) {
+                case 0:
+                    array.pushInt(i);
+                    break;
+                case 1:
+                    array.pushDouble(i + 0.5);
+                    break;
+                case 2:
+                    array.pushString("item-" + i);
+                    break;
+                default:
+                    array.pushBoolean(i % 8 == 3);
+                    break;
+            }
+        }
+        return array;
+    }
+
+    private static WritableMap unicodeMap() {
+        WritableMap map = new WritableNativeMap();
+        for (int i = 0; i < 15; i++) {
+            map.putString("\u043A\u043B\u044E\u0447_" + i + "_\u30AD\u30FC", UNICODE_TEXT + " " + i);
+        }
+        return map;
+    }
+}
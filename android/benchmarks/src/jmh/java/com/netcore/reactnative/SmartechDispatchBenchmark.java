@@ -0,0 +1,57 @@
+package com.netcore.reactnative;
+
+import com.facebook.react.bridge.ReadableMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the trackEvent bridge path: payload conversion on the calling thread followed by the
+ * hand-off to the dispatcher thread, with a no-op standing in for the SDK call.
+ */
+@State(Scope.Benchmark)
+public class SmartechDispatchBenchmark {
+
+    private static final int EVENTS_PER_BURST = 100;
+
+    @Param({BenchmarkPayloads.FLAT, BenchmarkPayloads.NESTED})
+    public String payloadType;
+
+    private ReadableMap readableMap;
+    private SmartechDispatcher dispatcher;
+
+    @Setup
+    public void setUp() {
+        readableMap = BenchmarkPayloads.readableMap(payloadType);
+        dispatcher = new SmartechDispatcher();
+    }
+
+    @TearDown
+    public void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_BURST)
+    public void trackEventBurst(final Blackhole blackhole) throws InterruptedException {
+        for (int i = 0; i < EVENTS_PER_BURST; i++) {
+            final HashMap<String, Object> payload = SmartechHelper.convertReadableMapToHashMap(readableMap);
+            dispatcher.dispatch(new Runnable() {
+                @Override
+                public void run() {
+                    blackhole.consume(payload);
+                }
+            });
+        }
+        dispatcher.flush(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,53 @@
+package com.netcore.reactnative;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of journaling an event: one append followed by its acknowledgement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SmartechEventJournalBenchmark {
+
+    @Param({"128", "1024"})
+    public int recordSize;
+
+    private File journalFile;
+    private SmartechEventJournal journal;
+    private byte[] record;
+
+    @Setup
+    public void setUp() throws IOException {
+        journalFile = File.createTempFile("smartech_event_journal", ".bin");
+        journal = new SmartechEventJournal(journalFile, SmartechEventJournal.DEFAULT_CAPACITY);
+        record = new byte[recordSize];
+        Arrays.fill(record, (byte) 'x');
+    }
+
+    @TearDown
+    public void tearDown() {
+        journal.close();
+        journalFile.delete();
+    }
+
+    @Benchmark
+    public int appendAndAcknowledge() {
+        int id = journal.append(record);
+        journal.acknowledge(id);
+        return id;
+    }
+}
@@ -0,0 +1,57 @@
+package com.netcore.reactnative;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+
+/**
+ * Measures the payload conversions which run for every event crossing the bridge.
+ */
+@State(Scope.Benchmark)
+public class SmartechHelperBenchmark {
+
+    @Param({BenchmarkPayloads.FLAT, BenchmarkPayloads.NESTED, BenchmarkPayloads.LARGE_ARRAY, BenchmarkPayloads.UNICODE})
+    public String payloadType;
+
+    private ReadableMap readableMap;
+    private JSONObject jsonObject;
+    private JSONArray jsonArray;
+
+    @Setup
+    public void setUp() {
+        readableMap = BenchmarkPayloads.readableMap(payloadType);
+        jsonObject = BenchmarkPayloads.json(payloadType);
+        jsonArray = BenchmarkPayloads.jsonArray(payloadType);
+    }
+
+    @Benchmark
+    public HashMap<String, Object> convertReadableMapToHashMap() {
+        return SmartechHelper.convertReadableMapToHashMap(readableMap);
+    }
+
+    @Benchmark
+    public JSONObject convertMapToJson() throws JSONException {
+        return SmartechHelper.convertMapToJson(readableMap);
+    }
+
+    @Benchmark
+    public WritableMap jsonToWritableMap() {
+        return SmartechHelper.jsonToWritableMap(jsonObject);
+    }
+
+    @Benchmark
+    public WritableArray jsonArrayToWritableArray() {
+        return SmartechHelper.jsonArrayToWritableArray(jsonArray);
+    }
+}
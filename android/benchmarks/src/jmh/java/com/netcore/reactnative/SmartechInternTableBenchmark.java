@@ -0,0 +1,58 @@
+package com.netcore.reactnative;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+
+/**
+ * Parses a session-like stream of events whose keys are drawn from a fixed vocabulary, with and
+ * without the intern table. The GC profiler shows the bytes allocated per op for both.
+ */
+@State(Scope.Benchmark)
+public class SmartechInternTableBenchmark {
+
+    private static final int VOCABULARY_SIZE = 300;
+    private static final int EVENT_COUNT = 64;
+    private static final int KEYS_PER_EVENT = 20;
+
+    private String[] eventsJson;
+    private SmartechInternTable internTable;
+
+    @Setup
+    public void setUp() throws JSONException {
+        Random random = new Random(42);
+        String[] vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            vocabulary[i] = "attribute_" + i;
+        }
+        eventsJson = new String[EVENT_COUNT];
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            JSONObject event = new JSONObject();
+            for (int k = 0; k < KEYS_PER_EVENT; k++) {
+                event.put(vocabulary[random.nextInt(VOCABULARY_SIZE)], random.nextInt(1000));
+            }
+            eventsJson[i] = event.toString();
+        }
+        internTable = new SmartechInternTable(SmartechInternTable.DEFAULT_MAX_ENTRIES, SmartechInternTable.DEFAULT_MAX_LENGTH);
+    }
+
+    @Benchmark
+    public void interned(Blackhole blackhole) throws JSONException {
+        for (String json : eventsJson) {
+            blackhole.consume(SmartechJsonParser.parseObject(json, SmartechJsonParser.DEFAULT_MAX_DEPTH, SmartechJsonParser.DEFAULT_MAX_LENGTH, internTable));
+        }
+    }
+
+    @Benchmark
+    public void notInterned(Blackhole blackhole) throws JSONException {
+        for (String json : eventsJson) {
+            blackhole.consume(SmartechJsonParser.parseObject(json, SmartechJsonParser.DEFAULT_MAX_DEPTH, SmartechJsonParser.DEFAULT_MAX_LENGTH, null));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.netcore.reactnative;
+
+import com.facebook.react.bridge.ReadableMap;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+
+/**
+ * Compares the trackEventJson path, which parses the payload string straight into the SDK map,
+ * with parsing through a JSONObject tree and with the ReadableMap conversion used by trackEvent.
+ */
+@State(Scope.Benchmark)
+public class SmartechJsonParserBenchmark {
+
+    @Param({BenchmarkPayloads.FLAT, BenchmarkPayloads.NESTED, BenchmarkPayloads.LARGE_ARRAY, BenchmarkPayloads.UNICODE})
+    public String payloadType;
+
+    private String payloadJson;
+    private ReadableMap readableMap;
+
+    @Setup
+    public void setUp() {
+        payloadJson = BenchmarkPayloads.json(payloadType).toString();
+        readableMap = BenchmarkPayloads.readableMap(payloadType);
+    }
+
+    @Benchmark
+    public HashMap<String, Object> streamingParser() throws JSONException {
+        return SmartechJsonParser.parseObject(payloadJson, SmartechJsonParser.DEFAULT_MAX_DEPTH, SmartechJsonParser.DEFAULT_MAX_LENGTH);
+    }
+
+    @Benchmark
+    public HashMap<String, Object> jsonObjectTree() throws JSONException {
+        return SmartechHelper.convertJsonToHashMap(new JSONObject(payloadJson));
+    }
+
+    @Benchmark
+    public HashMap<String, Object> readableMapConversion() {
+        return SmartechHelper.convertReadableMapToHashMap(readableMap);
+    }
+}
@@ -0,0 +1,15 @@
+package android.content;
+
+import java.io.File;
+
+/**
+ * Plain-JVM fake of the Android context, used to run the load test without the Android runtime.
+ */
+public abstract class Context {
+
+    public abstract File getFilesDir();
+
+    public Context getApplicationContext() {
+        return this;
+    }
+}
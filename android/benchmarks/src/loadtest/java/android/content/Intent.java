@@ -0,0 +1,20 @@
+package android.content;
+
+import android.os.Bundle;
+
+/**
+ * Plain-JVM fake of the Android intent, used to run the load test without the Android runtime.
+ */
+public class Intent {
+
+    private Bundle extras = null;
+
+    public Bundle getExtras() {
+        return extras;
+    }
+
+    public Intent putExtras(Bundle extras) {
+        this.extras = extras;
+        return this;
+    }
+}
@@ -0,0 +1,29 @@
+package android.os;
+
+import java.util.HashMap;
+
+/**
+ * Plain-JVM fake of the Android bundle, used to run the load test without the Android runtime.
+ */
+public class Bundle {
+
+    private final HashMap<String, Object> values = new HashMap<>();
+
+    public boolean containsKey(String key) {
+        return values.containsKey(key);
+    }
+
+    public String getString(String key) {
+        Object value = values.get(key);
+        return value instanceof String ? (String) value : null;
+    }
+
+    public void putString(String key, String value) {
+        values.put(key, value);
+    }
+
+    @Override
+    public String toString() {
+        return "Bundle" + values;
+    }
+}
@@ -0,0 +1,61 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plain-JVM fake of the Android handler, which runs the posted runnables on the thread of its looper.
+ */
+public class Handler {
+
+    private final Looper looper;
+    private final HashMap<Runnable, List<ScheduledFuture<?>>> pending = new HashMap<>();
+
+    public Handler() {
+        this(Looper.getMainLooper());
+    }
+
+    public Handler(Looper looper) {
+        this.looper = looper;
+    }
+
+    public final boolean post(Runnable runnable) {
+        return postDelayed(runnable, 0);
+    }
+
+    public final boolean postDelayed(Runnable runnable, long delayMillis) {
+        synchronized (pending) {
+            List<ScheduledFuture<?>> futures = pending.get(runnable);
+            if (futures == null) {
+                futures = new ArrayList<>();
+                pending.put(runnable, futures);
+            }
+            for (Iterator<ScheduledFuture<?>> iterator = futures.iterator(); iterator.hasNext(); ) {
+                if (iterator.next().isDone()) {
+                    iterator.remove();
+                }
+            }
+            futures.add(looper.executor.schedule(runnable, Math.max(0, delayMillis), TimeUnit.MILLISECONDS));
+        }
+        return true;
+    }
+
+    public final void removeCallbacks(Runnable runnable) {
+        synchronized (pending) {
+            List<ScheduledFuture<?>> futures = pending.remove(runnable);
+            if (futures != null) {
+                for (ScheduledFuture<?> future : futures) {
+                    future.cancel(false);
+                }
+            }
+        }
+    }
+
+    public final Looper getLooper() {
+        return looper;
+    }
+}
@@ -0,0 +1,42 @@
+package android.os;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Plain-JVM fake of the Android looper. The main looper is a single daemon thread named "main" which
+ * runs the messages posted by the handlers.
+ */
+public final class Looper {
+
+    private static final Looper mainLooper = new Looper("main");
+
+    final ScheduledExecutorService executor;
+    private volatile Thread thread;
+
+    private Looper(final String name) {
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                Looper.this.thread = thread;
+                return thread;
+            }
+        });
+    }
+
+    public static Looper getMainLooper() {
+        return mainLooper;
+    }
+
+    // Only the main looper exists on the JVM.
+    public static Looper myLooper() {
+        return Thread.currentThread() == mainLooper.thread ? mainLooper : null;
+    }
+
+    public Thread getThread() {
+        return thread;
+    }
+}
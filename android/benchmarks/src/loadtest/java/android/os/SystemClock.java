@@ -0,0 +1,20 @@
+package android.os;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plain-JVM fake of the Android clock, used to run the load test without the Android runtime.
+ */
+public final class SystemClock {
+
+    private SystemClock() {
+    }
+
+    public static long elapsedRealtime() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    public static long uptimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
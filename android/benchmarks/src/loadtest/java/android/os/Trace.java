@@ -0,0 +1,16 @@
+package android.os;
+
+/**
+ * Plain-JVM fake of the Android systrace sections, which are not recorded on the JVM.
+ */
+public final class Trace {
+
+    private Trace() {
+    }
+
+    public static void beginSection(String sectionName) {
+    }
+
+    public static void endSection() {
+    }
+}
@@ -0,0 +1,84 @@
+package com.facebook.react.bridge;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain-JVM fake of the React Native bridge helpers, used to run the load test without the Android runtime.
+ * Like the native implementation, makeNativeMap copies nested maps and lists and stores every number as a double.
+ */
+public class Arguments {
+
+    public static WritableMap createMap() {
+        return new WritableNativeMap();
+    }
+
+    public static WritableArray createArray() {
+        return new WritableNativeArray();
+    }
+
+    public static WritableNativeMap makeNativeMap(Map<String, Object> map) {
+        WritableNativeMap nativeMap = new WritableNativeMap();
+        if (map == null) {
+            return nativeMap;
+        }
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            if (value == null) {
+                nativeMap.putNull(key);
+            } else if (value instanceof Boolean) {
+                nativeMap.putBoolean(key, (Boolean) value);
+            } else if (value instanceof Number) {
+                nativeMap.putDouble(key, ((Number) value).doubleValue());
+            } else if (value instanceof String) {
+                nativeMap.putString(key, (String) value);
+            } else if (value instanceof Map) {
+                nativeMap.putMap(key, makeNativeMap(castMap(value)));
+            } else if (value instanceof List) {
+                nativeMap.putArray(key, makeNativeArray((List<?>) value));
+            } else if (value instanceof ReadableMap) {
+                nativeMap.putMap(key, (ReadableMap) value);
+            } else if (value instanceof ReadableArray) {
+                nativeMap.putArray(key, (ReadableArray) value);
+            } else {
+                throw new IllegalArgumentException("Could not convert " + value.getClass());
+            }
+        }
+        return nativeMap;
+    }
+
+    public static WritableNativeArray makeNativeArray(List<?> list) {
+        WritableNativeArray nativeArray = new WritableNativeArray();
+        if (list == null) {
+            return nativeArray;
+        }
+        for (Object value : list) {
+            if (value == null) {
+                nativeArray.pushNull();
+            } else if (value instanceof Boolean) {
+                nativeArray.pushBoolean((Boolean) value);
+            } else if (value instanceof Number) {
+                nativeArray.pushDouble(((Number) value).doubleValue());
+            } else if (value instanceof String) {
+                nativeArray.pushString((String) value);
+            } else if (value instanceof Map) {
+                nativeArray.pushMap(makeNativeMap(castMap(value)));
+            } else if (value instanceof List) {
+                nativeArray.pushArray(makeNativeArray((List<?>) value));
+            } else if (value instanceof ReadableMap) {
+                nativeArray.pushMap((ReadableMap) value);
+            } else if (value instanceof ReadableArray) {
+                nativeArray.pushArray((ReadableArray) value);
+            } else {
+                throw new IllegalArgumentException("Could not convert " + value.getClass());
+            }
+        }
+        return nativeArray;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castMap(Object value) {
+        return (Map<String, Object>) value;
+    }
+}
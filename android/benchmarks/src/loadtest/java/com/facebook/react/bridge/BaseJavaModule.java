@@ -0,0 +1,17 @@
+package com.facebook.react.bridge;
+
+import java.util.Map;
+
+/**
+ * Plain-JVM fake of the React Native bridge type, used to run the load test without the Android runtime.
+ */
+public abstract class BaseJavaModule implements NativeModule {
+
+    public Map<String, Object> getConstants() {
+        return null;
+    }
+
+    @Override
+    public void onCatalystInstanceDestroy() {
+    }
+}
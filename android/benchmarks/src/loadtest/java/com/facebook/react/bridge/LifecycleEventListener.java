@@ -0,0 +1,13 @@
+package com.facebook.react.bridge;
+
+/**
+ * Plain-JVM fake of the React Native bridge type, used to run the load test without the Android runtime.
+ */
+public interface LifecycleEventListener {
+
+    void onHostResume();
+
+    void onHostPause();
+
+    void onHostDestroy();
+}
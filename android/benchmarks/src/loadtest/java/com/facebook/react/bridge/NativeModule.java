@@ -0,0 +1,11 @@
+package com.facebook.react.bridge;
+
+/**
+ * Plain-JVM fake of the React Native bridge type, used to run the load test without the Android runtime.
+ */
+public interface NativeModule {
+
+    String getName();
+
+    void onCatalystInstanceDestroy();
+}
@@ -0,0 +1,13 @@
+package com.facebook.react.bridge;
+
+import android.content.Context;
+
+/**
+ * Plain-JVM fake of the React Native bridge type, used to run the load test without the Android runtime.
+ */
+public class ReactApplicationContext extends ReactContext {
+
+    public ReactApplicationContext(Context context) {
+        super(context.getApplicationContext());
+    }
+}
@@ -0,0 +1,66 @@
+package com.facebook.react.bridge;
+
+import android.content.Context;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Plain-JVM fake of the React Native context. The JS modules returned by getJSModule are registered
+ * with setJSModule, and the lifecycle events are sent to the listeners by calling onHostPause and
+ * the other host methods.
+ */
+public class ReactContext extends Context {
+
+    private final Context baseContext;
+    private final CopyOnWriteArrayList<LifecycleEventListener> lifecycleEventListeners = new CopyOnWriteArrayList<>();
+    private final HashMap<Class<?>, JavaScriptModule> jsModules = new HashMap<>();
+
+    public ReactContext(Context baseContext) {
+        this.baseContext = baseContext;
+    }
+
+    @Override
+    public File getFilesDir() {
+        return baseContext.getFilesDir();
+    }
+
+    public void addLifecycleEventListener(LifecycleEventListener listener) {
+        lifecycleEventListeners.add(listener);
+    }
+
+    public void removeLifecycleEventListener(LifecycleEventListener listener) {
+        lifecycleEventListeners.remove(listener);
+    }
+
+    public synchronized <T extends JavaScriptModule> void setJSModule(Class<T> moduleInterface, T module) {
+        jsModules.put(moduleInterface, module);
+    }
+
+    public synchronized <T extends JavaScriptModule> T getJSModule(Class<T> moduleInterface) {
+        T module = moduleInterface.cast(jsModules.get(moduleInterface));
+        if (module == null) {
+            throw new IllegalStateException("No JS module registered for " + moduleInterface.getName());
+        }
+        return module;
+    }
+
+    public void onHostResume() {
+        for (LifecycleEventListener listener : lifecycleEventListeners) {
+            listener.onHostResume();
+        }
+    }
+
+    public void onHostPause() {
+        for (LifecycleEventListener listener : lifecycleEventListeners) {
+            listener.onHostPause();
+        }
+    }
+
+    public void onHostDestroy() {
+        for (LifecycleEventListener listener : lifecycleEventListeners) {
+            listener.onHostDestroy();
+        }
+    }
+}
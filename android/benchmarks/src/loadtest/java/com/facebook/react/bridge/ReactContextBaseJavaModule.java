@@ -0,0 +1,17 @@
+package com.facebook.react.bridge;
+
+/**
+ * Plain-JVM fake of the React Native bridge type, used to run the load test without the Android runtime.
+ */
+public abstract class ReactContextBaseJavaModule extends BaseJavaModule {
+
+    private final ReactApplicationContext reactApplicationContext;
+
+    public ReactContextBaseJavaModule(ReactApplicationContext reactContext) {
+        this.reactApplicationContext = reactContext;
+    }
+
+    protected final ReactApplicationContext getReactApplicationContext() {
+        return reactApplicationContext;
+    }
+}
@@ -0,0 +1,16 @@
+package com.facebook.react.bridge;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Plain-JVM fake of the React Native bridge annotation, used to run the load test without the Android runtime.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ReactMethod {
+
+    boolean isBlockingSynchronousMethod() default false;
+}
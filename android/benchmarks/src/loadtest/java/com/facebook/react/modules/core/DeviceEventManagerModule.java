@@ -0,0 +1,13 @@
+package com.facebook.react.modules.core;
+
+import com.facebook.react.bridge.JavaScriptModule;
+
+/**
+ * Plain-JVM fake of the React Native event emitter module, used to run the load test without the Android runtime.
+ */
+public class DeviceEventManagerModule {
+
+    public interface RCTDeviceEventEmitter extends JavaScriptModule {
+        void emit(String eventName, Object data);
+    }
+}
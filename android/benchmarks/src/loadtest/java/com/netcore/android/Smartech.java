@@ -0,0 +1,193 @@
+package com.netcore.android;
+
+import android.content.Context;
+import android.location.Location;
+
+import com.netcore.android.notification.SMTNotificationClickListener;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plain-JVM stand-in for the Smartech SDK used by the load test. It counts the calls made to each
+ * method and keeps the identity, consents and token in memory. Each call can spin for a fixed time
+ * to stand for the work the SDK does on the calling thread.
+ */
+public class Smartech {
+
+    private static final Smartech instance = new Smartech();
+
+    private static volatile long callCostNanos = 0;
+
+    private final ConcurrentHashMap<String, AtomicLong> callCounts = new ConcurrentHashMap<>();
+    private volatile String userIdentity = "";
+    private volatile String devicePushToken = "";
+    private volatile boolean isTrackingOpted = true;
+    private volatile boolean isPushNotificationOpted = true;
+    private volatile boolean isInAppMessageOpted = true;
+
+    public static Smartech getInstance(WeakReference<Context> context) {
+        instance.record("getInstance");
+        return instance;
+    }
+
+    // Used to set the time spent in every call, 0 returns right away.
+    public static void setCallCostNanos(long nanos) {
+        callCostNanos = Math.max(0, nanos);
+    }
+
+    // Used to get the number of calls made to each method, sorted by method name.
+    public static TreeMap<String, Long> getCallCounts() {
+        TreeMap<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : instance.callCounts.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+        return counts;
+    }
+
+    public static long getCallCount(String method) {
+        AtomicLong count = instance.callCounts.get(method);
+        return count != null ? count.get() : 0;
+    }
+
+    public static void resetCallCounts() {
+        instance.callCounts.clear();
+    }
+
+    public void setSMTNotificationClickListener(SMTNotificationClickListener listener) {
+        record("setSMTNotificationClickListener");
+    }
+
+    public void trackAppInstall() {
+        record("trackAppInstall");
+    }
+
+    public void trackAppUpdate() {
+        record("trackAppUpdate");
+    }
+
+    public void trackAppInstallUpdateBySmartech() {
+        record("trackAppInstallUpdateBySmartech");
+    }
+
+    public void trackEvent(String eventName, HashMap<String, Object> payload) {
+        record("trackEvent");
+    }
+
+    public void updateUserProfile(HashMap<String, Object> profile) {
+        record("updateUserProfile");
+    }
+
+    public void setUserIdentity(String identity) {
+        record("setUserIdentity");
+        userIdentity = identity;
+    }
+
+    public String getUserIdentity() {
+        record("getUserIdentity");
+        return userIdentity;
+    }
+
+    public void clearUserIdentity() {
+        record("clearUserIdentity");
+        userIdentity = "";
+    }
+
+    public void login(String identity) {
+        record("login");
+        userIdentity = identity;
+    }
+
+    public void logoutAndClearUserIdentity(boolean clearUserIdentity) {
+        record("logoutAndClearUserIdentity");
+        if (clearUserIdentity) {
+            userIdentity = "";
+        }
+    }
+
+    public void optTracking(boolean value) {
+        record("optTracking");
+        isTrackingOpted = value;
+    }
+
+    public boolean hasOptedTracking() {
+        record("hasOptedTracking");
+        return isTrackingOpted;
+    }
+
+    public void optPushNotification(boolean value) {
+        record("optPushNotification");
+        isPushNotificationOpted = value;
+    }
+
+    public boolean hasOptedPushNotification() {
+        record("hasOptedPushNotification");
+        return isPushNotificationOpted;
+    }
+
+    public void optInAppMessage(boolean value) {
+        record("optInAppMessage");
+        isInAppMessageOpted = value;
+    }
+
+    public boolean hasOptedInAppMessage() {
+        record("hasOptedInAppMessage");
+        return isInAppMessageOpted;
+    }
+
+    public void setUserLocation(Location location) {
+        record("setUserLocation");
+    }
+
+    public String getAppID() {
+        record("getAppID");
+        return "load-test-app";
+    }
+
+    public String getDeviceUniqueId() {
+        record("getDeviceUniqueId");
+        return "load-test-device";
+    }
+
+    public String getSDKVersion() {
+        record("getSDKVersion");
+        return "load-test";
+    }
+
+    public String getDevicePushToken() {
+        record("getDevicePushToken");
+        return devicePushToken;
+    }
+
+    public void setDevicePushToken(String token) {
+        record("setDevicePushToken");
+        devicePushToken = token;
+    }
+
+    public void fetchAlreadyGeneratedTokenFromFCM() {
+        record("fetchAlreadyGeneratedTokenFromFCM");
+    }
+
+    private void record(String method) {
+        AtomicLong count = callCounts.get(method);
+        if (count == null) {
+            AtomicLong created = new AtomicLong();
+            count = callCounts.putIfAbsent(method, created);
+            if (count == null) {
+                count = created;
+            }
+        }
+        count.incrementAndGet();
+        long costNanos = callCostNanos;
+        if (costNanos > 0) {
+            long endNanos = System.nanoTime() + costNanos;
+            while (System.nanoTime() < endNanos) {
+                // Spins rather than sleeps, the SDK work holds the calling thread.
+            }
+        }
+    }
+}
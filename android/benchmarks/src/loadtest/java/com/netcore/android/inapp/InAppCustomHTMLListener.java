@@ -0,0 +1,11 @@
+package com.netcore.android.inapp;
+
+import java.util.HashMap;
+
+/**
+ * Plain-JVM stand-in for the Smartech SDK listener, used to run the load test without the SDK.
+ */
+public interface InAppCustomHTMLListener {
+
+    void customHTMLCallback(HashMap<String, Object> payload);
+}
@@ -0,0 +1,11 @@
+package com.netcore.android.notification;
+
+import android.content.Intent;
+
+/**
+ * Plain-JVM stand-in for the Smartech SDK listener, used to run the load test without the SDK.
+ */
+public interface SMTNotificationClickListener {
+
+    void onNotificationClick(Intent intent);
+}
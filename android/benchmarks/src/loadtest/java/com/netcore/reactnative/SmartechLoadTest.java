@@ -0,0 +1,443 @@
+package com.netcore.reactnative;
+
+import android.content.Context;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Callback;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeArray;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+import com.netcore.android.Smartech;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test of SmartechReactNativeModule on a plain JVM, run with ./gradlew loadTest.
+ *
+ * The module is built on the fakes of the React Native context and of the Smartech SDK. Producer
+ * threads, standing for the JS threads, replay a trace of bridge calls on a fixed schedule at the
+ * given total rate, and the report gives the sustained throughput, the latency of the bridge calls,
+ * the events which did not reach the SDK and the heap growth over the run.
+ *
+ * Options are given as --name=value:
+ * rate (bridge calls per second, 10000), producers (4), duration and warmup (seconds, 30 and 5),
+ * sdkCostMicros (time spent in every SDK call, 0), lazy (lazy SDK initialization, false),
+ * eventPolicies (JSON passed to setEventPolicies), eventAggregations (JSON passed to setEventAggregations)
+ * and trace (file of JSON lines, a built-in trace by default).
+ *
+ * Each trace line is a bridge call:
+ * {"method": "trackEvent", "name": ..., "payload": {...}}, {"method": "trackEvents", "events": [{"name": ..., "payload": {...}}]},
+ * {"method": "updateUserProfile", "payload": {...}} or {"method": "setUserLocation", "latitude": ..., "longitude": ...}.
+ */
+public class SmartechLoadTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+    private static final long HEAP_SAMPLE_INTERVAL_MILLIS = 50;
+
+    // Production-like mix of calls, repeated lines set the relative frequency of each call.
+    private static final String[] DEFAULT_TRACE = {
+            "{\"method\":\"trackEvent\",\"name\":\"screen_view\",\"payload\":{\"screen\":\"Home\",\"referrer\":\"push\",\"timestamp\":1602063517000}}",
+            "{\"method\":\"trackEvent\",\"name\":\"product_viewed\",\"payload\":{\"productName\":\"Running Shoes\",\"category\":\"footwear\",\"sku\":\"SKU-000123-XL\",\"quantity\":2,\"price\":1499.99,\"productId\":908172,\"inStock\":true,\"isGift\":false,\"currency\":\"INR\",\"discount\":12.5,\"screen\":\"ProductDetail\",\"position\":4,\"coupon\":null,\"campaign\":\"summer_sale_2020\"}}",
+            "{\"method\":\"trackEvent\",\"name\":\"screen_view\",\"payload\":{\"screen\":\"ProductList\",\"referrer\":\"Home\",\"timestamp\":1602063518000}}",
+            "{\"method\":\"trackEvents\",\"events\":[{\"name\":\"scroll_depth\",\"payload\":{\"screen\":\"ProductList\",\"depth\":25}},{\"name\":\"scroll_depth\",\"payload\":{\"screen\":\"ProductList\",\"depth\":50}},{\"name\":\"scroll_depth\",\"payload\":{\"screen\":\"ProductList\",\"depth\":75}},{\"name\":\"impression\",\"payload\":{\"items\":[908172,908173,908174,908175]}}]}",
+            "{\"method\":\"trackEvent\",\"name\":\"product_viewed\",\"payload\":{\"productName\":\"Trail Shoes\",\"category\":\"footwear\",\"sku\":\"SKU-000456-M\",\"quantity\":1,\"price\":2199.0,\"productId\":908173,\"inStock\":true,\"isGift\":false,\"currency\":\"INR\",\"discount\":0,\"screen\":\"ProductDetail\",\"position\":7,\"coupon\":null,\"campaign\":\"summer_sale_2020\"}}",
+            "{\"method\":\"trackEvent\",\"name\":\"add_to_cart\",\"payload\":{\"product\":{\"sku\":\"SKU-000123-XL\",\"price\":1499.99,\"quantity\":2},\"cart\":{\"items\":[{\"sku\":\"SKU-000123-XL\",\"quantity\":2},{\"sku\":\"SKU-000789-S\",\"quantity\":1}],\"total\":3998.98,\"currency\":\"INR\"}}}",
+            "{\"method\":\"trackEvent\",\"name\":\"screen_view\",\"payload\":{\"screen\":\"Cart\",\"referrer\":\"ProductDetail\",\"timestamp\":1602063519000}}",
+            "{\"method\":\"updateUserProfile\",\"payload\":{\"FIRST_NAME\":\"Asha\",\"CITY\":\"Mumbai\",\"AGE\":31,\"LAST_SEEN_SCREEN\":\"Cart\"}}",
+            "{\"method\":\"trackEvent\",\"name\":\"\\u30AB\\u30FC\\u30C8\\u8868\\u793A\",\"payload\":{\"\\u5546\\u54C1\":\"\\u30E9\\u30F3\\u30CB\\u30F3\\u30B0\\u30B7\\u30E5\\u30FC\\u30BA \\uD83D\\uDE80\",\"\\u6570\\u91CF\":2}}",
+            "{\"method\":\"setUserLocation\",\"latitude\":19.0760,\"longitude\":72.8777}"
+    };
+
+    private abstract static class TraceCall {
+        final int eventCount;
+
+        TraceCall(int eventCount) {
+            this.eventCount = eventCount;
+        }
+
+        abstract void invoke(SmartechReactNativeModule module);
+    }
+
+    // Latencies and counters of one producer, only touched by its thread until the producers have stopped.
+    private static final class Producer extends Thread {
+        private final SmartechReactNativeModule module;
+        private final List<TraceCall> trace;
+        private final int index;
+        private final int producerCount;
+        private final long intervalNanos;
+        private final long startNanos;
+        private final long measureStartNanos;
+        private final long endNanos;
+        private final CountDownLatch doneLatch;
+        long[] latencies;
+        int latencyCount = 0;
+        long callCount = 0;
+        long eventCount = 0;
+        long measuredCallCount = 0;
+        long maxLagNanos = 0;
+
+        Producer(SmartechReactNativeModule module, List<TraceCall> trace, int index, int producerCount, long intervalNanos,
+                 long startNanos, long measureStartNanos, long endNanos, CountDownLatch doneLatch) {
+            super("SmartechLoadTest-producer-" + index);
+            this.module = module;
+            this.trace = trace;
+            this.index = index;
+            this.producerCount = producerCount;
+            this.intervalNanos = intervalNanos;
+            this.startNanos = startNanos;
+            this.measureStartNanos = measureStartNanos;
+            this.endNanos = endNanos;
+            this.doneLatch = doneLatch;
+            this.latencies = new long[(int) Math.min(Integer.MAX_VALUE - 8, Math.max(1024, (endNanos - measureStartNanos) / intervalNanos + 1024))];
+        }
+
+        @Override
+        public void run() {
+            try {
+                // Producers are offset by a fraction of the interval so that the calls are spread evenly.
+                long deadline = startNanos + intervalNanos * index / producerCount;
+                int position = index % trace.size();
+                while (deadline < endNanos) {
+                    long now = System.nanoTime();
+                    while (now < deadline) {
+                        LockSupport.parkNanos(deadline - now);
+                        now = System.nanoTime();
+                    }
+                    TraceCall call = trace.get(position);
+                    long callStartNanos = System.nanoTime();
+                    call.invoke(module);
+                    long latencyNanos = System.nanoTime() - callStartNanos;
+                    callCount++;
+                    eventCount += call.eventCount;
+                    if (deadline >= measureStartNanos) {
+                        measuredCallCount++;
+                        maxLagNanos = Math.max(maxLagNanos, callStartNanos - deadline);
+                        if (latencyCount == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, latencies.length * 2);
+                        }
+                        latencies[latencyCount++] = latencyNanos;
+                    }
+                    position = (position + producerCount) % trace.size();
+                    deadline += intervalNanos;
+                }
+            } finally {
+                doneLatch.countDown();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        HashMap<String, String> options = parseOptions(args);
+        double rate = Double.parseDouble(option(options, "rate", "10000"));
+        int producerCount = Integer.parseInt(option(options, "producers", "4"));
+        double durationSeconds = Double.parseDouble(option(options, "duration", "30"));
+        double warmupSeconds = Double.parseDouble(option(options, "warmup", "5"));
+        long sdkCostMicros = Long.parseLong(option(options, "sdkCostMicros", "0"));
+        boolean isLazyInitialization = Boolean.parseBoolean(option(options, "lazy", "false"));
+        List<TraceCall> trace = options.containsKey("trace")
+                ? parseTrace(new String(Files.readAllBytes(new File(options.get("trace")).toPath()), UTF_8).split("\n"))
+                : parseTrace(DEFAULT_TRACE);
+        if (rate <= 0 || producerCount <= 0 || durationSeconds <= 0 || trace.isEmpty()) {
+            throw new IllegalArgumentException("rate, producers and duration must be positive and the trace must not be empty.");
+        }
+
+        Smartech.setCallCostNanos(TimeUnit.MICROSECONDS.toNanos(sdkCostMicros));
+        final File filesDir = Files.createTempDirectory("smartech-load-test").toFile();
+        final AtomicLong jsEventCount = new AtomicLong();
+        ReactApplicationContext reactContext = new ReactApplicationContext(new Context() {
+            @Override
+            public File getFilesDir() {
+                return filesDir;
+            }
+        });
+        reactContext.setJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class, new DeviceEventManagerModule.RCTDeviceEventEmitter() {
+            @Override
+            public void emit(String eventName, Object data) {
+                jsEventCount.incrementAndGet();
+            }
+        });
+
+        SmartechReactNativeModule module = new SmartechReactNativeModule(reactContext, isLazyInitialization);
+        if (options.containsKey("eventPolicies")) {
+            module.setEventPolicies(Arguments.makeNativeMap(new JSONObject(options.get("eventPolicies")).toMap()));
+        }
+        if (options.containsKey("eventAggregations")) {
+            module.setEventAggregations(Arguments.makeNativeMap(new JSONObject(options.get("eventAggregations")).toMap()));
+        }
+        module.getDispatcher().flush(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Smartech.resetCallCounts();
+        long baselineHeapBytes = usedHeapAfterGc();
+        long baselineGcCount = gcCount();
+        long baselineGcMillis = gcMillis();
+
+        final AtomicLong peakHeapBytes = new AtomicLong(baselineHeapBytes);
+        Thread heapSampler = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Runtime runtime = Runtime.getRuntime();
+                while (!Thread.currentThread().isInterrupted()) {
+                    long used = runtime.totalMemory() - runtime.freeMemory();
+                    if (used > peakHeapBytes.get()) {
+                        peakHeapBytes.set(used);
+                    }
+                    try {
+                        Thread.sleep(HEAP_SAMPLE_INTERVAL_MILLIS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }, "SmartechLoadTest-heap");
+        heapSampler.setDaemon(true);
+        heapSampler.start();
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) * producerCount / rate);
+        long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureStartNanos = startNanos + (long) (warmupSeconds * TimeUnit.SECONDS.toNanos(1));
+        long endNanos = measureStartNanos + (long) (durationSeconds * TimeUnit.SECONDS.toNanos(1));
+        CountDownLatch doneLatch = new CountDownLatch(producerCount);
+        Producer[] producers = new Producer[producerCount];
+        for (int i = 0; i < producerCount; i++) {
+            producers[i] = new Producer(module, trace, i, producerCount, intervalNanos, startNanos, measureStartNanos, endNanos, doneLatch);
+            producers[i].start();
+        }
+
+        // The SDK counters are read at the edges of the measured window to get the rate the dispatcher sustains.
+        LockSupport.parkNanos(measureStartNanos - System.nanoTime());
+        long sdkEventsAtMeasureStart = Smartech.getCallCount("trackEvent");
+        long measureWallStartNanos = System.nanoTime();
+        doneLatch.await();
+        long measureWallNanos = System.nanoTime() - measureWallStartNanos;
+        long sdkEventsAtMeasureEnd = Smartech.getCallCount("trackEvent");
+
+        module.onHostPause();
+        long drainStartNanos = System.nanoTime();
+        boolean isDrained = module.getDispatcher().flush(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        long drainNanos = System.nanoTime() - drainStartNanos;
+        heapSampler.interrupt();
+        long retainedHeapBytes = usedHeapAfterGc();
+
+        long callCount = 0;
+        long eventCount = 0;
+        long measuredCallCount = 0;
+        long maxLagNanos = 0;
+        int latencyCount = 0;
+        for (Producer producer : producers) {
+            callCount += producer.callCount;
+            eventCount += producer.eventCount;
+            measuredCallCount += producer.measuredCallCount;
+            maxLagNanos = Math.max(maxLagNanos, producer.maxLagNanos);
+            latencyCount += producer.latencyCount;
+        }
+        long[] latencies = new long[latencyCount];
+        int offset = 0;
+        for (Producer producer : producers) {
+            System.arraycopy(producer.latencies, 0, latencies, offset, producer.latencyCount);
+            offset += producer.latencyCount;
+        }
+        Arrays.sort(latencies);
+
+        HashMap<String, Object> dispatcherStats = module.getDispatcher().getStats();
+        HashMap<String, Object> converterStats = SmartechPayloadConverter.getStats();
+        long deliveredEventCount = Smartech.getCallCount("trackEvent");
+        long dispatcherDroppedCount = longValue(dispatcherStats.get("droppedCount"));
+        long policyDroppedCount = getEventPolicyDroppedCount(module);
+        long[] aggregationCounts = getEventAggregationCounts(module);
+        long aggregatedEventCount = aggregationCounts[0];
+        long summaryCount = aggregationCounts[1];
+        long rejectedPayloadCount = longValue(converterStats.get("rejectedCount"));
+        double measuredSeconds = measureWallNanos / 1e9;
+
+        System.out.println(String.format("Smartech load test: %.0f calls/s from %d producers for %.1f s after a %.1f s warmup, %d trace calls, SDK call cost %d us%s",
+                rate, producerCount, durationSeconds, warmupSeconds, trace.size(), sdkCostMicros, isLazyInitialization ? ", lazy initialization" : ""));
+        System.out.println(String.format("Throughput      %.1f calls/s sustained, %.1f events/s reached the SDK", measuredCallCount / measuredSeconds, (sdkEventsAtMeasureEnd - sdkEventsAtMeasureStart) / measuredSeconds));
+        System.out.println(String.format("Call latency    p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us, max schedule lag %.2f ms",
+                percentileMicros(latencies, 0.50), percentileMicros(latencies, 0.99), percentileMicros(latencies, 0.999),
+                latencies.length == 0 ? 0d : latencies[latencies.length - 1] / 1e3, maxLagNanos / 1e6));
+        System.out.println(String.format("Dispatcher      %d calls dropped, max queue depth %d, max wait %.1f ms, drained in %.1f ms%s",
+                dispatcherDroppedCount, longValue(dispatcherStats.get("maxQueueDepth")), longValue(dispatcherStats.get("maxWaitMicros")) / 1e3,
+                drainNanos / 1e6, isDrained ? "" : " (timed out)"));
+        System.out.println(String.format("Events          %d tracked, %d reached the SDK, %d aggregated into %d summaries, %d not delivered with %d dropped by the event policies and %d payloads rejected",
+                eventCount, deliveredEventCount - summaryCount, aggregatedEventCount, summaryCount,
+                eventCount - (deliveredEventCount - summaryCount) - aggregatedEventCount, policyDroppedCount, rejectedPayloadCount));
+        System.out.println(String.format("Heap            baseline %.1f MB, peak %.1f MB, retained growth %+.1f KB, %d collections taking %d ms",
+                baselineHeapBytes / 1048576d, peakHeapBytes.get() / 1048576d, (retainedHeapBytes - baselineHeapBytes) / 1024d,
+                gcCount() - baselineGcCount, gcMillis() - baselineGcMillis));
+        System.out.println("Bridge calls    " + callCount + " in total, " + jsEventCount.get() + " events sent to JS");
+        System.out.println("SDK calls       " + Smartech.getCallCounts());
+
+        module.onCatalystInstanceDestroy();
+        deleteRecursively(filesDir);
+    }
+
+    static List<TraceCall> parseTrace(String[] lines) {
+        List<TraceCall> trace = new ArrayList<>();
+        for (String line : lines) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            JSONObject call = new JSONObject(line);
+            String method = call.optString("method", "trackEvent");
+            if ("trackEvent".equals(method)) {
+                final String name = call.getString("name");
+                final WritableMap payload = toNativeMap(call.optJSONObject("payload"));
+                trace.add(new TraceCall(1) {
+                    @Override
+                    void invoke(SmartechReactNativeModule module) {
+                        module.trackEvent(name, payload);
+                    }
+                });
+            } else if ("trackEvents".equals(method)) {
+                JSONArray events = call.getJSONArray("events");
+                final WritableNativeArray batch = new WritableNativeArray();
+                for (int i = 0; i < events.length(); i++) {
+                    batch.pushMap(toNativeMap(events.getJSONObject(i)));
+                }
+                trace.add(new TraceCall(events.length()) {
+                    @Override
+                    void invoke(SmartechReactNativeModule module) {
+                        module.trackEvents(batch);
+                    }
+                });
+            } else if ("updateUserProfile".equals(method)) {
+                final WritableMap profile = toNativeMap(call.optJSONObject("payload"));
+                trace.add(new TraceCall(0) {
+                    @Override
+                    void invoke(SmartechReactNativeModule module) {
+                        module.updateUserProfile(profile);
+                    }
+                });
+            } else if ("setUserLocation".equals(method)) {
+                final double latitude = call.getDouble("latitude");
+                final double longitude = call.getDouble("longitude");
+                trace.add(new TraceCall(0) {
+                    @Override
+                    void invoke(SmartechReactNativeModule module) {
+                        module.setUserLocation(latitude, longitude);
+                    }
+                });
+            } else {
+                throw new IllegalArgumentException("Unsupported trace method: " + method);
+            }
+        }
+        return trace;
+    }
+
+    // The trace maps are built once and only read by the module, so they are shared between the producers.
+    private static WritableMap toNativeMap(JSONObject jsonObject) {
+        return Arguments.makeNativeMap(jsonObject != null ? jsonObject.toMap() : new HashMap<String, Object>());
+    }
+
+    private static long getEventPolicyDroppedCount(SmartechReactNativeModule module) {
+        final long[] droppedCount = {0};
+        module.getEventPolicyStats(new Callback() {
+            @Override
+            public void invoke(Object... args) {
+                ReadableMap stats = (ReadableMap) args[0];
+                for (Object rule : stats.toHashMap().values()) {
+                    droppedCount[0] += longValue(((Map<?, ?>) rule).get("droppedCount"));
+                }
+            }
+        });
+        return droppedCount[0];
+    }
+
+    // Returns the number of aggregated events and of the summaries tracked for them.
+    private static long[] getEventAggregationCounts(SmartechReactNativeModule module) {
+        final long[] counts = {0, 0};
+        module.getEventAggregationStats(new Callback() {
+            @Override
+            public void invoke(Object... args) {
+                ReadableMap stats = (ReadableMap) args[0];
+                for (Object rule : stats.toHashMap().values()) {
+                    counts[0] += longValue(((Map<?, ?>) rule).get("aggregatedEventCount"));
+                    counts[1] += longValue(((Map<?, ?>) rule).get("summaryCount"));
+                }
+            }
+        });
+        return counts;
+    }
+
+    private static HashMap<String, String> parseOptions(String[] args) {
+        HashMap<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private static String option(HashMap<String, String> options, String name, String fallback) {
+        String value = options.get(name);
+        return value != null ? value : fallback;
+    }
+
+    private static double percentileMicros(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, Math.min(sortedLatencies.length - 1, index))] / 1e3;
+    }
+
+    private static long longValue(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
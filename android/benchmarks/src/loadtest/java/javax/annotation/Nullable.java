@@ -0,0 +1,7 @@
+package javax.annotation;
+
+/**
+ * Plain-JVM stand-in for the JSR-305 annotation, used to run the load test without the Android runtime.
+ */
+public @interface Nullable {
+}
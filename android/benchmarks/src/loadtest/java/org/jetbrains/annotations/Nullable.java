@@ -0,0 +1,7 @@
+package org.jetbrains.annotations;
+
+/**
+ * Plain-JVM stand-in for the JetBrains annotation, used to run the load test without the Android runtime.
+ */
+public @interface Nullable {
+}
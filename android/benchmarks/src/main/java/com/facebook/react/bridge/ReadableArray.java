@@ -0,0 +1,29 @@
+package com.facebook.react.bridge;
+
+import java.util.ArrayList;
+
+/**
+ * Plain-JVM fake of the React Native bridge type, used to run the benchmarks without the Android runtime.
+ */
+public interface ReadableArray {
+
+    int size();
+
+    boolean isNull(int index);
+
+    boolean getBoolean(int index);
+
+    double getDouble(int index);
+
+    int getInt(int index);
+
+    String getString(int index);
+
+    ReadableArray getArray(int index);
+
+    ReadableMap getMap(int index);
+
+    ReadableType getType(int index);
+
+    ArrayList<Object> toArrayList();
+}
@@ -0,0 +1,31 @@
+package com.facebook.react.bridge;
+
+import java.util.HashMap;
+
+/**
+ * Plain-JVM fake of the React Native bridge type, used to run the benchmarks without the Android runtime.
+ */
+public interface ReadableMap {
+
+    boolean hasKey(String name);
+
+    boolean isNull(String name);
+
+    boolean getBoolean(String name);
+
+    double getDouble(String name);
+
+    int getInt(String name);
+
+    String getString(String name);
+
+    ReadableArray getArray(String name);
+
+    ReadableMap getMap(String name);
+
+    ReadableType getType(String name);
+
+    ReadableMapKeySetIterator keySetIterator();
+
+    HashMap<String, Object> toHashMap();
+}
@@ -0,0 +1,11 @@
+package com.facebook.react.bridge;
+
+/**
+ * Plain-JVM fake of the React Native bridge type, used to run the benchmarks without the Android runtime.
+ */
+public interface ReadableMapKeySetIterator {
+
+    boolean hasNextKey();
+
+    String nextKey();
+}
@@ -0,0 +1,13 @@
+package com.facebook.react.bridge;
+
+/**
+ * Plain-JVM fake of the React Native bridge type, used to run the benchmarks without the Android runtime.
+ */
+public enum ReadableType {
+    Null,
+    Boolean,
+    Number,
+    String,
+    Map,
+    Array
+}
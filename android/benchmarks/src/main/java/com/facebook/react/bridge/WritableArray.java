@@ -0,0 +1,21 @@
+package com.facebook.react.bridge;
+
+/**
+ * Plain-JVM fake of the React Native bridge type, used to run the benchmarks without the Android runtime.
+ */
+public interface WritableArray extends ReadableArray {
+
+    void pushNull();
+
+    void pushBoolean(boolean value);
+
+    void pushDouble(double value);
+
+    void pushInt(int value);
+
+    void pushString(String value);
+
+    void pushArray(ReadableArray array);
+
+    void pushMap(ReadableMap map);
+}
@@ -0,0 +1,103 @@
+package com.facebook.react.bridge;
+
+import java.util.ArrayList;
+
+/**
+ * Plain-JVM fake of the React Native bridge array backed by an ArrayList.
+ *
+ * Like the native implementation it stores every number as a double, and toArrayList() returns a deep
+ * copy made of HashMap, ArrayList and Double values.
+ */
+public class WritableNativeArray implements WritableArray {
+
+    private final ArrayList<Object> values = new ArrayList<>();
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public boolean isNull(int index) {
+        return values.get(index) == null;
+    }
+
+    @Override
+    public boolean getBoolean(int index) {
+        return (Boolean) values.get(index);
+    }
+
+    @Override
+    public double getDouble(int index) {
+        return (Double) values.get(index);
+    }
+
+    @Override
+    public int getInt(int index) {
+        return ((Double) values.get(index)).intValue();
+    }
+
+    @Override
+    public String getString(int index) {
+        return (String) values.get(index);
+    }
+
+    @Override
+    public ReadableArray getArray(int index) {
+        return (ReadableArray) values.get(index);
+    }
+
+    @Override
+    public ReadableMap getMap(int index) {
+        return (ReadableMap) values.get(index);
+    }
+
+    @Override
+    public ReadableType getType(int index) {
+        return WritableNativeMap.typeOf(values.get(index));
+    }
+
+    @Override
+    public ArrayList<Object> toArrayList() {
+        ArrayList<Object> list = new ArrayList<>(values.size());
+        for (Object value : values) {
+            list.add(WritableNativeMap.toJavaValue(value));
+        }
+        return list;
+    }
+
+    @Override
+    public void pushNull() {
+        values.add(null);
+    }
+
+    @Override
+    public void pushBoolean(boolean value) {
+        values.add(value);
+    }
+
+    @Override
+    public void pushDouble(double value) {
+        values.add(value);
+    }
+
+    @Override
+    public void pushInt(int value) {
+        values.add((double) value);
+    }
+
+    @Override
+    public void pushString(String value) {
+        values.add(value);
+    }
+
+    @Override
+    public void pushArray(ReadableArray array) {
+        values.add(array);
+    }
+
+    @Override
+    public void pushMap(ReadableMap map) {
+        values.add(map);
+    }
+}
@@ -0,0 +1,148 @@
+package com.facebook.react.bridge;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Plain-JVM fake of the React Native bridge map backed by a LinkedHashMap.
+ *
+ * Like the native implementation it stores every number as a double, and toHashMap() returns a deep
+ * copy made of HashMap, ArrayList and Double values.
+ */
+public class WritableNativeMap implements WritableMap {
+
+    private final LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+
+    @Override
+    public boolean hasKey(String name) {
+        return values.containsKey(name);
+    }
+
+    @Override
+    public boolean isNull(String name) {
+        return values.get(name) == null;
+    }
+
+    @Override
+    public boolean getBoolean(String name) {
+        return (Boolean) values.get(name);
+    }
+
+    @Override
+    public double getDouble(String name) {
+        return (Double) values.get(name);
+    }
+
+    @Override
+    public int getInt(String name) {
+        return ((Double) values.get(name)).intValue();
+    }
+
+    @Override
+    public String getString(String name) {
+        return (String) values.get(name);
+    }
+
+    @Override
+    public ReadableArray getArray(String name) {
+        return (ReadableArray) values.get(name);
+    }
+
+    @Override
+    public ReadableMap getMap(String name) {
+        return (ReadableMap) values.get(name);
+    }
+
+    @Override
+    public ReadableType getType(String name) {
+        return typeOf(values.get(name));
+    }
+
+    @Override
+    public ReadableMapKeySetIterator keySetIterator() {
+        final Iterator<String> iterator = values.keySet().iterator();
+        return new ReadableMapKeySetIterator() {
+            @Override
+            public boolean hasNextKey() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public String nextKey() {
+                return iterator.next();
+            }
+        };
+    }
+
+    @Override
+    public HashMap<String, Object> toHashMap() {
+        HashMap<String, Object> hashMap = new HashMap<>();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            hashMap.put(entry.getKey(), toJavaValue(entry.getValue()));
+        }
+        return hashMap;
+    }
+
+    @Override
+    public void putNull(String key) {
+        values.put(key, null);
+    }
+
+    @Override
+    public void putBoolean(String key, boolean value) {
+        values.put(key, value);
+    }
+
+    @Override
+    public void putDouble(String key, double value) {
+        values.put(key, value);
+    }
+
+    @Override
+    public void putInt(String key, int value) {
+        values.put(key, (double) value);
+    }
+
+    @Override
+    public void putString(String key, String value) {
+        values.put(key, value);
+    }
+
+    @Override
+    public void putArray(String key, ReadableArray value) {
+        values.put(key, value);
+    }
+
+    @Override
+    public void putMap(String key, ReadableMap value) {
+        values.put(key, value);
+    }
+
+    static ReadableType typeOf(Object value) {
+        if (value == null) {
+            return ReadableType.Null;
+        } else if (value instanceof Boolean) {
+            return ReadableType.Boolean;
+        } else if (value instanceof Double) {
+            return ReadableType.Number;
+        } else if (value instanceof String) {
+            return ReadableType.String;
+        } else if (value instanceof ReadableMap) {
+            return ReadableType.Map;
+        } else if (value instanceof ReadableArray) {
+            return ReadableType.Array;
+        }
+        throw new IllegalArgumentException("Unsupported value: " + value);
+    }
+
+    static Object toJavaValue(Object value) {
+        if (value instanceof ReadableMap) {
+            return ((ReadableMap) value).toHashMap();
+        } else if (value instanceof ReadableArray) {
+            return ((ReadableArray) value).toArrayList();
+        }
+        return value;
+    }
+}
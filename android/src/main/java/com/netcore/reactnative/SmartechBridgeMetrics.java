@@ -0,0 +1,197 @@
+package com.netcore.reactnative;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Process-wide call counters and latency histograms of the bridge methods, payload conversions and
+ * SDK calls.
+ *
+ * Recording is lock-free and does not allocate once a histogram exists: the histogram is looked up
+ * by name in a ConcurrentHashMap and updated with atomic increments into fixed buckets. A snapshot
+ * reads the counters one by one, so it may mix values recorded while it is being taken.
+ */
+public class SmartechBridgeMetrics {
+
+    public interface Reporter {
+        void report(HashMap<String, Object> snapshot);
+    }
+
+    // Upper bounds of the latency buckets in microseconds, the last bucket holds every slower call.
+    private static final long[] BUCKET_BOUNDS_MICROS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 25000, 50000, 100000, 250000};
+    private static final String THREAD_NAME = "SmartechBridgeMetrics";
+
+    private static final SmartechBridgeMetrics instance = new SmartechBridgeMetrics();
+
+    private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler = null;
+
+    public static SmartechBridgeMetrics getInstance() {
+        return instance;
+    }
+
+    // Used to get the histogram of the given name, it is created on first use.
+    public Histogram histogram(String name) {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null) {
+            Histogram created = new Histogram();
+            histogram = histograms.putIfAbsent(name, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+
+    // Used to record the duration of a call which started at the given System.nanoTime().
+    public void record(String name, long startNanos) {
+        histogram(name).record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Used to get the counters of every histogram, keyed by name under "metrics".
+     * Durations are in microseconds, the percentiles are the upper bounds of the matching buckets.
+     */
+    public HashMap<String, Object> getSnapshot() {
+        HashMap<String, Object> metrics = new HashMap<>(SmartechPayloadConverter.capacityFor(histograms.size()));
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            HashMap<String, Object> histogram = entry.getValue().toHashMap();
+            if (histogram != null) {
+                metrics.put(entry.getKey(), histogram);
+            }
+        }
+        ArrayList<Object> bounds = new ArrayList<>(BUCKET_BOUNDS_MICROS.length);
+        for (long bound : BUCKET_BOUNDS_MICROS) {
+            bounds.add((double) bound);
+        }
+        HashMap<String, Object> snapshot = new HashMap<>();
+        snapshot.put("bucketBoundsMicros", bounds);
+        snapshot.put("metrics", metrics);
+        return snapshot;
+    }
+
+    // Used to clear every counter.
+    public void reset() {
+        for (Histogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    // Used to hand a snapshot to the reporter at a fixed interval, 0 stops the periodic reports.
+    public synchronized void setReportInterval(long intervalMillis, final Reporter reporter) {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        if (intervalMillis <= 0 || reporter == null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    reporter.report(getSnapshot());
+                } catch (Exception e) {
+                    SmartechDiagnostics.getInstance().error("Bridge metrics report failed", e);
+                }
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static final class Histogram {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MICROS.length + 1);
+
+        Histogram() {
+        }
+
+        // Used to record a single call duration.
+        public void record(long durationNanos) {
+            if (durationNanos < 0) {
+                durationNanos = 0;
+            }
+            count.incrementAndGet();
+            totalNanos.addAndGet(durationNanos);
+            long current = maxNanos.get();
+            while (durationNanos > current && !maxNanos.compareAndSet(current, durationNanos)) {
+                current = maxNanos.get();
+            }
+            buckets.incrementAndGet(bucketIndex(durationNanos / 1000));
+        }
+
+        void reset() {
+            count.set(0);
+            totalNanos.set(0);
+            maxNanos.set(0);
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+        }
+
+        // Returns null when nothing was recorded.
+        HashMap<String, Object> toHashMap() {
+            long calls = count.get();
+            if (calls == 0) {
+                return null;
+            }
+            long[] counts = new long[buckets.length()];
+            ArrayList<Object> bucketCounts = new ArrayList<>(counts.length);
+            long bucketTotal = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                bucketTotal += counts[i];
+                bucketCounts.add((double) counts[i]);
+            }
+            double maxMicros = TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+            HashMap<String, Object> map = new HashMap<>();
+            map.put("count", (double) calls);
+            map.put("totalMicros", (double) TimeUnit.NANOSECONDS.toMicros(totalNanos.get()));
+            map.put("averageMicros", (double) TimeUnit.NANOSECONDS.toMicros(totalNanos.get() / calls));
+            map.put("maxMicros", maxMicros);
+            map.put("p50Micros", percentile(counts, bucketTotal, 0.50, maxMicros));
+            map.put("p90Micros", percentile(counts, bucketTotal, 0.90, maxMicros));
+            map.put("p99Micros", percentile(counts, bucketTotal, 0.99, maxMicros));
+            map.put("buckets", bucketCounts);
+            return map;
+        }
+
+        private static double percentile(long[] counts, long total, double quantile, double maxMicros) {
+            long rank = (long) Math.ceil(total * quantile);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(BUCKET_BOUNDS_MICROS[i], maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+
+        private static int bucketIndex(long micros) {
+            for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+                if (micros <= BUCKET_BOUNDS_MICROS[i]) {
+                    return i;
+                }
+            }
+            return BUCKET_BOUNDS_MICROS.length;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.netcore.reactnative;
+
+import java.util.HashMap;
+
+/**
+ * Holds the tracking, push notification and in-app message consents of the Smartech SDK so that all
+ * three can be read at once without a call into the SDK. The consents are published as a single
+ * immutable snapshot.
+ *
+ * The snapshot is loaded from the SDK once it is initialized, and updated after each opt call has
+ * been handed to the SDK, so it follows the order of the calls on the dispatcher.
+ */
+public class SmartechConsentCache {
+
+    public static final String TRACKING = "tracking";
+    public static final String PUSH_NOTIFICATION = "pushNotification";
+    public static final String IN_APP_MESSAGE = "inAppMessage";
+
+    public static final class Snapshot {
+        public final boolean isTrackingOpted;
+        public final boolean isPushNotificationOpted;
+        public final boolean isInAppMessageOpted;
+
+        Snapshot(boolean isTrackingOpted, boolean isPushNotificationOpted, boolean isInAppMessageOpted) {
+            this.isTrackingOpted = isTrackingOpted;
+            this.isPushNotificationOpted = isPushNotificationOpted;
+            this.isInAppMessageOpted = isInAppMessageOpted;
+        }
+
+        public HashMap<String, Object> toHashMap() {
+            HashMap<String, Object> map = new HashMap<>();
+            map.put(TRACKING, isTrackingOpted);
+            map.put(PUSH_NOTIFICATION, isPushNotificationOpted);
+            map.put(IN_APP_MESSAGE, isInAppMessageOpted);
+            return map;
+        }
+    }
+
+    private volatile Snapshot snapshot = null;
+
+    // Used to get the current consents, or null if they have not been loaded yet.
+    public Snapshot get() {
+        return snapshot;
+    }
+
+    // Used to publish the consents read from the SDK. Returns true if any of them changed.
+    public synchronized boolean update(boolean isTrackingOpted, boolean isPushNotificationOpted, boolean isInAppMessageOpted) {
+        Snapshot current = snapshot;
+        snapshot = new Snapshot(isTrackingOpted, isPushNotificationOpted, isInAppMessageOpted);
+        return current == null
+                || current.isTrackingOpted != isTrackingOpted
+                || current.isPushNotificationOpted != isPushNotificationOpted
+                || current.isInAppMessageOpted != isInAppMessageOpted;
+    }
+
+    // Used to publish a new tracking consent. Returns true if it changed.
+    public synchronized boolean updateTracking(boolean isOpted) {
+        Snapshot current = snapshot;
+        if (current == null || current.isTrackingOpted == isOpted) {
+            return false;
+        }
+        snapshot = new Snapshot(isOpted, current.isPushNotificationOpted, current.isInAppMessageOpted);
+        return true;
+    }
+
+    // Used to publish a new push notification consent. Returns true if it changed.
+    public synchronized boolean updatePushNotification(boolean isOpted) {
+        Snapshot current = snapshot;
+        if (current == null || current.isPushNotificationOpted == isOpted) {
+            return false;
+        }
+        snapshot = new Snapshot(current.isTrackingOpted, isOpted, current.isInAppMessageOpted);
+        return true;
+    }
+
+    // Used to publish a new in-app message consent. Returns true if it changed.
+    public synchronized boolean updateInAppMessage(boolean isOpted) {
+        Snapshot current = snapshot;
+        if (current == null || current.isInAppMessageOpted == isOpted) {
+            return false;
+        }
+        snapshot = new Snapshot(current.isTrackingOpted, current.isPushNotificationOpted, isOpted);
+        return true;
+    }
+}
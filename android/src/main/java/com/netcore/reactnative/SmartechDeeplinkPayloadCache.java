@@ -0,0 +1,81 @@
+package com.netcore.reactnative;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small LRU cache of parsed deeplink custom payloads, so that a payload delivered with the
+ * notification click and requested again through getDeepLinkUrl is only parsed once.
+ *
+ * Entries are keyed by the payload text, which caches its own hash. A payload which is not a valid
+ * JSON object is cached as such and returned as null. The cached maps are shared between callers and
+ * must not be modified.
+ */
+public class SmartechDeeplinkPayloadCache {
+
+    public static final int DEFAULT_CAPACITY = 8;
+
+    private static final HashMap<String, Object> INVALID_PAYLOAD = new HashMap<>();
+
+    private final int capacity;
+    private final LinkedHashMap<String, HashMap<String, Object>> entries;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long invalidCount = 0;
+
+    public SmartechDeeplinkPayloadCache(final int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.entries = new LinkedHashMap<String, HashMap<String, Object>>(SmartechPayloadConverter.capacityFor(this.capacity + 1), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, HashMap<String, Object>> eldest) {
+                return size() > SmartechDeeplinkPayloadCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Used to get the parsed form of a custom payload, it is parsed on a miss.
+     * Returns null when the payload is empty or is not a valid JSON object within the given limits.
+     */
+    public HashMap<String, Object> get(String payload, int maxDepth, int maxLength) {
+        if (payload == null || payload.isEmpty()) {
+            return null;
+        }
+        synchronized (this) {
+            HashMap<String, Object> cached = entries.get(payload);
+            if (cached != null) {
+                hitCount++;
+                return cached == INVALID_PAYLOAD ? null : cached;
+            }
+            missCount++;
+        }
+
+        // Parsing happens outside the lock, two threads missing on the same payload both parse it.
+        HashMap<String, Object> parsed;
+        try {
+            parsed = SmartechJsonParser.parseObject(payload, maxDepth, maxLength, null);
+        } catch (Exception e) {
+            parsed = INVALID_PAYLOAD;
+        }
+        synchronized (this) {
+            if (parsed == INVALID_PAYLOAD) {
+                invalidCount++;
+            }
+            entries.put(payload, parsed);
+        }
+        return parsed == INVALID_PAYLOAD ? null : parsed;
+    }
+
+    // Used to get the size, hit and miss counters of the cache.
+    public synchronized HashMap<String, Object> getStats() {
+        HashMap<String, Object> stats = new HashMap<>();
+        stats.put("size", (double) entries.size());
+        stats.put("capacity", (double) capacity);
+        stats.put("hitCount", (double) hitCount);
+        stats.put("missCount", (double) missCount);
+        stats.put("invalidCount", (double) invalidCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0d : (double) hitCount / (hitCount + missCount));
+        return stats;
+    }
+}
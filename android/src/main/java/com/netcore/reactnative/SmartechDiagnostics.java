@@ -0,0 +1,347 @@
+package com.netcore.reactnative;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Process-wide diagnostics log of the bridge.
+ *
+ * Records go into a ring of preallocated slots. A record only stores its level, time, message, a
+ * number and the references to up to two arguments and a throwable, so logging does not allocate,
+ * format or block. The message should be a constant and the arguments existing objects, numbers go
+ * through the long overloads instead of being boxed. Records below the current level are skipped
+ * after a single volatile read. A background thread formats the new records and writes them to
+ * Logcat shortly after they are logged. Once the ring is full the oldest records are overwritten.
+ * A writer claims its slot with a compare-and-set, and gives up its record if a writer of a later
+ * lap got there first or is still writing it, so two records are never mixed in a slot. A record
+ * overwritten while it is being read is skipped.
+ */
+public class SmartechDiagnostics {
+
+    public static final int LEVEL_VERBOSE = Log.VERBOSE;
+    public static final int LEVEL_DEBUG = Log.DEBUG;
+    public static final int LEVEL_INFO = Log.INFO;
+    public static final int LEVEL_WARN = Log.WARN;
+    public static final int LEVEL_ERROR = Log.ERROR;
+    public static final int LEVEL_NONE = Log.ASSERT + 1;
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final String TAG = "SmartechReactNative";
+    private static final String THREAD_NAME = "SmartechDiagnostics";
+    private static final long FLUSH_DELAY_MILLIS = 250;
+    private static final long WRITING = Long.MIN_VALUE;
+
+    private static final SmartechDiagnostics instance = new SmartechDiagnostics(DEFAULT_CAPACITY);
+
+    private volatile int level = LEVEL_WARN;
+    private final int mask;
+    private final AtomicLongArray publishedSequences;
+    private final AtomicLongArray lostSequences;
+    private final long[] times;
+    private final int[] levels;
+    private final String[] messages;
+    private final Object[] arguments;
+    private final Object[] secondArguments;
+    private final long[] numbers;
+    private final boolean[] hasNumbers;
+    private final Throwable[] throwables;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final AtomicLong lostCount = new AtomicLong();
+    private final AtomicBoolean isFlushScheduled = new AtomicBoolean(false);
+    private ScheduledExecutorService scheduler = null;
+    private long flushedSequence = 0;
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            isFlushScheduled.set(false);
+            writeToLogcat();
+        }
+    };
+
+    // capacity is rounded up to a power of two.
+    public SmartechDiagnostics(int capacity) {
+        int slots = 1;
+        while (slots < capacity) {
+            slots <<= 1;
+        }
+        this.mask = slots - 1;
+        this.publishedSequences = new AtomicLongArray(slots);
+        this.lostSequences = new AtomicLongArray(slots);
+        for (int i = 0; i < slots; i++) {
+            publishedSequences.set(i, i - slots);
+            lostSequences.set(i, -1);
+        }
+        this.times = new long[slots];
+        this.levels = new int[slots];
+        this.messages = new String[slots];
+        this.arguments = new Object[slots];
+        this.secondArguments = new Object[slots];
+        this.numbers = new long[slots];
+        this.hasNumbers = new boolean[slots];
+        this.throwables = new Throwable[slots];
+    }
+
+    public static SmartechDiagnostics getInstance() {
+        return instance;
+    }
+
+    // Used to set the lowest level which is recorded, LEVEL_NONE records nothing.
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public boolean isLoggable(int level) {
+        return level >= this.level;
+    }
+
+    public void debug(String message, Object argument) {
+        log(LEVEL_DEBUG, message, argument, null, 0, false, null);
+    }
+
+    public void info(String message, Object argument) {
+        log(LEVEL_INFO, message, argument, null, 0, false, null);
+    }
+
+    public void warn(String message, Object argument) {
+        log(LEVEL_WARN, message, argument, null, 0, false, null);
+    }
+
+    public void warn(String message, Object argument, Object secondArgument) {
+        log(LEVEL_WARN, message, argument, secondArgument, 0, false, null);
+    }
+
+    public void warn(String message, long number) {
+        log(LEVEL_WARN, message, null, null, number, true, null);
+    }
+
+    public void error(String message, Throwable throwable) {
+        log(LEVEL_ERROR, message, null, null, 0, false, throwable);
+    }
+
+    // Used to record a message, the argument and throwable are only formatted when the record is written out.
+    public void log(int level, String message, Object argument, Throwable throwable) {
+        log(level, message, argument, null, 0, false, throwable);
+    }
+
+    private void log(int level, String message, Object argument, Object secondArgument, long number, boolean hasNumber, Throwable throwable) {
+        if (level < this.level) {
+            return;
+        }
+        long sequence = nextSequence.getAndIncrement();
+        int slot = (int) (sequence & mask);
+        if (!claim(slot, sequence)) {
+            lostCount.incrementAndGet();
+            markLost(slot, sequence);
+            return;
+        }
+        times[slot] = System.currentTimeMillis();
+        levels[slot] = level;
+        messages[slot] = message;
+        arguments[slot] = argument;
+        secondArguments[slot] = secondArgument;
+        numbers[slot] = number;
+        hasNumbers[slot] = hasNumber;
+        throwables[slot] = throwable;
+        publishedSequences.set(slot, sequence);
+        if (!isFlushScheduled.get() && isFlushScheduled.compareAndSet(false, true)) {
+            scheduleFlush();
+        }
+    }
+
+    // A slot can only be claimed from a record of an earlier lap which is not being written anymore.
+    private boolean claim(int slot, long sequence) {
+        while (true) {
+            long published = publishedSequences.get(slot);
+            if (published == WRITING || published >= sequence) {
+                return false;
+            }
+            if (publishedSequences.compareAndSet(slot, published, WRITING)) {
+                return true;
+            }
+        }
+    }
+
+    // Lets the flush thread skip a record given up by its writer instead of waiting for it.
+    private void markLost(int slot, long sequence) {
+        while (true) {
+            long lost = lostSequences.get(slot);
+            if (lost >= sequence || lostSequences.compareAndSet(slot, lost, sequence)) {
+                return;
+            }
+        }
+    }
+
+    // Used to get the records still in the ring, oldest first, along with the level and the total record count.
+    public HashMap<String, Object> dump() {
+        long end = nextSequence.get();
+        long start = Math.max(0, end - publishedSequences.length());
+        ArrayList<Object> records = new ArrayList<>((int) (end - start));
+        Record record = new Record();
+        for (long sequence = start; sequence < end; sequence++) {
+            if (read(sequence, record)) {
+                records.add(record.toHashMap(sequence));
+            }
+        }
+        HashMap<String, Object> dump = new HashMap<>();
+        dump.put("level", levelName(level));
+        dump.put("capacity", (double) publishedSequences.length());
+        dump.put("recordCount", (double) end);
+        dump.put("lostRecordCount", (double) lostCount.get());
+        dump.put("records", records);
+        return dump;
+    }
+
+    // Used to get the level matching a name of verbose, debug, info, warn, error or none, -1 if the name is unknown.
+    public static int levelOf(String name) {
+        if ("verbose".equalsIgnoreCase(name)) {
+            return LEVEL_VERBOSE;
+        } else if ("debug".equalsIgnoreCase(name)) {
+            return LEVEL_DEBUG;
+        } else if ("info".equalsIgnoreCase(name)) {
+            return LEVEL_INFO;
+        } else if ("warn".equalsIgnoreCase(name)) {
+            return LEVEL_WARN;
+        } else if ("error".equalsIgnoreCase(name)) {
+            return LEVEL_ERROR;
+        } else if ("none".equalsIgnoreCase(name)) {
+            return LEVEL_NONE;
+        }
+        return -1;
+    }
+
+    static String levelName(int level) {
+        switch (level) {
+            case LEVEL_VERBOSE:
+                return "verbose";
+            case LEVEL_DEBUG:
+                return "debug";
+            case LEVEL_INFO:
+                return "info";
+            case LEVEL_WARN:
+                return "warn";
+            case LEVEL_ERROR:
+                return "error";
+            default:
+                return "none";
+        }
+    }
+
+    private synchronized void scheduleFlush() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, THREAD_NAME);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        scheduler.schedule(flushTask, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // Runs on the flush thread only.
+    private void writeToLogcat() {
+        long end = nextSequence.get();
+        long start = Math.max(flushedSequence, end - publishedSequences.length());
+        if (start > flushedSequence) {
+            Log.println(LEVEL_WARN, TAG, (start - flushedSequence) + " diagnostics records were overwritten before they were written out.");
+        }
+        Record record = new Record();
+        long sequence = start;
+        for (; sequence < end; sequence++) {
+            if (read(sequence, record)) {
+                Log.println(record.level, TAG, record.format());
+            } else if (publishedSequences.get((int) (sequence & mask)) < sequence && lostSequences.get((int) (sequence & mask)) < sequence) {
+                // Still being written, the rest is written out by the next flush.
+                if (isFlushScheduled.compareAndSet(false, true)) {
+                    scheduleFlush();
+                }
+                break;
+            }
+        }
+        flushedSequence = sequence;
+    }
+
+    // Returns false if the record is not published yet or was overwritten while it was read.
+    private boolean read(long sequence, Record record) {
+        int slot = (int) (sequence & mask);
+        if (publishedSequences.get(slot) != sequence) {
+            return false;
+        }
+        record.time = times[slot];
+        record.level = levels[slot];
+        record.message = messages[slot];
+        record.argument = arguments[slot];
+        record.secondArgument = secondArguments[slot];
+        record.number = numbers[slot];
+        record.hasNumber = hasNumbers[slot];
+        record.throwable = throwables[slot];
+        return publishedSequences.get(slot) == sequence;
+    }
+
+    private static final class Record {
+        long time;
+        int level;
+        String message;
+        Object argument;
+        Object secondArgument;
+        long number;
+        boolean hasNumber;
+        Throwable throwable;
+
+        String format() {
+            StringBuilder builder = new StringBuilder(message);
+            String arguments = formatArguments();
+            if (arguments != null) {
+                builder.append(": ").append(arguments);
+            }
+            if (throwable != null) {
+                builder.append('\n').append(Log.getStackTraceString(throwable));
+            }
+            return builder.toString();
+        }
+
+        HashMap<String, Object> toHashMap(long sequence) {
+            HashMap<String, Object> map = new HashMap<>();
+            map.put("sequence", (double) sequence);
+            map.put("timeMillis", (double) time);
+            map.put("level", levelName(level));
+            map.put("message", message);
+            String arguments = formatArguments();
+            if (arguments != null) {
+                map.put("argument", arguments);
+            }
+            if (throwable != null) {
+                map.put("exception", throwable.toString());
+                map.put("stackTrace", Log.getStackTraceString(throwable));
+            }
+            return map;
+        }
+
+        // Returns null when the record has no argument.
+        private String formatArguments() {
+            if (hasNumber) {
+                return String.valueOf(number);
+            }
+            if (argument == null && secondArgument == null) {
+                return null;
+            }
+            return secondArgument == null ? String.valueOf(argument) : argument + " " + secondArgument;
+        }
+    }
+}
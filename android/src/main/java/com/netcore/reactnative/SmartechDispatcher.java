@@ -0,0 +1,400 @@
+package com.netcore.reactnative;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs calls into the Smartech SDK on a single dedicated thread, so that slow SDK calls never block
+ * the React native modules thread.
+ *
+ * Calls are queued in priority lanes: identity and profile calls, critical events and bulk analytics.
+ * The thread always runs the oldest call of the highest priority non-empty lane, so calls are in order
+ * within a lane only. A barrier call is ordered with every call: it runs after all the calls dispatched
+ * before it, in any lane, and before all the calls dispatched after it.
+ *
+ * Each lane is bounded. When a lane is full, its overflow policy drops the oldest queued call, drops
+ * the new call, or blocks the caller up to a timeout and then drops the new call. Barrier calls are
+ * never dropped. By default no lane blocks the caller: the bulk lane drops its oldest call, and the
+ * identity and critical lanes drop and count the new call. Blocking is only used once it is set with
+ * setLanePolicy.
+ */
+public class SmartechDispatcher {
+
+    public static final int LANE_IDENTITY = 0;
+    public static final int LANE_CRITICAL = 1;
+    public static final int LANE_BULK = 2;
+
+    public enum OverflowPolicy {
+        DROP_OLDEST,
+        DROP_NEWEST,
+        BLOCK
+    }
+
+    /**
+     * A call which is told when it is dropped by the overflow policy of its lane, for instance to
+     * release what was held for it.
+     */
+    public abstract static class Call implements Runnable {
+        public void onDropped() {
+        }
+    }
+
+    // The identity and critical lanes are larger, as their calls are not replaced by newer ones.
+    static final int IDENTITY_CAPACITY = 8192;
+    static final int CRITICAL_CAPACITY = 8192;
+    static final int BULK_CAPACITY = 4096;
+
+    private static final String THREAD_NAME = "SmartechDispatcher";
+    private static final String[] LANE_NAMES = {"identity", "critical", "bulk"};
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Lane[] lanes = new Lane[LANE_NAMES.length];
+    private final Thread thread;
+    private long nextSequence = 0;
+    private boolean isShutdown = false;
+
+    public SmartechDispatcher() {
+        lanes[LANE_IDENTITY] = new Lane(LANE_NAMES[LANE_IDENTITY], IDENTITY_CAPACITY, OverflowPolicy.DROP_NEWEST, 0);
+        lanes[LANE_CRITICAL] = new Lane(LANE_NAMES[LANE_CRITICAL], CRITICAL_CAPACITY, OverflowPolicy.DROP_NEWEST, 0);
+        lanes[LANE_BULK] = new Lane(LANE_NAMES[LANE_BULK], BULK_CAPACITY, OverflowPolicy.DROP_OLDEST, 0);
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runLoop();
+            }
+        }, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Used to get the lane constant of a lane name, or -1 for an unknown name.
+    public static int laneOf(String laneName) {
+        for (int i = 0; i < LANE_NAMES.length; i++) {
+            if (LANE_NAMES[i].equals(laneName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Used to queue a barrier call, which is executed after every call dispatched before it.
+    public void dispatch(Runnable runnable) {
+        enqueue(LANE_IDENTITY, runnable, null, true);
+    }
+
+    // Same as above, with the execution time recorded in the bridge metrics under the given name.
+    public void dispatch(String metricName, Runnable runnable) {
+        enqueue(LANE_IDENTITY, runnable, SmartechBridgeMetrics.getInstance().histogram(metricName), true);
+    }
+
+    // Used to queue a call in a lane, with the execution time recorded in the bridge metrics under the given name.
+    public void dispatch(int lane, String metricName, Runnable runnable) {
+        enqueue(lane, runnable, metricName != null ? SmartechBridgeMetrics.getInstance().histogram(metricName) : null, false);
+    }
+
+    // Used to set the capacity and overflow policy of a lane. The block timeout only applies to the BLOCK policy.
+    public void setLanePolicy(int lane, int capacity, OverflowPolicy overflowPolicy, long blockTimeoutMillis) {
+        lock.lock();
+        try {
+            Lane target = lanes[lane];
+            target.capacity = Math.max(1, capacity);
+            target.overflowPolicy = overflowPolicy;
+            target.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, blockTimeoutMillis));
+            target.notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Used to wait until every call dispatched before this one has been executed.
+     * Returns false if the calls did not complete within the given timeout.
+     */
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        if (Thread.currentThread() == thread) {
+            return true;
+        }
+        final CountDownLatch latch = new CountDownLatch(1);
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        });
+        return latch.await(timeout, unit);
+    }
+
+    // Used to stop the dispatcher once the calls already queued have been executed.
+    public void shutdown() {
+        lock.lock();
+        try {
+            isShutdown = true;
+            notEmpty.signalAll();
+            for (Lane lane : lanes) {
+                lane.notFull.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Used to get a snapshot of the queue depth, drop and wait time counters, in total and per lane under "lanes".
+    public HashMap<String, Object> getStats() {
+        lock.lock();
+        try {
+            long depth = 0;
+            long maxDepth = 0;
+            long dispatched = 0;
+            long executed = 0;
+            long dropped = 0;
+            long totalWait = 0;
+            long maxWait = 0;
+            HashMap<String, Object> laneStats = new HashMap<>();
+            for (Lane lane : lanes) {
+                depth += lane.tasks.size();
+                maxDepth = Math.max(maxDepth, lane.maxDepth);
+                dispatched += lane.dispatchedCount;
+                executed += lane.executedCount;
+                dropped += lane.droppedCount;
+                totalWait += lane.totalWaitNanos;
+                maxWait = Math.max(maxWait, lane.maxWaitNanos);
+                laneStats.put(lane.name, lane.getStats());
+            }
+            HashMap<String, Object> stats = new HashMap<>();
+            stats.put("queueDepth", (double) depth);
+            stats.put("maxQueueDepth", (double) maxDepth);
+            stats.put("dispatchedCount", (double) dispatched);
+            stats.put("executedCount", (double) executed);
+            stats.put("droppedCount", (double) dropped);
+            stats.put("totalWaitMicros", (double) TimeUnit.NANOSECONDS.toMicros(totalWait));
+            stats.put("averageWaitMicros", executed == 0 ? 0d : (double) TimeUnit.NANOSECONDS.toMicros(totalWait / executed));
+            stats.put("maxWaitMicros", (double) TimeUnit.NANOSECONDS.toMicros(maxWait));
+            stats.put("lanes", laneStats);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(int laneIndex, Runnable runnable, SmartechBridgeMetrics.Histogram histogram, boolean isBarrier) {
+        List<Task> droppedTasks = null;
+        lock.lock();
+        try {
+            if (isShutdown) {
+                return;
+            }
+            Lane lane = lanes[laneIndex];
+            long remainingNanos = lane.blockTimeoutNanos;
+            while (!isBarrier && lane.tasks.size() >= lane.capacity && !isShutdown) {
+                if (lane.overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+                    Task oldest = lane.pollOldestDroppable();
+                    if (oldest != null) {
+                        lane.droppedCount++;
+                        if (droppedTasks == null) {
+                            droppedTasks = new ArrayList<>();
+                        }
+                        droppedTasks.add(oldest);
+                        continue;
+                    }
+                }
+                // The dispatcher thread can not wait for itself to make room.
+                if (lane.overflowPolicy != OverflowPolicy.BLOCK || remainingNanos <= 0 || Thread.currentThread() == thread) {
+                    lane.droppedCount++;
+                    if (droppedTasks == null) {
+                        droppedTasks = new ArrayList<>();
+                    }
+                    droppedTasks.add(new Task(runnable, null, laneIndex, 0, 0, false));
+                    return;
+                }
+                try {
+                    remainingNanos = lane.notFull.awaitNanos(remainingNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    remainingNanos = 0;
+                }
+            }
+            if (isShutdown) {
+                return;
+            }
+            lane.tasks.addLast(new Task(runnable, histogram, laneIndex, nextSequence++, System.nanoTime(), isBarrier));
+            lane.dispatchedCount++;
+            lane.maxDepth = Math.max(lane.maxDepth, lane.tasks.size());
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+            if (droppedTasks != null) {
+                for (Task task : droppedTasks) {
+                    task.onDropped();
+                }
+            }
+        }
+    }
+
+    // Used by the dispatcher thread to get the next call, or null once the dispatcher is shut down and drained.
+    private Task take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                Lane lane = selectLane();
+                if (lane != null) {
+                    Task task = lane.tasks.pollFirst();
+                    lane.notFull.signal();
+                    return task;
+                }
+                if (isShutdown) {
+                    return null;
+                }
+                notEmpty.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The highest priority non-empty lane, unless its oldest call is a barrier: then the lane holding the oldest call overall.
+    private Lane selectLane() {
+        for (Lane lane : lanes) {
+            Task head = lane.tasks.peekFirst();
+            if (head == null) {
+                continue;
+            }
+            if (!head.isBarrier) {
+                return lane;
+            }
+            Lane oldest = lane;
+            for (Lane other : lanes) {
+                Task otherHead = other.tasks.peekFirst();
+                if (otherHead != null && otherHead.sequence < oldest.tasks.peekFirst().sequence) {
+                    oldest = other;
+                }
+            }
+            return oldest;
+        }
+        return null;
+    }
+
+    private void runLoop() {
+        while (true) {
+            Task task;
+            try {
+                task = take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == null) {
+                return;
+            }
+            long startNanos = System.nanoTime();
+            long waitNanos = startNanos - task.enqueuedAtNanos;
+            try {
+                task.runnable.run();
+            } catch (Exception e) {
+                SmartechDiagnostics.getInstance().error("Dispatched call failed", e);
+            }
+            if (task.histogram != null) {
+                task.histogram.record(System.nanoTime() - startNanos);
+            }
+            lanes[task.lane].waitHistogram.record(waitNanos);
+            onExecuted(task, waitNanos);
+        }
+    }
+
+    private void onExecuted(Task task, long waitNanos) {
+        lock.lock();
+        try {
+            Lane lane = lanes[task.lane];
+            lane.executedCount++;
+            lane.totalWaitNanos += waitNanos;
+            lane.maxWaitNanos = Math.max(lane.maxWaitNanos, waitNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private final class Lane {
+        final String name;
+        final ArrayDeque<Task> tasks = new ArrayDeque<>();
+        final Condition notFull = lock.newCondition();
+        final SmartechBridgeMetrics.Histogram waitHistogram;
+        int capacity;
+        OverflowPolicy overflowPolicy;
+        long blockTimeoutNanos;
+        int maxDepth = 0;
+        long dispatchedCount = 0;
+        long executedCount = 0;
+        long droppedCount = 0;
+        long totalWaitNanos = 0;
+        long maxWaitNanos = 0;
+
+        Lane(String name, int capacity, OverflowPolicy overflowPolicy, long blockTimeoutMillis) {
+            this.name = name;
+            this.capacity = capacity;
+            this.overflowPolicy = overflowPolicy;
+            this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+            this.waitHistogram = SmartechBridgeMetrics.getInstance().histogram("lane." + name + ".wait");
+        }
+
+        // The oldest call which is not a barrier.
+        Task pollOldestDroppable() {
+            Iterator<Task> iterator = tasks.iterator();
+            while (iterator.hasNext()) {
+                Task task = iterator.next();
+                if (!task.isBarrier) {
+                    iterator.remove();
+                    return task;
+                }
+            }
+            return null;
+        }
+
+        HashMap<String, Object> getStats() {
+            HashMap<String, Object> stats = new HashMap<>();
+            stats.put("queueDepth", (double) tasks.size());
+            stats.put("maxQueueDepth", (double) maxDepth);
+            stats.put("capacity", (double) capacity);
+            stats.put("overflowPolicy", overflowPolicy.name());
+            stats.put("dispatchedCount", (double) dispatchedCount);
+            stats.put("executedCount", (double) executedCount);
+            stats.put("droppedCount", (double) droppedCount);
+            stats.put("averageWaitMicros", executedCount == 0 ? 0d : (double) TimeUnit.NANOSECONDS.toMicros(totalWaitNanos / executedCount));
+            stats.put("maxWaitMicros", (double) TimeUnit.NANOSECONDS.toMicros(maxWaitNanos));
+            return stats;
+        }
+    }
+
+    private static final class Task {
+        final Runnable runnable;
+        final SmartechBridgeMetrics.Histogram histogram;
+        final int lane;
+        final long sequence;
+        final long enqueuedAtNanos;
+        final boolean isBarrier;
+
+        Task(Runnable runnable, SmartechBridgeMetrics.Histogram histogram, int lane, long sequence, long enqueuedAtNanos, boolean isBarrier) {
+            this.runnable = runnable;
+            this.histogram = histogram;
+            this.lane = lane;
+            this.sequence = sequence;
+            this.enqueuedAtNanos = enqueuedAtNanos;
+            this.isBarrier = isBarrier;
+        }
+
+        void onDropped() {
+            if (runnable instanceof Call) {
+                try {
+                    ((Call) runnable).onDropped();
+                } catch (Exception e) {
+                    SmartechDiagnostics.getInstance().error("Dropped call handler failed", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.netcore.reactnative;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summarizes high-frequency events, such as scroll or impression events, over a time window instead
+ * of handing each of them to the SDK.
+ *
+ * Each rule names the numeric payload fields to summarize. For every field the number of events
+ * carrying it, its sum, minimum and maximum are kept in primitive arrays, so adding an event does not
+ * allocate, and the other payload fields are left out. The window of a rule starts with its first
+ * event. When it ends, or when the app goes to the background, a single event of the same name is
+ * sent with aggregatedEventCount, windowStartedAt, windowEndedAt and, for each field seen in the
+ * window, <field>_count, <field>_sum, <field>_min and <field>_max.
+ *
+ * The summary of a window longer than CHECKPOINT_INTERVAL_MILLIS is checkpointed through the sink
+ * at most once per interval while it receives events, and each checkpoint replaces the previous one,
+ * so the window survives the death of the process.
+ * The checkpoint is removed once the summary of the window has been handed to the sink.
+ *
+ * Events without a rule are not aggregated, and no event is aggregated after shutdown().
+ */
+public class SmartechEventAggregator {
+
+    public interface Sink {
+        void trackEvent(String eventName, HashMap<String, Object> summary);
+
+        // Used to store the summary of an open window, returns the id of the checkpoint or -1 if it was not stored.
+        int checkpoint(String eventName, HashMap<String, Object> summary);
+
+        void removeCheckpoint(int checkpointId);
+    }
+
+    public static final String EVENT_COUNT_ATTRIBUTE = "aggregatedEventCount";
+    public static final String WINDOW_STARTED_AT_ATTRIBUTE = "windowStartedAt";
+    public static final String WINDOW_ENDED_AT_ATTRIBUTE = "windowEndedAt";
+    public static final long DEFAULT_WINDOW_MILLIS = 60000;
+    public static final long CHECKPOINT_INTERVAL_MILLIS = 5000;
+
+    private static final String THREAD_NAME = "SmartechEventAggregator";
+    private static final String[] SUMMARY_SUFFIXES = {"_count", "_sum", "_min", "_max"};
+
+    private final Sink sink;
+    private volatile Map<String, Rule> rules = Collections.emptyMap();
+    private ScheduledExecutorService scheduler = null;
+    private volatile boolean isShutdown = false;
+
+    public SmartechEventAggregator(Sink sink) {
+        this.sink = sink;
+    }
+
+    // Used to replace all the rules, the windows of the previous rules are sent first.
+    public void setRules(Map<String, Rule> rules) {
+        Map<String, Rule> previousRules = this.rules;
+        this.rules = rules == null ? Collections.<String, Rule>emptyMap() : new HashMap<>(rules);
+        for (Rule rule : previousRules.values()) {
+            flush(rule);
+        }
+    }
+
+    public boolean isAggregated(String eventName) {
+        return eventName != null && rules.containsKey(eventName);
+    }
+
+    // Used to add an event read from the bridge to its window. Returns false if the event is not aggregated.
+    public boolean add(String eventName, ReadableMap payload) {
+        Rule rule = eventName != null && !isShutdown ? rules.get(eventName) : null;
+        if (rule == null) {
+            return false;
+        }
+        synchronized (rule) {
+            startEvent(rule, eventName);
+            if (payload != null) {
+                for (int i = 0; i < rule.fields.length; i++) {
+                    String field = rule.fields[i];
+                    if (payload.hasKey(field) && payload.getType(field) == ReadableType.Number) {
+                        rule.accumulate(i, payload.getDouble(field));
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // Same as above for an event already converted to a map.
+    public boolean add(String eventName, Map<String, Object> payload) {
+        Rule rule = eventName != null && !isShutdown ? rules.get(eventName) : null;
+        if (rule == null) {
+            return false;
+        }
+        synchronized (rule) {
+            startEvent(rule, eventName);
+            if (payload != null) {
+                for (int i = 0; i < rule.fields.length; i++) {
+                    Object value = payload.get(rule.fields[i]);
+                    if (value instanceof Number) {
+                        rule.accumulate(i, ((Number) value).doubleValue());
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // Used to send the summaries of all the open windows right away.
+    public void flush() {
+        for (Rule rule : rules.values()) {
+            flush(rule);
+        }
+    }
+
+    // Used to send the summaries of the open windows and stop the timer thread, the events added afterwards are not aggregated.
+    public void shutdown() {
+        isShutdown = true;
+        flush();
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdown();
+                scheduler = null;
+            }
+        }
+    }
+
+    // Used to get, for every rule, the number of events aggregated and of summaries sent.
+    public HashMap<String, Object> getStats() {
+        Map<String, Rule> current = rules;
+        HashMap<String, Object> stats = new HashMap<>(SmartechPayloadConverter.capacityFor(current.size()));
+        for (Map.Entry<String, Rule> entry : current.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Called with the rule locked, the first event of a window schedules its end and the first event
+     * after a checkpoint schedules the next one. Nothing is scheduled once the aggregator is shut down.
+     */
+    private void startEvent(final Rule rule, final String eventName) {
+        ScheduledExecutorService timer = getScheduler();
+        if (rule.eventCount == 0) {
+            rule.eventName = eventName;
+            rule.windowStartedAt = System.currentTimeMillis();
+            if (timer != null) {
+                rule.scheduledFlush = timer.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        flush(rule);
+                    }
+                }, rule.windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (rule.scheduledCheckpoint == null && rule.windowMillis > CHECKPOINT_INTERVAL_MILLIS && timer != null) {
+            rule.scheduledCheckpoint = timer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    checkpoint(rule);
+                }
+            }, CHECKPOINT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        rule.eventCount++;
+        rule.totalEventCount++;
+    }
+
+    // The checkpoint is stored with the rule locked, so that it cannot outlive the window it belongs to.
+    private void checkpoint(Rule rule) {
+        synchronized (rule) {
+            rule.scheduledCheckpoint = null;
+            if (rule.eventCount == 0) {
+                return;
+            }
+            int previousCheckpointId = rule.checkpointId;
+            rule.checkpointId = sink.checkpoint(rule.eventName, rule.buildSummary(System.currentTimeMillis()));
+            if (previousCheckpointId >= 0) {
+                sink.removeCheckpoint(previousCheckpointId);
+            }
+        }
+    }
+
+    /**
+     * The summary is sent outside the lock of the rule so that events can be added while it is dispatched.
+     * The checkpoint of the window is only removed after the summary has been handed to the sink.
+     */
+    private void flush(Rule rule) {
+        String eventName;
+        HashMap<String, Object> summary;
+        int checkpointId;
+        synchronized (rule) {
+            if (rule.scheduledFlush != null) {
+                rule.scheduledFlush.cancel(false);
+                rule.scheduledFlush = null;
+            }
+            if (rule.scheduledCheckpoint != null) {
+                rule.scheduledCheckpoint.cancel(false);
+                rule.scheduledCheckpoint = null;
+            }
+            if (rule.eventCount == 0) {
+                return;
+            }
+            eventName = rule.eventName;
+            summary = rule.takeSummary(System.currentTimeMillis());
+            checkpointId = rule.checkpointId;
+            rule.checkpointId = -1;
+        }
+        sink.trackEvent(eventName, summary);
+        if (checkpointId >= 0) {
+            sink.removeCheckpoint(checkpointId);
+        }
+    }
+
+    // Returns null once the aggregator is shut down, the timer thread is not started again.
+    private synchronized ScheduledExecutorService getScheduler() {
+        if (scheduler == null && !isShutdown) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, THREAD_NAME);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return scheduler;
+    }
+
+    public static final class Rule {
+        private final long windowMillis;
+        private final String[] fields;
+        private final String[] summaryKeys;
+        private final long[] fieldCounts;
+        private final double[] sums;
+        private final double[] mins;
+        private final double[] maxs;
+        private String eventName = null;
+        private ScheduledFuture<?> scheduledFlush = null;
+        private ScheduledFuture<?> scheduledCheckpoint = null;
+        private int checkpointId = -1;
+        private long windowStartedAt = 0;
+        private long eventCount = 0;
+        private long totalEventCount = 0;
+        private long summaryCount = 0;
+
+        /**
+         * windowMillis must be positive. fields are the names of the numeric payload fields to summarize,
+         * the summary keys are derived from them once here.
+         */
+        public Rule(long windowMillis, String[] fields) {
+            this.windowMillis = Math.max(1, windowMillis);
+            this.fields = fields.clone();
+            this.summaryKeys = new String[fields.length * SUMMARY_SUFFIXES.length];
+            for (int i = 0; i < fields.length; i++) {
+                for (int k = 0; k < SUMMARY_SUFFIXES.length; k++) {
+                    summaryKeys[i * SUMMARY_SUFFIXES.length + k] = fields[i] + SUMMARY_SUFFIXES[k];
+                }
+            }
+            this.fieldCounts = new long[fields.length];
+            this.sums = new double[fields.length];
+            this.mins = new double[fields.length];
+            this.maxs = new double[fields.length];
+            reset();
+        }
+
+        private void accumulate(int field, double value) {
+            fieldCounts[field]++;
+            sums[field] += value;
+            mins[field] = Math.min(mins[field], value);
+            maxs[field] = Math.max(maxs[field], value);
+        }
+
+        private HashMap<String, Object> takeSummary(long windowEndedAt) {
+            HashMap<String, Object> summary = buildSummary(windowEndedAt);
+            summaryCount++;
+            reset();
+            return summary;
+        }
+
+        // Used for the summaries and the checkpoints of the window, the window is left open.
+        private HashMap<String, Object> buildSummary(long windowEndedAt) {
+            HashMap<String, Object> summary = new HashMap<>(SmartechPayloadConverter.capacityFor(3 + summaryKeys.length));
+            summary.put(EVENT_COUNT_ATTRIBUTE, eventCount);
+            summary.put(WINDOW_STARTED_AT_ATTRIBUTE, windowStartedAt);
+            summary.put(WINDOW_ENDED_AT_ATTRIBUTE, windowEndedAt);
+            for (int i = 0; i < fields.length; i++) {
+                if (fieldCounts[i] == 0) {
+                    continue;
+                }
+                int keyIndex = i * SUMMARY_SUFFIXES.length;
+                summary.put(summaryKeys[keyIndex], fieldCounts[i]);
+                summary.put(summaryKeys[keyIndex + 1], SmartechPayloadConverter.narrowNumber(sums[i]));
+                summary.put(summaryKeys[keyIndex + 2], SmartechPayloadConverter.narrowNumber(mins[i]));
+                summary.put(summaryKeys[keyIndex + 3], SmartechPayloadConverter.narrowNumber(maxs[i]));
+            }
+            return summary;
+        }
+
+        private void reset() {
+            eventCount = 0;
+            Arrays.fill(fieldCounts, 0);
+            Arrays.fill(sums, 0);
+            Arrays.fill(mins, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+        }
+
+        synchronized HashMap<String, Object> getStats() {
+            HashMap<String, Object> stats = new HashMap<>();
+            stats.put("windowMillis", (double) windowMillis);
+            stats.put("aggregatedEventCount", (double) totalEventCount);
+            stats.put("pendingEventCount", (double) eventCount);
+            stats.put("summaryCount", (double) summaryCount);
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.netcore.reactnative;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Coalesces the events sent to JS within a time window, one frame by default, into a single batch,
+ * so that a burst of custom HTML callbacks costs one bridge call instead of one per event.
+ *
+ * The first event of a window schedules the flush on the main thread. A batch reaching the maximum
+ * size is sent right away from the thread adding the event. Events are sent in the order they were
+ * received. With a window of 0 every event is sent on its own as soon as it is received.
+ */
+public class SmartechEventBatcher {
+
+    public interface Sink {
+        void emit(String eventName, Object payload);
+
+        void emitBatch(ArrayList<Event> events);
+    }
+
+    public static final long DEFAULT_WINDOW_MILLIS = 16;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
+    private final Sink sink;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final Handler handler;
+    private ArrayList<Event> pendingEvents = new ArrayList<>();
+    private boolean isFlushScheduled = false;
+    private long eventCount = 0;
+    private long batchCount = 0;
+    private int maxObservedBatchSize = 0;
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    public SmartechEventBatcher(Sink sink, long windowMillis, int maxBatchSize) {
+        this.sink = sink;
+        this.windowMillis = Math.max(0, windowMillis);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.handler = new Handler(Looper.getMainLooper());
+    }
+
+    // Used to queue an event, it is sent with the other events received within the window.
+    public synchronized void emit(String eventName, Object payload) {
+        eventCount++;
+        if (windowMillis <= 0) {
+            batchCount++;
+            maxObservedBatchSize = Math.max(maxObservedBatchSize, 1);
+            sink.emit(eventName, payload);
+            return;
+        }
+        pendingEvents.add(new Event(eventName, payload));
+        if (pendingEvents.size() >= maxBatchSize) {
+            flush();
+        } else if (!isFlushScheduled) {
+            isFlushScheduled = true;
+            handler.postDelayed(flushTask, windowMillis);
+        }
+    }
+
+    // Used to send the queued events right away.
+    public synchronized void flush() {
+        if (isFlushScheduled) {
+            handler.removeCallbacks(flushTask);
+            isFlushScheduled = false;
+        }
+        if (pendingEvents.isEmpty()) {
+            return;
+        }
+        ArrayList<Event> events = pendingEvents;
+        pendingEvents = new ArrayList<>(events.size());
+        batchCount++;
+        maxObservedBatchSize = Math.max(maxObservedBatchSize, events.size());
+        sink.emitBatch(events);
+    }
+
+    // Used to get the window and the event and batch counters.
+    public synchronized HashMap<String, Object> getStats() {
+        HashMap<String, Object> stats = new HashMap<>();
+        stats.put("windowMillis", (double) windowMillis);
+        stats.put("maxBatchSize", (double) maxBatchSize);
+        stats.put("pendingCount", (double) pendingEvents.size());
+        stats.put("eventCount", (double) eventCount);
+        stats.put("batchCount", (double) batchCount);
+        stats.put("maxObservedBatchSize", (double) maxObservedBatchSize);
+        return stats;
+    }
+
+    public static final class Event {
+        public final String eventName;
+        public final Object payload;
+
+        Event(String eventName, Object payload) {
+            this.eventName = eventName;
+            this.payload = payload;
+        }
+    }
+}
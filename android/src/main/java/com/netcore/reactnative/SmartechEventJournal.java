@@ -0,0 +1,429 @@
+package com.netcore.reactnative;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Journal of tracked events backed by a memory-mapped file, used as a ring.
+ *
+ * The file starts with [magic:int][head:int], head being the position of the oldest pending record,
+ * and every record is laid out as [length:int][crc32:int][id:int][state:byte][payload:length bytes].
+ * The length is written last so a record only becomes visible once it is complete, and the checksum,
+ * which covers the id and the payload, lets a torn or corrupt record be detected when the journal is
+ * read back. Records stay pending until they are acknowledged by their id, and pending records found
+ * when the journal is opened are the events that never reached the SDK.
+ *
+ * Records are appended after the last one, and once the end of the file is reached they continue at
+ * its start, behind a wrap marker, in the space freed by the acknowledged records in front of the
+ * head. A record which stays pending while the journal goes round, such as the checkpoint of a long
+ * aggregation window, is copied to the end of the chain so the head can move past it and the space
+ * behind it is reused. The copy keeps the id of the record, so it is acknowledged the same way.
+ *
+ * The length of the header following the last record is always zero, so a reader stops at the
+ * end of the chain without the rest of the file having to be zeroed. The file is locked while it
+ * is open, and the module shares a single journal per process through getInstance, so that a JS
+ * reload neither replays the records still in flight nor appends to the file a second time.
+ * Appended records are forced to the file shortly after they are written.
+ */
+public class SmartechEventJournal {
+
+    public static final int DEFAULT_CAPACITY = 1024 * 1024;
+    public static final long FORCE_DELAY_MILLIS = 100;
+
+    static final int DATA_START = 8;
+    static final int HEADER_SIZE = 13;
+
+    private static final int MAGIC = 0x534A4E32;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int HEAD_OFFSET = 4;
+    private static final int LENGTH_OFFSET = 0;
+    private static final int CRC_OFFSET = 4;
+    private static final int ID_OFFSET = 8;
+    private static final int STATE_OFFSET = 12;
+    private static final int LENGTH_SIZE = 4;
+    private static final int WRAP = -1;
+    private static final byte STATE_PENDING = 1;
+    private static final byte STATE_ACKNOWLEDGED = 2;
+    private static final String THREAD_NAME = "SmartechEventJournal";
+
+    private static SmartechEventJournal instance = null;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final MappedByteBuffer buffer;
+    private final ByteBuffer view;
+    private final int capacity;
+    private final CRC32 crc = new CRC32();
+    private final List<Record> recoveredRecords = new ArrayList<>();
+    private final Runnable forceTask = new Runnable() {
+        @Override
+        public void run() {
+            force();
+        }
+    };
+    private ScheduledExecutorService scheduler = null;
+    private boolean isForceScheduled = false;
+    private int head = DATA_START;
+    private int writePosition = DATA_START;
+    private int pendingCount = 0;
+    private int nextId = 0;
+    // The records from the head to the end of the chain in chain order, a position of -1 marks an acknowledged record.
+    private int[] liveIds = new int[64];
+    private int[] livePositions = new int[64];
+    private int liveStart = 0;
+    private int liveSize = 0;
+
+    public SmartechEventJournal(File journalFile, int capacity) throws IOException {
+        this.capacity = capacity;
+        this.file = new RandomAccessFile(journalFile, "rw");
+        this.channel = file.getChannel();
+        try {
+            this.lock = channel.tryLock();
+            if (lock == null) {
+                throw new IOException("Event journal is locked by another process");
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (OverlappingFileLockException e) {
+            file.close();
+            throw new IOException("Event journal is already open", e);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+        this.view = buffer.duplicate();
+        recover();
+    }
+
+    /**
+     * Used to get the journal of the process, which is opened with the default capacity on first use
+     * and stays open for the lifetime of the process.
+     */
+    public static synchronized SmartechEventJournal getInstance(File journalFile) throws IOException {
+        if (instance == null) {
+            instance = new SmartechEventJournal(journalFile, DEFAULT_CAPACITY);
+        }
+        return instance;
+    }
+
+    /**
+     * Used to append a record to the journal.
+     * Returns the id of the record which must be passed to acknowledge once the event has been
+     * handed to the SDK, or -1 if the journal has no room left for the record.
+     */
+    public synchronized int append(byte[] payload) {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (payload.length == 0 || DATA_START + recordSize + LENGTH_SIZE > capacity) {
+            return -1;
+        }
+        int position = findRoom(recordSize);
+        while (position < 0 && relocateHead()) {
+            position = findRoom(recordSize);
+        }
+        if (position < 0) {
+            return -1;
+        }
+
+        int id = nextId;
+        nextId = (nextId + 1) & Integer.MAX_VALUE;
+        crc.reset();
+        updateChecksum(id);
+        crc.update(payload, 0, payload.length);
+        write(position, id, (int) crc.getValue(), payload);
+        // The record at the head is copied while there is still room for it, as it can not be moved once the journal is full.
+        if (getFreeSpace() < capacity / 2) {
+            relocateHead();
+        }
+        return id;
+    }
+
+    // Used to mark the record with the given id as delivered to the SDK.
+    public synchronized void acknowledge(int id) {
+        if (id < 0) {
+            return;
+        }
+        // Records are mostly acknowledged in order, so the record is usually found next to the head.
+        for (int i = 0; i < liveSize; i++) {
+            int index = (liveStart + i) % liveIds.length;
+            if (liveIds[index] == id && livePositions[index] >= 0) {
+                buffer.put(livePositions[index] + STATE_OFFSET, STATE_ACKNOWLEDGED);
+                livePositions[index] = -1;
+                pendingCount--;
+                advanceHead();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Used to get the records which were still pending when the journal was opened.
+     * The list is handed out only once, the caller is expected to replay and acknowledge them.
+     */
+    public synchronized List<Record> takeRecoveredRecords() {
+        List<Record> records = new ArrayList<>(recoveredRecords);
+        recoveredRecords.clear();
+        return records;
+    }
+
+    // Used to get the number of records which have not been acknowledged yet.
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    // Used to write the mapped pages to the file. Appends are not blocked while the pages are written.
+    public void force() {
+        synchronized (this) {
+            isForceScheduled = false;
+        }
+        try {
+            buffer.force();
+        } catch (Exception e) {
+            SmartechDiagnostics.getInstance().error("Event journal force failed", e);
+        }
+    }
+
+    // Used to flush the mapped pages and release a journal which is not shared through getInstance.
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        try {
+            buffer.force();
+            lock.release();
+            channel.close();
+            file.close();
+        } catch (IOException e) {
+            SmartechDiagnostics.getInstance().error("Event journal close failed", e);
+        }
+    }
+
+    private void recover() {
+        head = buffer.getInt(HEAD_OFFSET);
+        if (buffer.getInt(MAGIC_OFFSET) != MAGIC || head < DATA_START || head + LENGTH_SIZE > capacity) {
+            buffer.putInt(MAGIC_OFFSET, MAGIC);
+            clear();
+            return;
+        }
+        HashSet<Integer> recoveredIds = new HashSet<>();
+        int position = head;
+        boolean isWrapped = false;
+        while (true) {
+            int length = buffer.getInt(position + LENGTH_OFFSET);
+            // Records only wrap into the space before the head, so there is none to read back when the head is at the start.
+            if (length == WRAP && !isWrapped && head > DATA_START) {
+                isWrapped = true;
+                position = DATA_START;
+                continue;
+            }
+            // After the wrap marker the chain ends before the head, records are never written over it.
+            int limit = isWrapped ? head : capacity;
+            if (length <= 0 || length > limit - position - HEADER_SIZE - LENGTH_SIZE) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            view.position(position + HEADER_SIZE);
+            view.get(payload);
+            int id = buffer.getInt(position + ID_OFFSET);
+            crc.reset();
+            updateChecksum(id);
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != buffer.getInt(position + CRC_OFFSET)) {
+                // A torn record ends the chain.
+                break;
+            }
+            if (buffer.get(position + STATE_OFFSET) == STATE_PENDING) {
+                if (recoveredIds.add(id)) {
+                    recoveredRecords.add(new Record(id, payload));
+                    addLive(id, position);
+                    pendingCount++;
+                    nextId = Math.max(nextId, (id + 1) & Integer.MAX_VALUE);
+                } else {
+                    // The original of a record copied just before the process died.
+                    buffer.put(position + STATE_OFFSET, STATE_ACKNOWLEDGED);
+                }
+            }
+            position += HEADER_SIZE + length;
+        }
+        terminateChainAt(position);
+        writePosition = position;
+        advanceHead();
+    }
+
+    /**
+     * Returns the position at which a record of the given size fits: after the last record, or at the
+     * start of the journal when the end is reached. Returns -1 while the space is held by pending records.
+     * There is always room left after the record for the terminating header length.
+     */
+    private int findRoom(int recordSize) {
+        int needed = recordSize + LENGTH_SIZE;
+        if (writePosition >= head) {
+            if (writePosition + needed <= capacity) {
+                return writePosition;
+            }
+            return DATA_START + needed <= head ? DATA_START : -1;
+        }
+        return writePosition + needed <= head ? writePosition : -1;
+    }
+
+    /**
+     * Copies the pending record at the head to the end of the chain, when the acknowledged records behind it
+     * free more space than the copy takes. Returns false if the record was left in place.
+     */
+    private boolean relocateHead() {
+        if (pendingCount == 0) {
+            return false;
+        }
+        int from = head;
+        int length = buffer.getInt(from + LENGTH_OFFSET);
+        int recordSize = HEADER_SIZE + length;
+        int next = writePosition;
+        for (int i = 1; i < liveSize; i++) {
+            int position = livePositions[(liveStart + i) % liveIds.length];
+            if (position >= 0) {
+                next = position;
+                break;
+            }
+        }
+        int freed = next >= from ? next - from : capacity - from + next - DATA_START;
+        int to = findRoom(recordSize);
+        if (freed < 2 * recordSize || to < 0) {
+            return false;
+        }
+        byte[] payload = new byte[length];
+        view.position(from + HEADER_SIZE);
+        view.get(payload);
+        int id = liveIds[liveStart];
+        write(to, id, buffer.getInt(from + CRC_OFFSET), payload);
+        // The copy is published before the original is acknowledged, a duplicate left by a crash in between is skipped when recovering.
+        buffer.put(from + STATE_OFFSET, STATE_ACKNOWLEDGED);
+        livePositions[liveStart] = -1;
+        pendingCount--;
+        advanceHead();
+        return true;
+    }
+
+    // The space records can still be written to, on both sides of the wrap.
+    private int getFreeSpace() {
+        if (pendingCount == 0) {
+            return capacity - DATA_START;
+        }
+        return writePosition >= head ? capacity - writePosition + head - DATA_START : head - writePosition;
+    }
+
+    private void write(int position, int id, int checksum, byte[] payload) {
+        int recordSize = HEADER_SIZE + payload.length;
+        // The next header is terminated before the record is published by its length.
+        terminateChainAt(position + recordSize);
+        buffer.putInt(position + ID_OFFSET, id);
+        buffer.put(position + STATE_OFFSET, STATE_PENDING);
+        buffer.putInt(position + CRC_OFFSET, checksum);
+        view.position(position + HEADER_SIZE);
+        view.put(payload);
+        buffer.putInt(position + LENGTH_OFFSET, payload.length);
+        if (position != writePosition) {
+            // A record placed at the start of the journal is published by the wrap marker.
+            buffer.putInt(writePosition + LENGTH_OFFSET, WRAP);
+        }
+        writePosition = position + recordSize;
+        addLive(id, position);
+        pendingCount++;
+        scheduleForce();
+    }
+
+    // Moves the head past the acknowledged records, the journal starts over once none is pending.
+    private void advanceHead() {
+        while (liveSize > 0 && livePositions[liveStart] < 0) {
+            liveStart = (liveStart + 1) % liveIds.length;
+            liveSize--;
+        }
+        if (liveSize == 0) {
+            clear();
+        } else if (head != livePositions[liveStart]) {
+            head = livePositions[liveStart];
+            buffer.putInt(HEAD_OFFSET, head);
+        }
+    }
+
+    private void addLive(int id, int position) {
+        if (liveSize == liveIds.length) {
+            int[] ids = new int[liveSize * 2];
+            int[] positions = new int[liveSize * 2];
+            for (int i = 0; i < liveSize; i++) {
+                ids[i] = liveIds[(liveStart + i) % liveSize];
+                positions[i] = livePositions[(liveStart + i) % liveSize];
+            }
+            liveIds = ids;
+            livePositions = positions;
+            liveStart = 0;
+        }
+        int index = (liveStart + liveSize) % liveIds.length;
+        liveIds[index] = id;
+        livePositions[index] = position;
+        liveSize++;
+    }
+
+    private void updateChecksum(int id) {
+        crc.update(id >>> 24);
+        crc.update(id >>> 16);
+        crc.update(id >>> 8);
+        crc.update(id);
+    }
+
+    // Used to start over from the beginning of the journal, the records after the first header are never read back.
+    private void clear() {
+        terminateChainAt(DATA_START);
+        writePosition = DATA_START;
+        head = DATA_START;
+        buffer.putInt(HEAD_OFFSET, head);
+    }
+
+    private void terminateChainAt(int position) {
+        if (position + LENGTH_SIZE <= capacity) {
+            buffer.putInt(position + LENGTH_OFFSET, 0);
+        }
+    }
+
+    // Called with the journal locked, the appends made within the delay are forced together.
+    private void scheduleForce() {
+        if (isForceScheduled) {
+            return;
+        }
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, THREAD_NAME);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        isForceScheduled = true;
+        scheduler.schedule(forceTask, FORCE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public static final class Record {
+        public final int id;
+        public final byte[] payload;
+
+        Record(int id, byte[] payload) {
+            this.id = id;
+            this.payload = payload;
+        }
+    }
+}
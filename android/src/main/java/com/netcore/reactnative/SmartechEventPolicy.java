@@ -0,0 +1,118 @@
+package com.netcore.reactnative;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limits and samples custom events by name before they are converted and handed to the SDK.
+ *
+ * Each rule is a token bucket of maxPerSecond tokens per second holding up to burst tokens, kept as
+ * a single theoretical arrival time updated with compare-and-set (the GCRA form of a token bucket),
+ * so checks are lock-free and do not allocate. Events over the rate are kept at the sample rate and
+ * dropped otherwise. The number of events dropped since the last accepted one is returned with the
+ * next accepted event, so it can be attached to its payload.
+ *
+ * Events without a rule are always accepted.
+ */
+public class SmartechEventPolicy {
+
+    public static final String DROPPED_COUNT_ATTRIBUTE = "droppedEventCount";
+    public static final long DROPPED = -1;
+
+    private volatile Map<String, Rule> rules = Collections.emptyMap();
+
+    // Used to replace all the rules.
+    public void setRules(Map<String, Rule> rules) {
+        this.rules = rules == null ? Collections.<String, Rule>emptyMap() : new HashMap<>(rules);
+    }
+
+    /**
+     * Used to check an event against its rule at the given System.nanoTime().
+     * Returns DROPPED if the event is dropped, otherwise the number of events of the same name dropped
+     * since the last accepted one.
+     */
+    public long acquire(String eventName, long nowNanos) {
+        Rule rule = eventName != null ? rules.get(eventName) : null;
+        if (rule == null) {
+            return 0;
+        }
+        return rule.acquire(nowNanos);
+    }
+
+    // Used to get the accepted, sampled and dropped counts of every rule.
+    public HashMap<String, Object> getStats() {
+        Map<String, Rule> current = rules;
+        HashMap<String, Object> stats = new HashMap<>(SmartechPayloadConverter.capacityFor(current.size()));
+        for (Map.Entry<String, Rule> entry : current.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().getStats());
+        }
+        return stats;
+    }
+
+    public static final class Rule {
+        private final double maxPerSecond;
+        private final double sampleRate;
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+        private final AtomicLong theoreticalArrivalNanos;
+        private final AtomicLong overLimitCount = new AtomicLong();
+        private final AtomicLong pendingDroppedCount = new AtomicLong();
+        private final AtomicLong acceptedCount = new AtomicLong();
+        private final AtomicLong sampledCount = new AtomicLong();
+        private final AtomicLong droppedCount = new AtomicLong();
+
+        /**
+         * maxPerSecond must be positive. burst is the number of events accepted back to back, at least 1.
+         * sampleRate is the fraction, between 0 and 1, of the events over the rate which are still accepted.
+         */
+        public Rule(double maxPerSecond, int burst, double sampleRate) {
+            this.maxPerSecond = maxPerSecond;
+            this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+            this.emissionIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / maxPerSecond));
+            this.burstToleranceNanos = emissionIntervalNanos * (Math.max(1, burst) - 1);
+            this.theoreticalArrivalNanos = new AtomicLong(System.nanoTime());
+        }
+
+        long acquire(long nowNanos) {
+            if (tryTake(nowNanos)) {
+                acceptedCount.incrementAndGet();
+                return pendingDroppedCount.getAndSet(0);
+            }
+            // Over the rate: keep the events which cross a multiple of 1 / sampleRate.
+            long overLimit = overLimitCount.incrementAndGet();
+            if ((long) (overLimit * sampleRate) > (long) ((overLimit - 1) * sampleRate)) {
+                sampledCount.incrementAndGet();
+                return pendingDroppedCount.getAndSet(0);
+            }
+            droppedCount.incrementAndGet();
+            pendingDroppedCount.incrementAndGet();
+            return DROPPED;
+        }
+
+        private boolean tryTake(long nowNanos) {
+            while (true) {
+                long arrival = theoreticalArrivalNanos.get();
+                if (arrival - nowNanos > burstToleranceNanos) {
+                    return false;
+                }
+                long next = Math.max(arrival, nowNanos) + emissionIntervalNanos;
+                if (theoreticalArrivalNanos.compareAndSet(arrival, next)) {
+                    return true;
+                }
+            }
+        }
+
+        HashMap<String, Object> getStats() {
+            HashMap<String, Object> stats = new HashMap<>();
+            stats.put("maxPerSecond", maxPerSecond);
+            stats.put("sampleRate", sampleRate);
+            stats.put("acceptedCount", (double) acceptedCount.get());
+            stats.put("sampledCount", (double) sampledCount.get());
+            stats.put("droppedCount", (double) droppedCount.get());
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.netcore.reactnative;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the events sent to JS until a listener has subscribed to them, so that notification clicks
+ * and custom HTML callbacks received during a cold start are not lost.
+ *
+ * Events are held per event name, and a subscription only releases the events of its own name, so
+ * a listener of the consent or identifier events does not drain the deeplink events before their
+ * listener is attached. Only a subscription made through the native addListener is seen here, apps
+ * which subscribe with DeviceEventEmitter directly never make one. Holding is therefore bounded: the
+ * events are only held during the hold window which starts when the buffer is created, and once it
+ * has elapsed every held event is sent and the later events are sent right away. When the queue of
+ * a name is full its oldest event is sent instead of being held. Held events are sent in the order
+ * they were received.
+ */
+public class SmartechEventReplayBuffer {
+
+    public interface Emitter {
+        void emit(String eventName, Object payload);
+    }
+
+    public static final int DEFAULT_CAPACITY = 16;
+    public static final long DEFAULT_HOLD_MILLIS = 5000;
+
+    private static final String THREAD_NAME = "SmartechEventReplayBuffer";
+
+    private final Emitter emitter;
+    private final int capacity;
+    private final long holdEndsAtNanos;
+    private final HashMap<String, ArrayDeque<Object>> pendingEvents = new HashMap<>();
+    private final HashSet<String> attachedEventNames = new HashSet<>();
+    private final Runnable releaseTask = new Runnable() {
+        @Override
+        public void run() {
+            release();
+        }
+    };
+    private ScheduledExecutorService scheduler = null;
+    private boolean isReleased = false;
+    private long releasedCount = 0;
+
+    // The capacity applies to the events of each name, the hold window starts now.
+    public SmartechEventReplayBuffer(Emitter emitter, int capacity, long holdMillis) {
+        this.emitter = emitter;
+        this.capacity = Math.max(1, capacity);
+        this.holdEndsAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, holdMillis));
+    }
+
+    // Used to send an event to JS, or to hold it until a listener has subscribed to its name.
+    public synchronized void emit(String eventName, Object payload) {
+        if (isReleased || attachedEventNames.contains(eventName)) {
+            emitter.emit(eventName, payload);
+            return;
+        }
+        long remainingNanos = holdEndsAtNanos - System.nanoTime();
+        if (remainingNanos <= 0) {
+            release();
+            emitter.emit(eventName, payload);
+            return;
+        }
+        ArrayDeque<Object> payloads = pendingEvents.get(eventName);
+        if (payloads == null) {
+            payloads = new ArrayDeque<>(capacity);
+            pendingEvents.put(eventName, payloads);
+        }
+        if (payloads.size() == capacity) {
+            emitter.emit(eventName, payloads.pollFirst());
+            releasedCount++;
+        }
+        payloads.addLast(payload);
+        scheduleRelease(remainingNanos);
+    }
+
+    // Used when a JS listener subscribes to an event name: the events held for that name are sent in order.
+    public synchronized void onListenerAttached(String eventName) {
+        if (eventName == null || !attachedEventNames.add(eventName)) {
+            return;
+        }
+        ArrayDeque<Object> payloads = pendingEvents.remove(eventName);
+        if (payloads == null) {
+            return;
+        }
+        for (Object payload : payloads) {
+            emitter.emit(eventName, payload);
+        }
+    }
+
+    // Used to get the number of events which were sent without a subscription, once their queue was full or the hold window had elapsed.
+    public synchronized long getReleasedCount() {
+        return releasedCount;
+    }
+
+    // Used to stop the timer thread, the events still held are dropped.
+    public synchronized void shutdown() {
+        isReleased = true;
+        pendingEvents.clear();
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Sends every held event once the hold window has elapsed.
+    private synchronized void release() {
+        if (isReleased) {
+            return;
+        }
+        isReleased = true;
+        for (Map.Entry<String, ArrayDeque<Object>> entry : pendingEvents.entrySet()) {
+            for (Object payload : entry.getValue()) {
+                emitter.emit(entry.getKey(), payload);
+                releasedCount++;
+            }
+        }
+        pendingEvents.clear();
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    // Called with the buffer locked, the timer thread is only started once an event is held.
+    private void scheduleRelease(long delayNanos) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.schedule(releaseTask, delayNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,174 @@
+package com.netcore.reactnative;
+
+import com.facebook.react.bridge.ReadableArray;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Event schemas registered from JS, so that the events of a schema cross the bridge as an array of
+ * values in the order of the schema keys instead of a map repeating every key.
+ *
+ * A schema is an event name with an ordered list of keys and value types, identified by a small
+ * integer. Registering the same schema again returns the same id. The keys are interned when the
+ * schema is registered and the payload map is sized for them, so rebuilding a payload only allocates
+ * the map and its values. Schemas are never removed, the lookup by id reads a copy-on-write array.
+ */
+public class SmartechEventSchemaRegistry {
+
+    public static final int INVALID_SCHEMA_ID = -1;
+    public static final int MAX_SCHEMAS = 256;
+
+    public static final int TYPE_ANY = 0;
+    public static final int TYPE_STRING = 1;
+    public static final int TYPE_NUMBER = 2;
+    public static final int TYPE_BOOLEAN = 3;
+    public static final int TYPE_MAP = 4;
+    public static final int TYPE_ARRAY = 5;
+
+    private static final String[] TYPE_NAMES = {"any", "string", "number", "boolean", "map", "array"};
+
+    public static final class Schema {
+        public final int id;
+        public final String eventName;
+        private final String[] keys;
+        private final int[] types;
+        private final int mapCapacity;
+
+        Schema(int id, String eventName, String[] keys, int[] types) {
+            this.id = id;
+            this.eventName = eventName;
+            this.keys = keys;
+            this.types = types;
+            this.mapCapacity = SmartechPayloadConverter.capacityFor(keys.length);
+        }
+
+        boolean matches(String eventName, String[] keys, int[] types) {
+            return this.eventName.equals(eventName) && Arrays.equals(this.keys, keys) && Arrays.equals(this.types, types);
+        }
+    }
+
+    private final SmartechInternTable internTable = SmartechInternTable.getInstance();
+    private volatile Schema[] schemas = new Schema[0];
+    private final AtomicLong eventCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    // Used to get the type matching a name of any, string, number, boolean, map or array, -1 if the name is unknown.
+    public static int typeOf(String name) {
+        for (int type = 0; type < TYPE_NAMES.length; type++) {
+            if (TYPE_NAMES[type].equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Used to register a schema and get its id. The keys must be unique non-empty strings and the types
+     * one of the TYPE_ values. Returns INVALID_SCHEMA_ID if the schema is not valid or the registry is full.
+     */
+    public synchronized int register(String eventName, String[] keys, int[] types) {
+        if (eventName == null || eventName.isEmpty() || keys == null || types == null || keys.length != types.length || keys.length == 0) {
+            return INVALID_SCHEMA_ID;
+        }
+        HashSet<String> seenKeys = new HashSet<>(SmartechPayloadConverter.capacityFor(keys.length));
+        String[] internedKeys = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null || keys[i].isEmpty() || types[i] < TYPE_ANY || types[i] > TYPE_ARRAY || !seenKeys.add(keys[i])) {
+                return INVALID_SCHEMA_ID;
+            }
+            internedKeys[i] = internTable.intern(keys[i]);
+        }
+        Schema[] current = schemas;
+        for (Schema schema : current) {
+            if (schema.matches(eventName, internedKeys, types)) {
+                return schema.id;
+            }
+        }
+        if (current.length >= MAX_SCHEMAS) {
+            return INVALID_SCHEMA_ID;
+        }
+        Schema[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = new Schema(current.length, internTable.intern(eventName), internedKeys, types.clone());
+        schemas = next;
+        return current.length;
+    }
+
+    // Used to get a registered schema, null if there is none with this id.
+    public Schema get(int schemaId) {
+        Schema[] current = schemas;
+        return schemaId >= 0 && schemaId < current.length ? current[schemaId] : null;
+    }
+
+    /**
+     * Used to rebuild the payload of an event from its values, given in the order of the schema keys.
+     * A null value is accepted for any type. Maps and arrays are converted within the payload limits, and
+     * the strings together must fit in the limit on string bytes. Throws IllegalArgumentException when
+     * the number or the types of the values do not match the schema.
+     */
+    public HashMap<String, Object> toHashMap(Schema schema, ReadableArray values) {
+        try {
+            int valueCount = values != null ? values.size() : 0;
+            if (valueCount != schema.keys.length) {
+                throw new IllegalArgumentException("Expected " + schema.keys.length + " values for " + schema.eventName + ", got " + valueCount);
+            }
+            int maxStringBytes = SmartechPayloadConverter.getLimits().maxStringBytes;
+            long stringBytes = 0;
+            HashMap<String, Object> payload = new HashMap<>(schema.mapCapacity);
+            for (int i = 0; i < valueCount; i++) {
+                Object value;
+                int type;
+                switch (values.getType(i)) {
+                    case Boolean:
+                        value = values.getBoolean(i);
+                        type = TYPE_BOOLEAN;
+                        break;
+                    case Number:
+                        value = SmartechPayloadConverter.narrowNumber(values.getDouble(i));
+                        type = TYPE_NUMBER;
+                        break;
+                    case String:
+                        String string = values.getString(i);
+                        stringBytes += SmartechPayloadConverter.utf8Length(string);
+                        value = string;
+                        type = TYPE_STRING;
+                        break;
+                    case Map:
+                        value = SmartechPayloadConverter.toHashMap(values.getMap(i));
+                        type = TYPE_MAP;
+                        break;
+                    case Array:
+                        value = SmartechPayloadConverter.toList(values.getArray(i));
+                        type = TYPE_ARRAY;
+                        break;
+                    default:
+                        value = null;
+                        type = schema.types[i];
+                }
+                if (schema.types[i] != TYPE_ANY && schema.types[i] != type) {
+                    throw new IllegalArgumentException("Value of " + schema.keys[i] + " for " + schema.eventName + " is not a " + TYPE_NAMES[schema.types[i]]);
+                }
+                payload.put(schema.keys[i], value);
+            }
+            if (stringBytes > maxStringBytes) {
+                throw new IllegalArgumentException("Strings of " + schema.eventName + " exceed " + maxStringBytes + " bytes.");
+            }
+            eventCount.incrementAndGet();
+            return payload;
+        } catch (RuntimeException e) {
+            rejectedCount.incrementAndGet();
+            throw e;
+        }
+    }
+
+    // Used to get the number of schemas and of converted and rejected events.
+    public HashMap<String, Object> getStats() {
+        HashMap<String, Object> stats = new HashMap<>();
+        stats.put("schemaCount", (double) schemas.length);
+        stats.put("eventCount", (double) eventCount.get());
+        stats.put("rejectedCount", (double) rejectedCount.get());
+        return stats;
+    }
+}
@@ -0,0 +1,84 @@
+package com.netcore.reactnative;
+
+import java.util.HashMap;
+
+/**
+ * Holds the device and app identifiers of the Smartech SDK so that they can be read without a call
+ * into the SDK. The identifiers are published as a single immutable snapshot.
+ *
+ * The push token can change after it has been read, so it can be invalidated on its own: the other
+ * identifiers stay readable while the token is read again from the SDK.
+ */
+public class SmartechIdentifierCache {
+
+    public static final String APP_ID = "appId";
+    public static final String DEVICE_GUID = "deviceGuid";
+    public static final String SDK_VERSION = "sdkVersion";
+    public static final String DEVICE_PUSH_TOKEN = "devicePushToken";
+
+    public static final class Snapshot {
+        public final String appId;
+        public final String deviceGuid;
+        public final String sdkVersion;
+        public final String devicePushToken;
+        public final boolean isPushTokenLoaded;
+
+        Snapshot(String appId, String deviceGuid, String sdkVersion, String devicePushToken, boolean isPushTokenLoaded) {
+            this.appId = appId;
+            this.deviceGuid = deviceGuid;
+            this.sdkVersion = sdkVersion;
+            this.devicePushToken = devicePushToken;
+            this.isPushTokenLoaded = isPushTokenLoaded;
+        }
+
+        public HashMap<String, Object> toHashMap() {
+            HashMap<String, Object> map = new HashMap<>();
+            map.put(APP_ID, appId);
+            map.put(DEVICE_GUID, deviceGuid);
+            map.put(SDK_VERSION, sdkVersion);
+            map.put(DEVICE_PUSH_TOKEN, isPushTokenLoaded ? devicePushToken : null);
+            return map;
+        }
+    }
+
+    private volatile Snapshot snapshot = null;
+
+    // Used to get the current identifiers, or null if they have not been loaded yet.
+    public Snapshot get() {
+        return snapshot;
+    }
+
+    // Used to publish a complete set of identifiers. Returns true if any of them changed.
+    public synchronized boolean update(String appId, String deviceGuid, String sdkVersion, String devicePushToken) {
+        Snapshot current = snapshot;
+        snapshot = new Snapshot(appId, deviceGuid, sdkVersion, devicePushToken, true);
+        return current == null
+                || !isEqual(current.appId, appId)
+                || !isEqual(current.deviceGuid, deviceGuid)
+                || !isEqual(current.sdkVersion, sdkVersion)
+                || !current.isPushTokenLoaded
+                || !isEqual(current.devicePushToken, devicePushToken);
+    }
+
+    // Used to publish a new push token. Returns true if the token changed.
+    public synchronized boolean updatePushToken(String devicePushToken) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return false;
+        }
+        snapshot = new Snapshot(current.appId, current.deviceGuid, current.sdkVersion, devicePushToken, true);
+        return !current.isPushTokenLoaded || !isEqual(current.devicePushToken, devicePushToken);
+    }
+
+    // Used when the push token may have changed in the SDK, it is read again on next access.
+    public synchronized void invalidatePushToken() {
+        Snapshot current = snapshot;
+        if (current != null && current.isPushTokenLoaded) {
+            snapshot = new Snapshot(current.appId, current.deviceGuid, current.sdkVersion, current.devicePushToken, false);
+        }
+    }
+
+    private static boolean isEqual(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
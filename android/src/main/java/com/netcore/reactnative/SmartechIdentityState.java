@@ -0,0 +1,103 @@
+package com.netcore.reactnative;
+
+import java.util.HashMap;
+
+/**
+ * In-memory copy of the identity the Smartech SDK holds, used to skip the identity calls which would
+ * not change it, such as a login with the identity already logged in on every app foreground.
+ *
+ * The user is anonymous, identified (the identity is set) or logged in. Each method applies one
+ * transition and returns the SDK calls it needs, in the order the bridge receives them, and the
+ * caller dispatches those calls in the same order. Until the identity held by the SDK is known,
+ * either from seed() or from a first transition, no call is skipped, and invalidate() brings the
+ * state back there after a failed SDK call.
+ */
+public class SmartechIdentityState {
+
+    public enum State {
+        ANONYMOUS, IDENTIFIED, LOGGED_IN
+    }
+
+    public static final int CALL_NONE = 0;
+    public static final int CALL_SET_USER_IDENTITY = 1;
+    public static final int CALL_LOGIN = 2;
+
+    private State state = State.ANONYMOUS;
+    private String identity = null;
+    private boolean isKnown = false;
+    private boolean hasTransitioned = false;
+    private long appliedCount = 0;
+    private long skippedCount = 0;
+
+    /**
+     * Used to start from the identity stored by the SDK, a logged in user is seen as identified.
+     * It is ignored once a transition has been applied, as the SDK runs the calls dispatched before it.
+     */
+    public synchronized void seed(String storedIdentity) {
+        if (hasTransitioned) {
+            return;
+        }
+        boolean isIdentified = storedIdentity != null && storedIdentity.length() > 0;
+        state = isIdentified ? State.IDENTIFIED : State.ANONYMOUS;
+        identity = isIdentified ? storedIdentity : null;
+        isKnown = true;
+    }
+
+    // Returns the CALL_ flags of the SDK calls needed to log in the identity, CALL_NONE when it is already logged in.
+    public synchronized int login(String identity) {
+        int calls = CALL_SET_USER_IDENTITY | CALL_LOGIN;
+        if (isCurrent(identity)) {
+            calls = state == State.IDENTIFIED ? CALL_LOGIN : CALL_NONE;
+        }
+        transition(calls != CALL_NONE, State.LOGGED_IN, identity);
+        return calls;
+    }
+
+    // Returns false when the identity is already set.
+    public synchronized boolean setUserIdentity(String identity) {
+        return transition(!isCurrent(identity), State.IDENTIFIED, identity);
+    }
+
+    // Returns false when there is no identity to clear.
+    public synchronized boolean clearUserIdentity() {
+        return transition(!isKnown || state != State.ANONYMOUS, State.ANONYMOUS, null);
+    }
+
+    // A logout is always applied, the SDK may hold a session the bridge does not know about.
+    public synchronized void logout() {
+        transition(true, State.ANONYMOUS, null);
+    }
+
+    // Used after a failed identity call, nothing is skipped until the next transition.
+    public synchronized void invalidate() {
+        isKnown = false;
+    }
+
+    // Used to get the current state and the applied and skipped transition counters.
+    public synchronized HashMap<String, Object> getStats() {
+        HashMap<String, Object> stats = new HashMap<>();
+        stats.put("state", !isKnown ? "unknown" : state == State.ANONYMOUS ? "anonymous" : state == State.IDENTIFIED ? "identified" : "loggedIn");
+        stats.put("identity", identity);
+        stats.put("appliedCount", (double) appliedCount);
+        stats.put("skippedCount", (double) skippedCount);
+        return stats;
+    }
+
+    // Whether the identity is known to be set, and possibly logged in, in the SDK.
+    private boolean isCurrent(String identity) {
+        return isKnown && state != State.ANONYMOUS && identity != null && identity.equals(this.identity);
+    }
+
+    private boolean transition(boolean isApplied, State next, String nextIdentity) {
+        if (!isApplied) {
+            skippedCount++;
+            return false;
+        }
+        appliedCount++;
+        state = next;
+        identity = nextIdentity;
+        isKnown = true;
+        hasTransitioned = true;
+        return true;
+    }
+}
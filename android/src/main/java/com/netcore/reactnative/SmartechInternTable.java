@@ -0,0 +1,164 @@
+package com.netcore.reactnative;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded table of canonical String instances for event names and payload keys, which repeat a small
+ * vocabulary across millions of events.
+ *
+ * The table is set-associative: a string can only live in the WAYS slots of the set picked by its
+ * hash. Lookups read the slots without locking. Inserts are serialized and, once a set is full, evict
+ * the least recently used slot of the set using the second-chance (CLOCK) approximation: a hit marks
+ * the slot as referenced and the eviction hand skips, and clears, referenced slots once.
+ */
+public class SmartechInternTable {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    public static final int DEFAULT_MAX_LENGTH = 64;
+
+    private static final int WAYS = 4;
+
+    private static final SmartechInternTable instance = new SmartechInternTable(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_LENGTH);
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final byte[] clockHands;
+    private final int setMask;
+    private final int maxLength;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * maxEntries is rounded up to a power of two multiple of the set size.
+     * Strings longer than maxLength characters are never interned.
+     */
+    public SmartechInternTable(int maxEntries, int maxLength) {
+        int sets = 1;
+        while (sets * WAYS < maxEntries) {
+            sets <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(sets * WAYS);
+        this.clockHands = new byte[sets];
+        this.setMask = sets - 1;
+        this.maxLength = maxLength;
+    }
+
+    public static SmartechInternTable getInstance() {
+        return instance;
+    }
+
+    // Used to get the canonical instance of a string, the string itself is returned and added on a miss.
+    public String intern(String value) {
+        if (value == null || value.length() > maxLength) {
+            return value;
+        }
+        int hash = value.hashCode();
+        int base = (hash & setMask) * WAYS;
+        for (int i = 0; i < WAYS; i++) {
+            Entry entry = slots.get(base + i);
+            if (entry != null && entry.hash == hash && entry.value.equals(value)) {
+                return hit(entry);
+            }
+        }
+        missCount.incrementAndGet();
+        return insert(value, hash, base);
+    }
+
+    /**
+     * Used to get the canonical instance of the characters between start and end of the source.
+     * No String is allocated when the characters are already in the table.
+     */
+    public String intern(String source, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        return intern(source, start, end, hash);
+    }
+
+    // Same as above for a caller which already computed String.hashCode() of the characters.
+    String intern(String source, int start, int end, int hash) {
+        int length = end - start;
+        if (length > maxLength) {
+            return source.substring(start, end);
+        }
+        int base = (hash & setMask) * WAYS;
+        for (int i = 0; i < WAYS; i++) {
+            Entry entry = slots.get(base + i);
+            if (entry != null && entry.hash == hash && entry.value.length() == length && entry.value.regionMatches(0, source, start, length)) {
+                return hit(entry);
+            }
+        }
+        missCount.incrementAndGet();
+        return insert(source.substring(start, end), hash, base);
+    }
+
+    // Used to get the size, hit and eviction counters of the table.
+    public HashMap<String, Object> getStats() {
+        long hits = hitCount.get();
+        long misses = missCount.get();
+        int size = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                size++;
+            }
+        }
+        HashMap<String, Object> stats = new HashMap<>();
+        stats.put("size", (double) size);
+        stats.put("capacity", (double) slots.length());
+        stats.put("hitCount", (double) hits);
+        stats.put("missCount", (double) misses);
+        stats.put("evictionCount", (double) evictionCount.get());
+        stats.put("hitRate", hits + misses == 0 ? 0d : (double) hits / (hits + misses));
+        return stats;
+    }
+
+    private String hit(Entry entry) {
+        if (!entry.isReferenced) {
+            entry.isReferenced = true;
+        }
+        hitCount.incrementAndGet();
+        return entry.value;
+    }
+
+    private synchronized String insert(String value, int hash, int base) {
+        // Another thread may have added the same string since the lookup.
+        for (int i = 0; i < WAYS; i++) {
+            Entry entry = slots.get(base + i);
+            if (entry == null) {
+                slots.set(base + i, new Entry(value, hash));
+                return value;
+            } else if (entry.hash == hash && entry.value.equals(value)) {
+                return entry.value;
+            }
+        }
+
+        int set = base / WAYS;
+        int hand = clockHands[set];
+        while (true) {
+            Entry entry = slots.get(base + hand);
+            if (entry.isReferenced) {
+                entry.isReferenced = false;
+                hand = (hand + 1) % WAYS;
+                continue;
+            }
+            slots.set(base + hand, new Entry(value, hash));
+            clockHands[set] = (byte) ((hand + 1) % WAYS);
+            evictionCount.incrementAndGet();
+            return value;
+        }
+    }
+
+    private static final class Entry {
+        final String value;
+        final int hash;
+        volatile boolean isReferenced = false;
+
+        Entry(String value, int hash) {
+            this.value = value;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.netcore.reactnative;
+
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Streaming JSON parser which reads an event payload straight into the HashMap expected by the
+ * Smartech SDK, without building an intermediate JSONObject tree.
+ *
+ * Objects become HashMap, arrays become ArrayList, integral numbers become Integer or Long and
+ * all other numbers become Double, matching SmartechPayloadConverter. Object keys are looked up in an
+ * intern table, so keys seen before are not allocated again.
+ */
+public class SmartechJsonParser {
+
+    public static final int DEFAULT_MAX_DEPTH = 32;
+    public static final int DEFAULT_MAX_LENGTH = 256 * 1024;
+
+    // Up to 18 digits always fit into a long, longer integers are parsed through their text.
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private final String json;
+    private final int maxDepth;
+    private final SmartechInternTable internTable;
+    private int position = 0;
+    private int depth = 0;
+
+    private SmartechJsonParser(String json, int maxDepth, SmartechInternTable internTable) {
+        this.json = json;
+        this.maxDepth = maxDepth;
+        this.internTable = internTable;
+    }
+
+    /**
+     * Used to parse a JSON object into a HashMap.
+     * Throws a JSONException if the text is not a single valid JSON object, is longer than maxLength
+     * characters or nests objects and arrays deeper than maxDepth.
+     */
+    public static HashMap<String, Object> parseObject(String json, int maxDepth, int maxLength) throws JSONException {
+        return parseObject(json, maxDepth, maxLength, SmartechInternTable.getInstance());
+    }
+
+    // Same as above, with the intern table used for the object keys. A null table disables interning.
+    public static HashMap<String, Object> parseObject(String json, int maxDepth, int maxLength, SmartechInternTable internTable) throws JSONException {
+        if (json == null) {
+            throw new JSONException("Payload is null.");
+        }
+        if (json.length() > maxLength) {
+            throw new JSONException("Payload of " + json.length() + " characters exceeds the limit of " + maxLength + ".");
+        }
+        SmartechJsonParser parser = new SmartechJsonParser(json, maxDepth, internTable);
+        parser.skipWhitespace();
+        if (parser.peek() != '{') {
+            throw parser.syntaxError("Expected a JSON object");
+        }
+        HashMap<String, Object> result = parser.readObject();
+        parser.skipWhitespace();
+        if (parser.position != json.length()) {
+            throw parser.syntaxError("Unexpected trailing characters");
+        }
+        return result;
+    }
+
+    private Object readValue() throws JSONException {
+        skipWhitespace();
+        char c = peek();
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                readLiteral("true");
+                return Boolean.TRUE;
+            case 'f':
+                readLiteral("false");
+                return Boolean.FALSE;
+            case 'n':
+                readLiteral("null");
+                return null;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw syntaxError("Unexpected character '" + c + "'");
+        }
+    }
+
+    private HashMap<String, Object> readObject() throws JSONException {
+        enter();
+        position++;
+        HashMap<String, Object> map = new HashMap<>();
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            depth--;
+            return map;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw syntaxError("Expected a key");
+            }
+            String key = readKey();
+            skipWhitespace();
+            expect(':');
+            map.put(key, readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                depth--;
+                return map;
+            } else if (c != ',') {
+                throw syntaxError("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private List<Object> readArray() throws JSONException {
+        enter();
+        position++;
+        ArrayList<Object> list = new ArrayList<>();
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            depth--;
+            return list;
+        }
+        while (true) {
+            list.add(readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == ']') {
+                depth--;
+                return list;
+            } else if (c != ',') {
+                throw syntaxError("Expected ',' or ']'");
+            }
+        }
+    }
+
+    // Keys without escapes are taken from the intern table, the others are read as a regular string.
+    private String readKey() throws JSONException {
+        if (internTable != null) {
+            int start = position + 1;
+            int hash = 0;
+            for (int i = start; i < json.length(); i++) {
+                char c = json.charAt(i);
+                if (c == '"') {
+                    position = i + 1;
+                    return internTable.intern(json, start, i, hash);
+                } else if (c == '\\' || c < 0x20) {
+                    break;
+                }
+                hash = 31 * hash + c;
+            }
+        }
+        return readString();
+    }
+
+    private String readString() throws JSONException {
+        position++;
+        int start = position;
+        // Fast path: strings without escapes are taken as a single substring.
+        while (position < json.length()) {
+            char c = json.charAt(position);
+            if (c == '"') {
+                return json.substring(start, position++);
+            } else if (c == '\\') {
+                break;
+            } else if (c < 0x20) {
+                throw syntaxError("Unescaped control character in string");
+            }
+            position++;
+        }
+
+        StringBuilder builder = new StringBuilder(position - start + 16);
+        builder.append(json, start, position);
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return builder.toString();
+            } else if (c < 0x20) {
+                throw syntaxError("Unescaped control character in string");
+            } else if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            char escaped = next();
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    builder.append(escaped);
+                    break;
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    builder.append(readUnicodeEscape());
+                    break;
+                default:
+                    throw syntaxError("Invalid escape sequence '\\" + escaped + "'");
+            }
+        }
+    }
+
+    private char readUnicodeEscape() throws JSONException {
+        if (position + 4 > json.length()) {
+            throw syntaxError("Unterminated unicode escape");
+        }
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(json.charAt(position++), 16);
+            if (digit < 0) {
+                throw syntaxError("Invalid unicode escape");
+            }
+            value = (value << 4) | digit;
+        }
+        return (char) value;
+    }
+
+    private Object readNumber() throws JSONException {
+        int start = position;
+        boolean negative = false;
+        if (peek() == '-') {
+            negative = true;
+            position++;
+        }
+        int digitsStart = position;
+        long integral = 0;
+        while (position < json.length()) {
+            char c = json.charAt(position);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            integral = integral * 10 + (c - '0');
+            position++;
+        }
+        int digits = position - digitsStart;
+        if (digits == 0) {
+            throw syntaxError("Invalid number");
+        }
+        if (digits > 1 && json.charAt(digitsStart) == '0') {
+            throw syntaxError("Leading zeros are not allowed");
+        }
+
+        boolean isIntegral = true;
+        if (position < json.length() && json.charAt(position) == '.') {
+            isIntegral = false;
+            position++;
+            if (skipDigits() == 0) {
+                throw syntaxError("Invalid number");
+            }
+        }
+        if (position < json.length() && (json.charAt(position) == 'e' || json.charAt(position) == 'E')) {
+            isIntegral = false;
+            position++;
+            if (position < json.length() && (json.charAt(position) == '+' || json.charAt(position) == '-')) {
+                position++;
+            }
+            if (skipDigits() == 0) {
+                throw syntaxError("Invalid number");
+            }
+        }
+
+        if (isIntegral && digits <= MAX_LONG_DIGITS) {
+            long value = negative ? -integral : integral;
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                return (int) value;
+            }
+            return value;
+        }
+        double value = Double.parseDouble(json.substring(start, position));
+        return SmartechPayloadConverter.narrowNumber(value);
+    }
+
+    private int skipDigits() {
+        int start = position;
+        while (position < json.length() && json.charAt(position) >= '0' && json.charAt(position) <= '9') {
+            position++;
+        }
+        return position - start;
+    }
+
+    private void readLiteral(String literal) throws JSONException {
+        if (!json.startsWith(literal, position)) {
+            throw syntaxError("Unexpected token");
+        }
+        position += literal.length();
+    }
+
+    private void enter() throws JSONException {
+        if (++depth > maxDepth) {
+            throw syntaxError("Nesting exceeds the maximum depth of " + maxDepth);
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < json.length()) {
+            char c = json.charAt(position);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private void expect(char expected) throws JSONException {
+        if (next() != expected) {
+            throw syntaxError("Expected '" + expected + "'");
+        }
+    }
+
+    private char peek() throws JSONException {
+        if (position >= json.length()) {
+            throw syntaxError("Unexpected end of input");
+        }
+        return json.charAt(position);
+    }
+
+    private char next() throws JSONException {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private JSONException syntaxError(String message) {
+        return new JSONException(message + " at character " + position + ".");
+    }
+}
@@ -0,0 +1,76 @@
+package com.netcore.reactnative;
+
+import java.util.HashMap;
+
+/**
+ * Decides which location updates are forwarded to the Smartech SDK.
+ *
+ * An update is accepted when it is at least the minimum distance away from the last accepted one, or
+ * when the minimum interval has passed since it. A threshold of 0 is not used, and with both at 0,
+ * which is the default, every update is accepted.
+ */
+public class SmartechLocationThrottle {
+
+    private static final double EARTH_RADIUS_METERS = 6371008.8;
+
+    private double minDistanceMeters = 0;
+    private long minIntervalMillis = 0;
+    private boolean hasLastLocation = false;
+    private double lastLatitude;
+    private double lastLongitude;
+    private long lastAcceptedAtMillis;
+    private long acceptedCount = 0;
+    private long droppedCount = 0;
+
+    // Used to set the thresholds, the next update is always accepted.
+    public synchronized void setThresholds(double minDistanceMeters, long minIntervalMillis) {
+        this.minDistanceMeters = Math.max(0, minDistanceMeters);
+        this.minIntervalMillis = Math.max(0, minIntervalMillis);
+        this.hasLastLocation = false;
+    }
+
+    // Used to check an update received at the given monotonic time, an accepted update becomes the new reference.
+    public synchronized boolean accept(double latitude, double longitude, long nowMillis) {
+        boolean isThrottled = minDistanceMeters > 0 || minIntervalMillis > 0;
+        if (isThrottled && hasLastLocation) {
+            boolean isFarEnough = minDistanceMeters > 0 && distanceMeters(lastLatitude, lastLongitude, latitude, longitude) >= minDistanceMeters;
+            boolean isLateEnough = minIntervalMillis > 0 && nowMillis - lastAcceptedAtMillis >= minIntervalMillis;
+            if (!isFarEnough && !isLateEnough) {
+                droppedCount++;
+                return false;
+            }
+        }
+        hasLastLocation = true;
+        lastLatitude = latitude;
+        lastLongitude = longitude;
+        lastAcceptedAtMillis = nowMillis;
+        acceptedCount++;
+        return true;
+    }
+
+    // Used to get the thresholds and the accepted and dropped counts.
+    public synchronized HashMap<String, Object> getStats() {
+        HashMap<String, Object> stats = new HashMap<>();
+        stats.put("minDistanceMeters", minDistanceMeters);
+        stats.put("minIntervalMillis", (double) minIntervalMillis);
+        stats.put("acceptedCount", (double) acceptedCount);
+        stats.put("droppedCount", (double) droppedCount);
+        return stats;
+    }
+
+    /**
+     * Equirectangular approximation of the distance between two coordinates. It is within a fraction
+     * of a percent of the great-circle distance at the few hundred meters the thresholds deal with.
+     */
+    static double distanceMeters(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        double deltaLongitude = toLongitude - fromLongitude;
+        if (deltaLongitude > 180) {
+            deltaLongitude -= 360;
+        } else if (deltaLongitude < -180) {
+            deltaLongitude += 360;
+        }
+        double x = Math.toRadians(deltaLongitude) * Math.cos(Math.toRadians((fromLatitude + toLatitude) / 2));
+        double y = Math.toRadians(toLatitude - fromLatitude);
+        return Math.sqrt(x * x + y * y) * EARTH_RADIUS_METERS;
+    }
+}
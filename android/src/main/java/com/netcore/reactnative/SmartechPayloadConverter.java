@@ -0,0 +1,634 @@
+package com.netcore.reactnative;
+
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeArray;
+import com.facebook.react.bridge.WritableNativeMap;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Converts bridge payloads into the plain Java collections expected by the Smartech SDK, and JSON
+ * payloads into the maps sent to JS.
+ *
+ * A ReadableMap or ReadableArray is read one level at a time while it is walked, rather than with the
+ * recursive toHashMap() or toArrayList(), so the limits apply before the rest of the payload is read.
+ * Maps parsed on the native side are walked in place. Conversions walk the payload iteratively with an
+ * explicit stack, so a deeply nested payload can not overflow the thread stack, and every conversion
+ * is bounded by the current Limits: the nesting depth, the number of values and the UTF-8 bytes of
+ * the keys and strings. A payload over a limit is
+ * rejected with a LimitExceededException, or truncated: containers nested too deep are left out, and
+ * the conversion stops at the first value over the value or byte budget, keeping the values converted
+ * before it in iteration order. Integral numbers read from the bridge are narrowed back to Integer or
+ * Long instead of being left as Double.
+ */
+public class SmartechPayloadConverter {
+
+    public static final class Limits {
+        public static final Limits DEFAULT = new Limits(32, 10000, 1024 * 1024, false);
+
+        public final int maxDepth;
+        public final int maxElements;
+        public final int maxStringBytes;
+        public final boolean isTruncating;
+
+        public Limits(int maxDepth, int maxElements, int maxStringBytes, boolean isTruncating) {
+            this.maxDepth = Math.max(1, maxDepth);
+            this.maxElements = Math.max(1, maxElements);
+            this.maxStringBytes = Math.max(0, maxStringBytes);
+            this.isTruncating = isTruncating;
+        }
+    }
+
+    public static final class LimitExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        LimitExceededException(String message) {
+            super(message);
+        }
+    }
+
+    // Doubles above this magnitude can not be told apart from their neighbours, so they stay Double.
+    private static final double MAX_EXACT_INTEGRAL = 9007199254740992d;
+
+    private static final int EXCEEDED_DEPTH = 0;
+    private static final int EXCEEDED_ELEMENTS = 1;
+    private static final int EXCEEDED_STRING_BYTES = 2;
+
+    private static volatile Limits limits = Limits.DEFAULT;
+    private static final AtomicLong convertedCount = new AtomicLong();
+    private static final AtomicLong rejectedCount = new AtomicLong();
+    private static final AtomicLong truncatedCount = new AtomicLong();
+    private static final AtomicLong depthExceededCount = new AtomicLong();
+    private static final AtomicLong elementsExceededCount = new AtomicLong();
+    private static final AtomicLong stringBytesExceededCount = new AtomicLong();
+
+    // Used to replace the limits of every conversion.
+    public static void setLimits(Limits limits) {
+        SmartechPayloadConverter.limits = limits != null ? limits : Limits.DEFAULT;
+    }
+
+    public static Limits getLimits() {
+        return limits;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static HashMap<String, Object> toHashMap(ReadableMap readableMap) {
+        return readableMap == null ? null : (HashMap<String, Object>) new Conversion(limits, false, null).run(readableMap);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static ArrayList<Object> toList(ReadableArray readableArray) {
+        return readableArray == null ? null : (ArrayList<Object>) new Conversion(limits, false, null).run(readableArray);
+    }
+
+    /**
+     * Used to bound a payload parsed on the native side, such as the map read by trackEventJson, by the
+     * current limits. The map is changed in place and returned.
+     */
+    @SuppressWarnings("unchecked")
+    public static HashMap<String, Object> applyLimits(HashMap<String, Object> payload) {
+        return (HashMap<String, Object>) new Conversion(limits, false, null).run(payload);
+    }
+
+    // Used to convert a JSON object, the keys are looked up in the intern table. A null table disables interning.
+    @SuppressWarnings("unchecked")
+    public static HashMap<String, Object> toHashMap(JSONObject jsonObject, SmartechInternTable internTable) {
+        return (HashMap<String, Object>) new Conversion(limits, false, internTable).run(jsonObject);
+    }
+
+    /**
+     * Used to convert a JSON object into a map sent to JS.
+     * An empty object, nested ones included, becomes null.
+     */
+    public static WritableMap toWritableMap(JSONObject jsonObject) {
+        return (WritableMap) new Conversion(limits, true, null).run(jsonObject);
+    }
+
+    // Same as above for a JSON array.
+    public static WritableArray toWritableArray(JSONArray jsonArray) {
+        return (WritableArray) new Conversion(limits, true, null).run(jsonArray);
+    }
+
+    // Used to get the limits and the converted, rejected and truncated payload counters.
+    public static HashMap<String, Object> getStats() {
+        Limits current = limits;
+        HashMap<String, Object> stats = new HashMap<>();
+        stats.put("maxDepth", (double) current.maxDepth);
+        stats.put("maxElements", (double) current.maxElements);
+        stats.put("maxStringBytes", (double) current.maxStringBytes);
+        stats.put("overflowPolicy", current.isTruncating ? "truncate" : "reject");
+        stats.put("convertedCount", (double) convertedCount.get());
+        stats.put("rejectedCount", (double) rejectedCount.get());
+        stats.put("truncatedCount", (double) truncatedCount.get());
+        stats.put("depthExceededCount", (double) depthExceededCount.get());
+        stats.put("elementsExceededCount", (double) elementsExceededCount.get());
+        stats.put("stringBytesExceededCount", (double) stringBytesExceededCount.get());
+        return stats;
+    }
+
+    // Used to turn a JS number into an Integer or a Long when it holds an integral value.
+    public static Object narrowNumber(Double value) {
+        double number = value;
+        if (number != Math.rint(number) || Math.abs(number) > MAX_EXACT_INTEGRAL) {
+            return value;
+        }
+        if (number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE) {
+            return (int) number;
+        }
+        return (long) number;
+    }
+
+    // Used to put a number into a WritableMap without going through its string form.
+    public static void putNumber(WritableMap writableMap, String key, Number value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writableMap.putInt(key, value.intValue());
+        } else if (value instanceof Long && value.longValue() == value.intValue()) {
+            writableMap.putInt(key, value.intValue());
+        } else {
+            writableMap.putDouble(key, value.doubleValue());
+        }
+    }
+
+    // Used to push a number into a WritableArray without going through its string form.
+    public static void pushNumber(WritableArray writableArray, Number value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writableArray.pushInt(value.intValue());
+        } else if (value instanceof Long && value.longValue() == value.intValue()) {
+            writableArray.pushInt(value.intValue());
+        } else {
+            writableArray.pushDouble(value.doubleValue());
+        }
+    }
+
+    // Used to get the initial capacity of a HashMap which holds the given number of entries without rehashing.
+    public static int capacityFor(int size) {
+        return size < 3 ? size + 1 : (int) (size / 0.75f + 1.0f);
+    }
+
+    // Used to count the UTF-8 bytes of a string without encoding it.
+    static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                // A surrogate pair is 4 bytes, 2 for each half.
+                bytes += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                bytes += 1;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * A single conversion. Containers are converted depth first: the frame of a nested container is
+     * pushed on the stack when it is met, and its result is put into the parent once it is complete,
+     * as a WritableMap can not be changed once it has been put into another one.
+     */
+    private static final class Conversion {
+        private final Limits limits;
+        private final boolean isWritable;
+        private final SmartechInternTable internTable;
+        private final ArrayList<Frame> stack = new ArrayList<>();
+        private int elementCount = 0;
+        private long stringBytes = 0;
+        private boolean isTruncated = false;
+        private boolean isStopped = false;
+
+        Conversion(Limits limits, boolean isWritable, SmartechInternTable internTable) {
+            this.limits = limits;
+            this.isWritable = isWritable;
+            this.internTable = internTable;
+        }
+
+        Object run(Object source) {
+            if (source == null) {
+                return null;
+            }
+            stack.add(newFrame(source, null, 1));
+            Object result = null;
+            while (!stack.isEmpty()) {
+                Frame frame = stack.get(stack.size() - 1);
+                if (!isStopped && frame.advance()) {
+                    visit(frame, frame.key, frame.value);
+                    continue;
+                }
+                if (isStopped) {
+                    frame.removeRemaining();
+                }
+                stack.remove(stack.size() - 1);
+                Object target = isWritable && frame.count == 0 ? null : frame.target;
+                if (stack.isEmpty()) {
+                    result = target;
+                } else {
+                    put(stack.get(stack.size() - 1), frame.keyInParent, target);
+                }
+            }
+            convertedCount.incrementAndGet();
+            if (isTruncated) {
+                truncatedCount.incrementAndGet();
+            }
+            return result;
+        }
+
+        // A value left out of a payload converted in place is removed from its container.
+        private void visit(Frame parent, String key, Object value) {
+            if (key != null && !addStringBytes(key)) {
+                parent.remove();
+                return;
+            }
+            if (++elementCount > limits.maxElements) {
+                exceed(EXCEEDED_ELEMENTS, "Payload has more than " + limits.maxElements + " values.");
+                isStopped = true;
+                parent.remove();
+                return;
+            }
+            if (isContainer(value)) {
+                if (parent.depth >= limits.maxDepth) {
+                    exceed(EXCEEDED_DEPTH, "Payload nests deeper than " + limits.maxDepth + " levels.");
+                    parent.remove();
+                    return;
+                }
+                stack.add(newFrame(value, key, parent.depth + 1));
+                return;
+            }
+            if (value instanceof String && !addStringBytes((String) value)) {
+                parent.remove();
+                return;
+            }
+            put(parent, key, value);
+        }
+
+        private boolean addStringBytes(String value) {
+            stringBytes += utf8Length(value);
+            if (stringBytes > limits.maxStringBytes) {
+                exceed(EXCEEDED_STRING_BYTES, "Payload strings exceed " + limits.maxStringBytes + " bytes.");
+                isStopped = true;
+                return false;
+            }
+            return true;
+        }
+
+        // Throws when payloads over the limits are rejected, otherwise marks the payload as truncated.
+        private void exceed(int limit, String message) {
+            if (limit == EXCEEDED_DEPTH) {
+                depthExceededCount.incrementAndGet();
+            } else if (limit == EXCEEDED_ELEMENTS) {
+                elementsExceededCount.incrementAndGet();
+            } else {
+                stringBytesExceededCount.incrementAndGet();
+            }
+            if (!limits.isTruncating) {
+                rejectedCount.incrementAndGet();
+                throw new LimitExceededException(message);
+            }
+            isTruncated = true;
+        }
+
+        private static boolean isContainer(Object value) {
+            return value instanceof Map || value instanceof List || value instanceof ReadableMap || value instanceof ReadableArray
+                    || value instanceof JSONObject || value instanceof JSONArray;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Frame newFrame(Object source, String keyInParent, int depth) {
+            Frame frame;
+            if (source instanceof Map) {
+                frame = new MapFrame((Map<String, Object>) source);
+            } else if (source instanceof List) {
+                frame = new ListFrame((List<Object>) source);
+            } else if (source instanceof ReadableMap) {
+                frame = new ReadableMapFrame((ReadableMap) source);
+            } else if (source instanceof ReadableArray) {
+                frame = new ReadableArrayFrame((ReadableArray) source);
+            } else if (source instanceof JSONObject) {
+                frame = new JsonObjectFrame((JSONObject) source, internTable);
+            } else {
+                frame = new JsonArrayFrame((JSONArray) source);
+            }
+            frame.keyInParent = keyInParent;
+            frame.depth = depth;
+            if (frame.target != null) {
+                return frame;
+            }
+            if (isWritable) {
+                frame.target = frame.isMap ? new WritableNativeMap() : new WritableNativeArray();
+            } else if (frame.isMap) {
+                frame.target = new HashMap<String, Object>(frame.expectedSize < 0 ? 16 : capacityFor(frame.expectedSize));
+            } else {
+                frame.target = new ArrayList<Object>(frame.expectedSize);
+            }
+            return frame;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void put(Frame frame, String key, Object value) {
+            frame.count++;
+            if (value instanceof Double && !isWritable) {
+                value = narrowNumber((Double) value);
+            }
+            if (frame.isInPlace) {
+                if (value != frame.value) {
+                    frame.replace(value);
+                }
+            } else if (!isWritable) {
+                if (frame.isMap) {
+                    ((HashMap<String, Object>) frame.target).put(key, value);
+                } else {
+                    ((ArrayList<Object>) frame.target).add(value);
+                }
+            } else if (frame.isMap) {
+                putWritable((WritableMap) frame.target, key, value);
+            } else {
+                pushWritable((WritableArray) frame.target, value);
+            }
+        }
+
+        private static void putWritable(WritableMap writableMap, String key, Object value) {
+            if (value == null) {
+                writableMap.putNull(key);
+            } else if (value instanceof Boolean) {
+                writableMap.putBoolean(key, (Boolean) value);
+            } else if (value instanceof Integer) {
+                writableMap.putInt(key, (Integer) value);
+            } else if (value instanceof Number) {
+                putNumber(writableMap, key, (Number) value);
+            } else if (value instanceof String) {
+                writableMap.putString(key, (String) value);
+            } else if (value instanceof WritableMap) {
+                writableMap.putMap(key, (WritableMap) value);
+            } else if (value instanceof WritableArray) {
+                writableMap.putArray(key, (WritableArray) value);
+            } else if (value.getClass().isEnum()) {
+                writableMap.putString(key, value.toString());
+            }
+        }
+
+        private static void pushWritable(WritableArray writableArray, Object value) {
+            if (value == null) {
+                writableArray.pushNull();
+            } else if (value instanceof Boolean) {
+                writableArray.pushBoolean((Boolean) value);
+            } else if (value instanceof Integer) {
+                writableArray.pushInt((Integer) value);
+            } else if (value instanceof Number) {
+                pushNumber(writableArray, (Number) value);
+            } else if (value instanceof String) {
+                writableArray.pushString((String) value);
+            } else if (value instanceof WritableMap) {
+                writableArray.pushMap((WritableMap) value);
+            } else if (value instanceof WritableArray) {
+                writableArray.pushArray((WritableArray) value);
+            } else if (value.getClass().isEnum()) {
+                writableArray.pushString(value.toString());
+            }
+        }
+    }
+
+    // Iteration state of one container: advance() reads the next key, if any, and value.
+    private abstract static class Frame {
+        final boolean isMap;
+        final int expectedSize;
+        final boolean isInPlace;
+        Object target;
+        String keyInParent;
+        int depth;
+        int count = 0;
+        String key;
+        Object value;
+
+        Frame(boolean isMap, int expectedSize, boolean isInPlace) {
+            this.isMap = isMap;
+            this.expectedSize = expectedSize;
+            this.isInPlace = isInPlace;
+        }
+
+        abstract boolean advance();
+
+        // Used by the frames converted in place to replace the current value.
+        void replace(Object value) {
+        }
+
+        // Used by the frames converted in place to remove the current value.
+        void remove() {
+        }
+
+        // Used by the frames converted in place to remove the values not read yet.
+        void removeRemaining() {
+        }
+    }
+
+    // A map parsed on the native side is converted in place.
+    private static final class MapFrame extends Frame {
+        private final Iterator<Map.Entry<String, Object>> iterator;
+        private Map.Entry<String, Object> entry;
+
+        MapFrame(Map<String, Object> source) {
+            super(true, source.size(), true);
+            this.target = source;
+            this.iterator = source.entrySet().iterator();
+        }
+
+        @Override
+        boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            entry = iterator.next();
+            key = entry.getKey();
+            value = entry.getValue();
+            return true;
+        }
+
+        @Override
+        void replace(Object value) {
+            entry.setValue(value);
+        }
+
+        @Override
+        void remove() {
+            iterator.remove();
+        }
+
+        @Override
+        void removeRemaining() {
+            while (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    private static final class ListFrame extends Frame {
+        private final List<Object> source;
+        private final ListIterator<Object> iterator;
+
+        ListFrame(List<Object> source) {
+            super(false, source.size(), true);
+            this.target = source;
+            this.source = source;
+            this.iterator = source.listIterator();
+        }
+
+        @Override
+        boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            value = iterator.next();
+            return true;
+        }
+
+        @Override
+        void replace(Object value) {
+            iterator.set(value);
+        }
+
+        @Override
+        void remove() {
+            iterator.remove();
+        }
+
+        @Override
+        void removeRemaining() {
+            source.subList(iterator.nextIndex(), source.size()).clear();
+        }
+    }
+
+    // The values of a bridge map are only read once the limits have accepted the values before them.
+    private static final class ReadableMapFrame extends Frame {
+        private final ReadableMap source;
+        private final ReadableMapKeySetIterator iterator;
+
+        ReadableMapFrame(ReadableMap source) {
+            super(true, -1, false);
+            this.source = source;
+            this.iterator = source.keySetIterator();
+        }
+
+        @Override
+        boolean advance() {
+            if (!iterator.hasNextKey()) {
+                return false;
+            }
+            key = iterator.nextKey();
+            switch (source.getType(key)) {
+                case Boolean:
+                    value = source.getBoolean(key);
+                    break;
+                case Number:
+                    value = source.getDouble(key);
+                    break;
+                case String:
+                    value = source.getString(key);
+                    break;
+                case Map:
+                    value = source.getMap(key);
+                    break;
+                case Array:
+                    value = source.getArray(key);
+                    break;
+                default:
+                    value = null;
+            }
+            return true;
+        }
+    }
+
+    private static final class ReadableArrayFrame extends Frame {
+        private final ReadableArray source;
+        private int index = 0;
+
+        ReadableArrayFrame(ReadableArray source) {
+            super(false, source.size(), false);
+            this.source = source;
+        }
+
+        @Override
+        boolean advance() {
+            if (index >= expectedSize) {
+                return false;
+            }
+            int i = index++;
+            switch (source.getType(i)) {
+                case Boolean:
+                    value = source.getBoolean(i);
+                    break;
+                case Number:
+                    value = source.getDouble(i);
+                    break;
+                case String:
+                    value = source.getString(i);
+                    break;
+                case Map:
+                    value = source.getMap(i);
+                    break;
+                case Array:
+                    value = source.getArray(i);
+                    break;
+                default:
+                    value = null;
+            }
+            return true;
+        }
+    }
+
+    private static final class JsonObjectFrame extends Frame {
+        private final JSONObject source;
+        private final Iterator<String> iterator;
+        private final SmartechInternTable internTable;
+
+        JsonObjectFrame(JSONObject source, SmartechInternTable internTable) {
+            super(true, source.length(), false);
+            this.source = source;
+            this.iterator = source.keys();
+            this.internTable = internTable;
+        }
+
+        @Override
+        boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            String name = iterator.next();
+            Object item = source.opt(name);
+            key = internTable != null ? internTable.intern(name) : name;
+            value = item == JSONObject.NULL ? null : item;
+            return true;
+        }
+    }
+
+    private static final class JsonArrayFrame extends Frame {
+        private final JSONArray source;
+        private int index = 0;
+
+        JsonArrayFrame(JSONArray source) {
+            super(false, source.length(), false);
+            this.source = source;
+        }
+
+        @Override
+        boolean advance() {
+            if (index >= expectedSize) {
+                return false;
+            }
+            Object item = source.opt(index++);
+            value = item == JSONObject.NULL ? null : item;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.netcore.reactnative;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges successive user profile updates over a time window and hands the SDK only the attributes
+ * which changed since the last profile it received.
+ *
+ * With a window of 0, which is the default, every update is passed through unchanged. In both cases
+ * an attribute only counts as received once the SDK call has run and the sink has reported it through
+ * onSent(). An update dropped before it reached the SDK is merged back into the pending updates and
+ * sent again. The sink is called outside the lock of the batcher.
+ */
+public class SmartechProfileBatcher {
+
+    public interface Sink {
+        // The update must be reported back with its generation to onSent() once the SDK has received it, or to onDropped().
+        void updateUserProfile(HashMap<String, Object> profile, long generation);
+    }
+
+    private static final String THREAD_NAME = "SmartechProfileBatcher";
+
+    private final Sink sink;
+    private final HashMap<String, Object> pendingProfile = new HashMap<>();
+    private final HashMap<String, Object> lastSentProfile = new HashMap<>();
+    private ScheduledExecutorService scheduler = null;
+    private ScheduledFuture<?> scheduledFlush = null;
+    private long windowMillis = 0;
+    private long generation = 0;
+    private boolean isShutdown = false;
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    public SmartechProfileBatcher(Sink sink) {
+        this.sink = sink;
+    }
+
+    // Used to set the time window over which updates are merged, 0 sends every update right away.
+    public void setWindowMillis(long windowMillis) {
+        flush();
+        synchronized (this) {
+            this.windowMillis = Math.max(0, windowMillis);
+        }
+    }
+
+    // Used to queue a profile update, it is merged with the other updates received within the window.
+    public void update(HashMap<String, Object> profile) {
+        long sentGeneration;
+        synchronized (this) {
+            if (windowMillis > 0) {
+                pendingProfile.putAll(profile);
+                scheduleFlush(windowMillis);
+                return;
+            }
+            sentGeneration = generation;
+        }
+        sink.updateUserProfile(profile, sentGeneration);
+    }
+
+    // Used to send the changed attributes of the merged updates right away.
+    public void flush() {
+        HashMap<String, Object> changes;
+        long sentGeneration;
+        synchronized (this) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            if (pendingProfile.isEmpty()) {
+                return;
+            }
+            changes = new HashMap<>(SmartechPayloadConverter.capacityFor(pendingProfile.size()));
+            for (Map.Entry<String, Object> entry : pendingProfile.entrySet()) {
+                String key = entry.getKey();
+                Object value = entry.getValue();
+                if (!lastSentProfile.containsKey(key) || !isEqual(lastSentProfile.get(key), value)) {
+                    changes.put(key, value);
+                }
+            }
+            pendingProfile.clear();
+            sentGeneration = generation;
+        }
+        if (!changes.isEmpty()) {
+            sink.updateUserProfile(changes, sentGeneration);
+        }
+    }
+
+    // Called once the SDK has received an update, its attributes are what the next updates are compared with.
+    public synchronized void onSent(HashMap<String, Object> profile, long generation) {
+        if (generation == this.generation) {
+            lastSentProfile.putAll(profile);
+        }
+    }
+
+    // Called when an update was dropped before the SDK received it, the attributes without a newer value pending are sent again.
+    public synchronized void onDropped(HashMap<String, Object> profile, long generation) {
+        if (generation != this.generation) {
+            return;
+        }
+        for (Map.Entry<String, Object> entry : profile.entrySet()) {
+            if (!pendingProfile.containsKey(entry.getKey())) {
+                pendingProfile.put(entry.getKey(), entry.getValue());
+            }
+        }
+        scheduleFlush(windowMillis);
+    }
+
+    /**
+     * Used when the user changes: the pending updates are sent for the current user and the copy of
+     * the last sent profile is dropped, so the next user gets full profile writes. The updates of the
+     * previous user which are still queued are neither recorded as received nor sent again.
+     */
+    public void reset() {
+        flush();
+        synchronized (this) {
+            lastSentProfile.clear();
+            generation++;
+        }
+    }
+
+    // Used to send the pending updates and stop the timer thread, updates dropped afterwards are not sent again.
+    public void shutdown() {
+        flush();
+        synchronized (this) {
+            isShutdown = true;
+            if (scheduler != null) {
+                scheduler.shutdown();
+                scheduler = null;
+            }
+        }
+    }
+
+    // Called with the batcher locked.
+    private void scheduleFlush(long delayMillis) {
+        if (scheduledFlush == null && !isShutdown) {
+            scheduledFlush = getScheduler().schedule(flushTask, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, THREAD_NAME);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return scheduler;
+    }
+
+    private static boolean isEqual(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -4,15 +4,21 @@ import android.content.Context;
 import android.content.Intent;
 import android.location.Location;
 import android.os.Bundle;
-import android.util.Log;
+import android.os.SystemClock;
+import android.os.Trace;
 
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Callback;
+import com.facebook.react.bridge.LifecycleEventListener;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
-import com.facebook.react.bridge.ReadableNativeMap;
+import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeArray;
 import com.facebook.react.bridge.WritableNativeMap;
 import com.facebook.react.modules.core.DeviceEventManagerModule;
 import com.netcore.android.Smartech;
@@ -24,26 +30,195 @@ import org.jetbrains.annotations.Nullable;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
 import java.lang.ref.WeakReference;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
-public class SmartechReactNativeModule extends ReactContextBaseJavaModule implements SMTNotificationClickListener, InAppCustomHTMLListener {
+public class SmartechReactNativeModule extends ReactContextBaseJavaModule implements SMTNotificationClickListener, InAppCustomHTMLListener, LifecycleEventListener {
 
     private final ReactApplicationContext reactContext;
-    private static final String TAG = SmartechReactNativeModule.class.getSimpleName();
-    private Smartech smartech = null;
+    private volatile Smartech smartech = null;
+    private static final SmartechBridgeMetrics metrics = SmartechBridgeMetrics.getInstance();
+    private static final SmartechInternTable internTable = SmartechInternTable.getInstance();
+    private static final SmartechDiagnostics diagnostics = SmartechDiagnostics.getInstance();
+    private final SmartechDispatcher dispatcher = new SmartechDispatcher();
+    private volatile SmartechEventJournal eventJournal = null;
+    private final SmartechIdentifierCache identifierCache = new SmartechIdentifierCache();
+    private final SmartechIdentityState identityState = new SmartechIdentityState();
+    private final SmartechConsentCache consentCache = new SmartechConsentCache();
+    private final SmartechLocationThrottle locationThrottle = new SmartechLocationThrottle();
+    private final AtomicReference<double[]> pendingLocation = new AtomicReference<>();
+    private final AtomicBoolean isConsentLoadQueued = new AtomicBoolean(false);
+    private final SmartechEventPolicy eventPolicy = new SmartechEventPolicy();
+    private final SmartechEventSchemaRegistry eventSchemas = new SmartechEventSchemaRegistry();
+    private volatile Set<String> criticalEventNames = Collections.emptySet();
+    private final SmartechDeeplinkPayloadCache deeplinkPayloadCache = new SmartechDeeplinkPayloadCache(SmartechDeeplinkPayloadCache.DEFAULT_CAPACITY);
+    private volatile boolean isCustomPayloadParsed = false;
+    private final SmartechProfileBatcher profileBatcher = new SmartechProfileBatcher(new SmartechProfileBatcher.Sink() {
+        @Override
+        public void updateUserProfile(final HashMap<String, Object> profile, final long generation) {
+            dispatcher.dispatch(SmartechDispatcher.LANE_IDENTITY, "sdk.updateUserProfile", new SmartechDispatcher.Call() {
+                @Override
+                public void run() {
+                    try {
+                        smartech.updateUserProfile(profile);
+                        profileBatcher.onSent(profile, generation);
+                    } catch (Exception e) {
+                        diagnostics.error("sdk.updateUserProfile failed", e);
+                    }
+                }
+
+                @Override
+                public void onDropped() {
+                    profileBatcher.onDropped(profile, generation);
+                }
+            });
+        }
+    });
+    private final SmartechEventAggregator eventAggregator = new SmartechEventAggregator(new SmartechEventAggregator.Sink() {
+        @Override
+        public void trackEvent(String eventName, HashMap<String, Object> summary) {
+            dispatchTrackEvent(eventName, summary, 0);
+        }
+
+        @Override
+        public int checkpoint(String eventName, HashMap<String, Object> summary) {
+            return journalEvent(internTable.intern(eventName), summary);
+        }
+
+        @Override
+        public void removeCheckpoint(int journalId) {
+            acknowledgeEvent(journalId);
+        }
+    });
+    private volatile DeviceEventManagerModule.RCTDeviceEventEmitter jsEventEmitter = null;
+    private final SmartechEventBatcher eventBatcher = new SmartechEventBatcher(new SmartechEventBatcher.Sink() {
+        @Override
+        public void emit(String eventName, Object payload) {
+            long startNanos = System.nanoTime();
+            try {
+                if (payload instanceof WritableMap) {
+                    ((WritableMap) payload).putDouble(SmartechDeliveredAtIdentifier, System.currentTimeMillis());
+                }
+                getJsEventEmitter().emit(eventName, payload);
+            } catch (Exception e) {
+                jsEventEmitter = null;
+                diagnostics.error("emit.event failed", e);
+            }
+            metrics.record("emit.event", startNanos);
+        }
+
+        @Override
+        public void emitBatch(ArrayList<SmartechEventBatcher.Event> events) {
+            long startNanos = System.nanoTime();
+            try {
+                long deliveredAt = System.currentTimeMillis();
+                WritableArray batch = new WritableNativeArray();
+                for (SmartechEventBatcher.Event event : events) {
+                    WritableMap entry = new WritableNativeMap();
+                    entry.putString(SmartechEventNameIdentifier, event.eventName);
+                    if (event.payload instanceof WritableMap) {
+                        ((WritableMap) event.payload).putDouble(SmartechDeliveredAtIdentifier, deliveredAt);
+                        entry.putMap(SmartechEventPayloadIdentifier, (WritableMap) event.payload);
+                    } else if (event.payload == null) {
+                        entry.putNull(SmartechEventPayloadIdentifier);
+                    } else {
+                        entry.putString(SmartechEventPayloadIdentifier, String.valueOf(event.payload));
+                    }
+                    batch.pushMap(entry);
+                }
+                getJsEventEmitter().emit(SmartechEventBatch, batch);
+            } catch (Exception e) {
+                jsEventEmitter = null;
+                diagnostics.error("emit.batch failed", e);
+            }
+            metrics.record("emit.batch", startNanos);
+        }
+    }, SmartechEventBatcher.DEFAULT_WINDOW_MILLIS, SmartechEventBatcher.DEFAULT_MAX_BATCH_SIZE);
+    private final SmartechEventReplayBuffer eventReplayBuffer = new SmartechEventReplayBuffer(new SmartechEventReplayBuffer.Emitter() {
+        @Override
+        public void emit(String eventName, Object payload) {
+            eventBatcher.emit(eventName, payload);
+        }
+    }, SmartechEventReplayBuffer.DEFAULT_CAPACITY, SmartechEventReplayBuffer.DEFAULT_HOLD_MILLIS);
+    private final boolean isLazyInitialization;
+    private final long moduleCreatedAtNanos;
+    private final long constructorDurationNanos;
+    private volatile long initStartedAtNanos = 0;
+    private volatile long initFinishedAtNanos = 0;
+    private volatile int jsonMaxDepth = SmartechJsonParser.DEFAULT_MAX_DEPTH;
+    private volatile int jsonMaxLength = SmartechJsonParser.DEFAULT_MAX_LENGTH;
     public static Intent mIntent = null;
     private static final String MODULE_NAME = "SmartechReactNative";
     private static final String SmartechDeeplinkNotification = "SmartechDeeplinkNotification";
+    private static final String SmartechIdentifiersUpdated = "SmartechIdentifiersUpdated";
+    private static final String SmartechConsentUpdated = "SmartechConsentUpdated";
+    private static final String SmartechEventBatch = "SmartechEventBatch";
+    private static final String SmartechIdentifiers = "SmartechIdentifiers";
+    static final String ERROR_SDK = "E_SMARTECH_SDK";
+    static final String ERROR_INVALID_ARGUMENT = "E_INVALID_ARGUMENT";
     private static final String SmartechDeepLinkIdentifier = "deeplink";
     private static final String SmartechCustomPayloadIdentifier = "customPayload";
+    private static final String SmartechReceivedAtIdentifier = "receivedAt";
+    private static final String SmartechDeliveredAtIdentifier = "deliveredAt";
+    private static final String SmartechEventNameIdentifier = "name";
+    private static final String SmartechEventPayloadIdentifier = "payload";
+    private static final String SmartechEventJournalFileName = "smartech_event_journal";
+    private static final String SmartechInitTraceSection = "SmartechReactNative.initSDK";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
 
     public SmartechReactNativeModule(ReactApplicationContext reactContext) {
+        this(reactContext, false);
+    }
+
+    /**
+     * With lazy initialization the SDK is initialized on the dispatcher thread instead of the thread
+     * creating the native modules. Calls made before the initialization completes are queued behind it
+     * on the dispatcher and run once the SDK is ready.
+     */
+    public SmartechReactNativeModule(ReactApplicationContext reactContext, boolean isLazyInitialization) {
         super(reactContext);
+        this.moduleCreatedAtNanos = System.nanoTime();
         this.reactContext = reactContext;
-        initSDK();
+        this.isLazyInitialization = isLazyInitialization;
+        if (isLazyInitialization) {
+            dispatcher.dispatch("sdk.initialize", new Runnable() {
+                @Override
+                public void run() {
+                    openEventJournal();
+                    initSDK();
+                    refreshIdentifiers();
+                    seedIdentityState();
+                    refreshConsent(false);
+                    replayEventJournal();
+                }
+            });
+        } else {
+            initSDK();
+            dispatcher.dispatch("sdk.initialize", new Runnable() {
+                @Override
+                public void run() {
+                    openEventJournal();
+                    refreshIdentifiers();
+                    seedIdentityState();
+                    refreshConsent(false);
+                    replayEventJournal();
+                }
+            });
+        }
+        reactContext.addLifecycleEventListener(this);
+        this.constructorDurationNanos = System.nanoTime() - moduleCreatedAtNanos;
     }
 
     @Override
@@ -56,13 +231,135 @@ public class SmartechReactNativeModule extends ReactContextBaseJavaModule implem
     public Map<String, Object> getConstants() {
         final Map<String, Object> constants = new HashMap<>();
         constants.put(SmartechDeeplinkNotification, SmartechDeeplinkNotification);
+        constants.put(SmartechIdentifiersUpdated, SmartechIdentifiersUpdated);
+        constants.put(SmartechConsentUpdated, SmartechConsentUpdated);
+        constants.put(SmartechEventBatch, SmartechEventBatch);
+        SmartechIdentifierCache.Snapshot identifiers = identifierCache.get();
+        if (identifiers != null) {
+            constants.put(SmartechIdentifiers, identifiers.toHashMap());
+        }
         return constants;
     }
 
+    @Override
+    public void onCatalystInstanceDestroy() {
+        super.onCatalystInstanceDestroy();
+        reactContext.removeLifecycleEventListener(this);
+        jsEventEmitter = null;
+        metrics.setReportInterval(0, null);
+        profileBatcher.shutdown();
+        eventAggregator.shutdown();
+        eventReplayBuffer.shutdown();
+        // The journal is shared with the next module instance, only the acknowledgements of the queued calls are written out.
+        dispatcher.dispatch(new Runnable() {
+            @Override
+            public void run() {
+                if (eventJournal != null) {
+                    eventJournal.force();
+                }
+            }
+        });
+        dispatcher.shutdown();
+    }
+
+    @Override
+    public void onHostResume() {
+    }
+
+    // Pending profile updates and aggregated events are sent as soon as the app goes to the background.
+    @Override
+    public void onHostPause() {
+        profileBatcher.flush();
+        eventAggregator.flush();
+    }
+
+    @Override
+    public void onHostDestroy() {
+        profileBatcher.flush();
+        eventAggregator.flush();
+    }
+
+    // Used to get the dispatcher which runs all the calls into the Smartech SDK in order.
+    SmartechDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
     private void initSDK() {
         if (smartech == null) {
-            smartech = Smartech.getInstance(new WeakReference<Context>(this.reactContext));
-            smartech.setSMTNotificationClickListener(this);
+            initStartedAtNanos = System.nanoTime();
+            Trace.beginSection(SmartechInitTraceSection);
+            try {
+                Smartech instance = Smartech.getInstance(new WeakReference<Context>(this.reactContext));
+                instance.setSMTNotificationClickListener(this);
+                smartech = instance;
+            } finally {
+                Trace.endSection();
+                initFinishedAtNanos = System.nanoTime();
+            }
+        }
+    }
+
+    // Used by the synchronous getters, which run on the JS thread: returns null right away while the SDK is not initialized.
+    private Smartech getInitializedSmartech() {
+        return smartech;
+    }
+
+    /**
+     * Used to open the journal in which every tracked event is recorded until the SDK has received it.
+     * This runs first on the dispatcher thread, off the module creation path. The journal is opened once per
+     * process, so after a JS reload it holds no recovered records and the records still in flight are left to the
+     * previous instance. Events tracked before the journal is open are not journaled.
+     */
+    private void openEventJournal() {
+        try {
+            File journalFile = new File(this.reactContext.getFilesDir(), SmartechEventJournalFileName);
+            eventJournal = SmartechEventJournal.getInstance(journalFile);
+        } catch (Exception e) {
+            diagnostics.error("openEventJournal failed", e);
+            eventJournal = null;
+        }
+    }
+
+    // Used to send the events which were journaled but never reached the SDK in the previous session.
+    // This runs on the dispatcher thread, ahead of the calls made by the new session.
+    private void replayEventJournal() {
+        if (eventJournal == null) {
+            return;
+        }
+        for (SmartechEventJournal.Record record : eventJournal.takeRecoveredRecords()) {
+            try {
+                JSONObject event = new JSONObject(new String(record.payload, UTF_8));
+                JSONObject payload = event.optJSONObject(SmartechEventPayloadIdentifier);
+                HashMap<String, Object> hmapPayload = payload != null ? SmartechHelper.convertJsonToHashMap(payload) : new HashMap<String, Object>();
+                smartech.trackEvent(event.getString(SmartechEventNameIdentifier), hmapPayload);
+            } catch (Exception e) {
+                diagnostics.error("replayEventJournal failed", e);
+            } finally {
+                eventJournal.acknowledge(record.id);
+            }
+        }
+    }
+
+    // Used to record an event in the journal before it is handed to the SDK.
+    private int journalEvent(String eventName, HashMap<String, Object> payload) {
+        if (eventJournal == null) {
+            return -1;
+        }
+        try {
+            JSONObject event = new JSONObject();
+            event.put(SmartechEventNameIdentifier, eventName);
+            event.put(SmartechEventPayloadIdentifier, new JSONObject(payload));
+            return eventJournal.append(event.toString().getBytes(UTF_8));
+        } catch (Exception e) {
+            diagnostics.error("journalEvent failed", e);
+            return -1;
+        }
+    }
+
+    // Used to mark a journaled event as received by the SDK.
+    private void acknowledgeEvent(int journalId) {
+        if (eventJournal != null && journalId >= 0) {
+            eventJournal.acknowledge(journalId);
         }
     }
 
@@ -73,40 +370,81 @@ public class SmartechReactNativeModule extends ReactContextBaseJavaModule implem
 
     @ReactMethod
     public void getDeepLinkUrl(Callback callback) {
+        long startNanos = System.nanoTime();
         ReadableMap payload = processDeeplinkIntent(mIntent);
         callbackHandler(callback, payload);
+        metrics.record("bridge.getDeepLinkUrl", startNanos);
     }
 
 
-    // This method will be used to handle CustomHTML data
-    @Override
-    public void customHTMLCallback(@Nullable HashMap<String, Object> hashMap) {
-        if (hashMap != null) {
-            try {
-                JSONObject smtCustomPayload = new JSONObject(hashMap);
-                ReadableMap objPayload = SmartechHelper.jsonToWritableMap(smtCustomPayload);
-                this.reactContext.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class).emit(SmartechDeeplinkNotification, objPayload);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
+    /**
+     * This method is called from JS when a listener subscribes to an event of this module.
+     * The events of that name received before its first listener are delivered at this point. Without such a call,
+     * as with a listener added through DeviceEventEmitter, they are delivered once the hold window of the replay buffer has elapsed.
+     */
+    @ReactMethod
+    public void addListener(String eventName) {
+        long startNanos = System.nanoTime();
+        eventReplayBuffer.onListenerAttached(eventName);
+        metrics.record("bridge.addListener", startNanos);
+    }
 
+    // This method is required by NativeEventEmitter, events stay delivered once a listener has subscribed.
+    @ReactMethod
+    public void removeListeners(double count) {
     }
 
-    // This method will be handle notification click.
+    /**
+     * This method will be used to handle CustomHTML data.
+     * It is called on the main thread, the payload is converted on the dispatcher thread.
+     */
     @Override
-    public void onNotificationClick(@NotNull Intent intent) {
-        try {
-            ReadableMap deeplinkPayload = processDeeplinkIntent(intent);
-            System.out.println("Deeplink Pyload : "+deeplinkPayload);
-            this.reactContext.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class).emit(SmartechDeeplinkNotification, deeplinkPayload);
-        } catch (Exception e) {
-            e.printStackTrace();
+    public void customHTMLCallback(@Nullable final HashMap<String, Object> hashMap) {
+        if (hashMap == null) {
+            return;
         }
+        final long receivedAt = System.currentTimeMillis();
+        dispatcher.dispatch("sdk.customHTMLCallback", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    JSONObject smtCustomPayload = new JSONObject(hashMap);
+                    WritableMap objPayload = SmartechHelper.jsonToWritableMap(smtCustomPayload);
+                    if (objPayload == null) {
+                        objPayload = new WritableNativeMap();
+                    }
+                    objPayload.putDouble(SmartechReceivedAtIdentifier, receivedAt);
+                    eventReplayBuffer.emit(SmartechDeeplinkNotification, objPayload);
+                } catch (Exception e) {
+                    diagnostics.error("customHTMLCallback failed", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * This method will be handle notification click.
+     * It is called on the main thread, the intent extras are read and parsed on the dispatcher thread.
+     */
+    @Override
+    public void onNotificationClick(@NotNull final Intent intent) {
+        final long receivedAt = System.currentTimeMillis();
+        dispatcher.dispatch("sdk.onNotificationClick", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    WritableMap deeplinkPayload = processDeeplinkIntent(intent);
+                    deeplinkPayload.putDouble(SmartechReceivedAtIdentifier, receivedAt);
+                    eventReplayBuffer.emit(SmartechDeeplinkNotification, deeplinkPayload);
+                } catch (Exception e) {
+                    diagnostics.error("onNotificationClick failed", e);
+                }
+            }
+        });
     }
 
     // Used to process intent.
-    private ReadableMap processDeeplinkIntent(Intent intent) {
+    private WritableMap processDeeplinkIntent(Intent intent) {
         WritableMap smtData = new WritableNativeMap();
         if (intent != null) {
             Bundle extras = intent.getExtras();
@@ -116,15 +454,20 @@ public class SmartechReactNativeModule extends ReactContextBaseJavaModule implem
                 String customPayload = "";
                 if (extras.containsKey("clickDeepLinkPath")) {
                     deeplinkPath = extras.getString("clickDeepLinkPath");
-                    System.out.println("Deeplink Pyload : "+deeplinkPath);
+                    diagnostics.debug("Deeplink received", deeplinkPath);
                     if (extras.containsKey("clickCustomPayload")) {
                         customPayload = extras.getString("clickCustomPayload");
                     }
                     try {
                         smtData.putString(SmartechDeepLinkIdentifier, deeplinkPath);
-                        smtData.putString(SmartechCustomPayloadIdentifier, customPayload);
+                        HashMap<String, Object> parsedPayload = isCustomPayloadParsed ? deeplinkPayloadCache.get(customPayload, jsonMaxDepth, jsonMaxLength) : null;
+                        if (parsedPayload != null) {
+                            smtData.putMap(SmartechCustomPayloadIdentifier, Arguments.makeNativeMap(parsedPayload));
+                        } else {
+                            smtData.putString(SmartechCustomPayloadIdentifier, customPayload);
+                        }
                     } catch (Exception e) {
-                        e.printStackTrace();
+                        diagnostics.error("processDeeplinkIntent failed", e);
                     }
                 }
             }
@@ -135,289 +478,1341 @@ public class SmartechReactNativeModule extends ReactContextBaseJavaModule implem
     // This method is used to track app install event.
     @ReactMethod
     public void trackAppInstall() {
-        try {
-            smartech.trackAppInstall();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        long startNanos = System.nanoTime();
+        dispatcher.dispatch(SmartechDispatcher.LANE_CRITICAL, "sdk.trackAppInstall", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    smartech.trackAppInstall();
+                } catch (Exception e) {
+                    diagnostics.error("sdk.trackAppInstall failed", e);
+                }
+            }
+        });
+        metrics.record("bridge.trackAppInstall", startNanos);
     }
 
     // This method is used to track app update event.
     @ReactMethod
     public void trackAppUpdate() {
-        try {
-            smartech.trackAppUpdate();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        long startNanos = System.nanoTime();
+        dispatcher.dispatch(SmartechDispatcher.LANE_CRITICAL, "sdk.trackAppUpdate", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    smartech.trackAppUpdate();
+                } catch (Exception e) {
+                    diagnostics.error("sdk.trackAppUpdate failed", e);
+                }
+            }
+        });
+        metrics.record("bridge.trackAppUpdate", startNanos);
     }
 
     // This method is used to track app install or update event by Smartech SDK itself.
     @ReactMethod
     public void trackAppInstallUpdateBySmartech() {
+        long startNanos = System.nanoTime();
+        dispatcher.dispatch(SmartechDispatcher.LANE_CRITICAL, "sdk.trackAppInstallUpdateBySmartech", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    smartech.trackAppInstallUpdateBySmartech();
+                } catch (Exception e) {
+                    diagnostics.error("sdk.trackAppInstallUpdateBySmartech failed", e);
+                }
+            }
+        });
+        metrics.record("bridge.trackAppInstallUpdateBySmartech", startNanos);
+    }
+
+    /**
+     * This method is used to track custom event done by the user.
+     * Events dropped by the event policy are discarded before their payload is converted,
+     * and aggregated events only have their aggregated fields read.
+     */
+    @ReactMethod
+    public void trackEvent(String eventName, ReadableMap payload) {
+        long startNanos = System.nanoTime();
         try {
-            smartech.trackAppInstallUpdateBySmartech();
+            if (!eventAggregator.add(eventName, payload)) {
+                long droppedCount = eventPolicy.acquire(eventName, startNanos);
+                if (droppedCount != SmartechEventPolicy.DROPPED) {
+                    HashMap<String, Object> hmapPayload = SmartechHelper.convertReadableMapToHashMap(payload);
+                    dispatchTrackEvent(eventName, hmapPayload, droppedCount);
+                }
+            }
         } catch (Exception e) {
-            e.printStackTrace();
+            diagnostics.error("bridge.trackEvent failed", e);
         }
+        metrics.record("bridge.trackEvent", startNanos);
     }
 
-    // This method is used to track custom event done by the user.
+    /**
+     * This method is used to track custom event whose payload is already a JSON string.
+     * The string is parsed in a single pass straight into the map handed to the SDK, which is then bounded by the
+     * same payload limits as the other events.
+     */
     @ReactMethod
-    public void trackEvent(String eventName, ReadableMap payload) {
+    public void trackEventJson(String eventName, String payloadJson) {
+        long startNanos = System.nanoTime();
         try {
-            HashMap<String, Object> hmapPayload = SmartechHelper.convertReadableMapToHashMap(payload);
-            smartech.trackEvent(eventName, hmapPayload);
+            boolean isAggregated = eventAggregator.isAggregated(eventName);
+            long droppedCount = isAggregated ? 0 : eventPolicy.acquire(eventName, startNanos);
+            if (droppedCount != SmartechEventPolicy.DROPPED) {
+                long parseStartNanos = System.nanoTime();
+                HashMap<String, Object> hmapPayload = SmartechPayloadConverter.applyLimits(SmartechJsonParser.parseObject(payloadJson, jsonMaxDepth, jsonMaxLength));
+                metrics.record("convert.parseJson", parseStartNanos);
+                if (!isAggregated || !eventAggregator.add(eventName, hmapPayload)) {
+                    dispatchTrackEvent(eventName, hmapPayload, droppedCount);
+                }
+            }
         } catch (Exception e) {
-            e.printStackTrace();
+            diagnostics.error("bridge.trackEventJson failed", e);
         }
+        metrics.record("bridge.trackEventJson", startNanos);
     }
 
     /**
-     * This method is used to send login event to Smartech backend.
-     * This method should be called only when the app gets the user's identity
-     * or when the user does a login activity in the application.
+     * This method is used to register the schema of an event: its name and the ordered list of its payload keys,
+     * each given as a string or as {key, type} with a type of "any", "string", "number", "boolean", "map" or "array".
+     * The callback receives the id of the schema to pass to trackEventCompact, or -1 if the schema is not valid.
      */
     @ReactMethod
-    public void login(String identity) {
+    public void registerEventSchema(String eventName, ReadableArray fields, Callback callback) {
+        long startNanos = System.nanoTime();
+        int schemaId = SmartechEventSchemaRegistry.INVALID_SCHEMA_ID;
         try {
-            smartech.setUserIdentity(identity);
-            smartech.login(identity);
+            int fieldCount = fields != null ? fields.size() : 0;
+            String[] keys = new String[fieldCount];
+            int[] types = new int[fieldCount];
+            for (int i = 0; i < fieldCount; i++) {
+                if (fields.getType(i) == ReadableType.String) {
+                    keys[i] = fields.getString(i);
+                    types[i] = SmartechEventSchemaRegistry.TYPE_ANY;
+                } else if (fields.getType(i) == ReadableType.Map) {
+                    ReadableMap field = fields.getMap(i);
+                    keys[i] = field.hasKey("key") && field.getType("key") == ReadableType.String ? field.getString("key") : null;
+                    types[i] = field.hasKey("type") && field.getType("type") == ReadableType.String
+                            ? SmartechEventSchemaRegistry.typeOf(field.getString("type")) : SmartechEventSchemaRegistry.TYPE_ANY;
+                } else {
+                    types[i] = -1;
+                }
+            }
+            schemaId = eventSchemas.register(eventName, keys, types);
+            if (schemaId == SmartechEventSchemaRegistry.INVALID_SCHEMA_ID) {
+                diagnostics.warn("Ignoring invalid event schema", eventName);
+            }
         } catch (Exception e) {
-            e.printStackTrace();
+            diagnostics.error("bridge.registerEventSchema failed", e);
         }
+        callbackHandler(callback, schemaId);
+        metrics.record("bridge.registerEventSchema", startNanos);
     }
 
     /**
-     * This method would logout the user and clear identity on Smartech backend.
-     * This method should be called only when the user log out of the application.
+     * This method is used to track a custom event of a registered schema, with the payload values given in the order
+     * of the schema keys. The payload map is rebuilt natively from the keys of the schema.
      */
     @ReactMethod
-    public void logoutAndClearUserIdentity(Boolean isLogout) {
+    public void trackEventCompact(int schemaId, ReadableArray values) {
+        long startNanos = System.nanoTime();
         try {
-            smartech.logoutAndClearUserIdentity(isLogout);
+            SmartechEventSchemaRegistry.Schema schema = eventSchemas.get(schemaId);
+            if (schema == null) {
+                diagnostics.warn("Ignoring event of unknown schema", schemaId);
+            } else {
+                boolean isAggregated = eventAggregator.isAggregated(schema.eventName);
+                long droppedCount = isAggregated ? 0 : eventPolicy.acquire(schema.eventName, startNanos);
+                if (droppedCount != SmartechEventPolicy.DROPPED) {
+                    long convertStartNanos = System.nanoTime();
+                    HashMap<String, Object> hmapPayload = eventSchemas.toHashMap(schema, values);
+                    metrics.record("convert.compactToHashMap", convertStartNanos);
+                    if (!isAggregated || !eventAggregator.add(schema.eventName, hmapPayload)) {
+                        dispatchTrackEvent(schema.eventName, hmapPayload, droppedCount);
+                    }
+                }
+            }
         } catch (Exception e) {
-            e.printStackTrace();
+            diagnostics.error("bridge.trackEventCompact failed", e);
         }
+        metrics.record("bridge.trackEventCompact", startNanos);
     }
 
-    // This method would set the user identity locally and with all subsequent events this identity will be send.
+    /**
+     * This method is used to rate limit and sample custom events by name. Each key of the map is an event name
+     * mapped to {maxPerSecond, burst, sampleRate}: up to maxPerSecond events per second are tracked, with bursts of
+     * up to burst events (defaults to maxPerSecond), and the sampleRate fraction (0 to 1, defaults to 0) of the events
+     * over that rate. The next tracked event carries the number of events dropped before it as droppedEventCount.
+     * The given rules replace the previous ones, events without a rule are always tracked.
+     */
+    @ReactMethod
+    public void setEventPolicies(ReadableMap policies) {
+        long startNanos = System.nanoTime();
+        HashMap<String, SmartechEventPolicy.Rule> rules = new HashMap<>();
+        if (policies != null) {
+            for (Map.Entry<String, Object> entry : policies.toHashMap().entrySet()) {
+                if (!(entry.getValue() instanceof Map)) {
+                    continue;
+                }
+                Map<?, ?> policy = (Map<?, ?>) entry.getValue();
+                double maxPerSecond = getDouble(policy, "maxPerSecond", 0);
+                if (maxPerSecond <= 0) {
+                    diagnostics.warn("Ignoring event policy, maxPerSecond must be positive", entry.getKey());
+                    continue;
+                }
+                int burst = (int) getDouble(policy, "burst", Math.max(1, maxPerSecond));
+                double sampleRate = getDouble(policy, "sampleRate", 0);
+                rules.put(entry.getKey(), new SmartechEventPolicy.Rule(maxPerSecond, burst, sampleRate));
+            }
+        }
+        eventPolicy.setRules(rules);
+        metrics.record("bridge.setEventPolicies", startNanos);
+    }
+
+    // This method is used to get the accepted, sampled and dropped counts of each event policy.
+    @ReactMethod
+    public void getEventPolicyStats(Callback callback) {
+        long startNanos = System.nanoTime();
+        callbackHandler(callback, Arguments.makeNativeMap(eventPolicy.getStats()));
+        metrics.record("bridge.getEventPolicyStats", startNanos);
+    }
+
+    /**
+     * This method is used to aggregate high-frequency custom events natively. Each key of the map is an event name
+     * mapped to {windowMillis, fields}: the events of that name are counted over windows of windowMillis (defaults
+     * to 60000) and the count, sum, minimum and maximum of each numeric payload field listed in fields are kept.
+     * At the end of a window, or when the app goes to the background, a single event of that name is tracked with
+     * aggregatedEventCount, windowStartedAt, windowEndedAt and <field>_count, <field>_sum, <field>_min and <field>_max.
+     * Aggregated events bypass the event policies. The given rules replace the previous ones, whose open windows are
+     * tracked first.
+     */
+    @ReactMethod
+    public void setEventAggregations(ReadableMap aggregations) {
+        long startNanos = System.nanoTime();
+        HashMap<String, SmartechEventAggregator.Rule> rules = new HashMap<>();
+        if (aggregations != null) {
+            for (Map.Entry<String, Object> entry : aggregations.toHashMap().entrySet()) {
+                if (!(entry.getValue() instanceof Map)) {
+                    continue;
+                }
+                Map<?, ?> aggregation = (Map<?, ?>) entry.getValue();
+                double windowMillis = getDouble(aggregation, "windowMillis", SmartechEventAggregator.DEFAULT_WINDOW_MILLIS);
+                if (windowMillis <= 0) {
+                    diagnostics.warn("Ignoring event aggregation, windowMillis must be positive", entry.getKey());
+                    continue;
+                }
+                List<String> fields = new ArrayList<>();
+                Object fieldValues = aggregation.get("fields");
+                if (fieldValues instanceof List) {
+                    for (Object field : (List<?>) fieldValues) {
+                        if (field instanceof String && !fields.contains(field)) {
+                            fields.add(internTable.intern((String) field));
+                        }
+                    }
+                }
+                rules.put(internTable.intern(entry.getKey()), new SmartechEventAggregator.Rule((long) windowMillis, fields.toArray(new String[0])));
+            }
+        }
+        eventAggregator.setRules(rules);
+        metrics.record("bridge.setEventAggregations", startNanos);
+    }
+
+    // This method is used to get the aggregated event and summary counts of each event aggregation.
+    @ReactMethod
+    public void getEventAggregationStats(Callback callback) {
+        long startNanos = System.nanoTime();
+        callbackHandler(callback, Arguments.makeNativeMap(eventAggregator.getStats()));
+        metrics.record("bridge.getEventAggregationStats", startNanos);
+    }
+
+    // Used to read an optional number of a map read from the bridge.
+    private static double getDouble(Map<?, ?> map, String key, double fallback) {
+        Object value = map.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : fallback;
+    }
+
+    // This method is used to set the maximum nesting depth and length in characters accepted by trackEventJson.
+    @ReactMethod
+    public void setJsonPayloadLimits(int maxDepth, int maxLength) {
+        long startNanos = System.nanoTime();
+        if (maxDepth > 0) {
+            jsonMaxDepth = maxDepth;
+        }
+        if (maxLength > 0) {
+            jsonMaxLength = maxLength;
+        }
+        metrics.record("bridge.setJsonPayloadLimits", startNanos);
+    }
+
+    /**
+     * This method is used to set the limits of the maps and arrays converted for the SDK, JSON payloads included: the
+     * nesting depth, the number of values and the UTF-8 bytes of the keys and strings. A value of 0 keeps the current limit.
+     * With the "reject" policy, the default, a payload over a limit is dropped, with "truncate" it is cut down to the limits.
+     */
+    @ReactMethod
+    public void setPayloadLimits(int maxDepth, int maxElements, int maxStringBytes, String overflowPolicy) {
+        long startNanos = System.nanoTime();
+        SmartechPayloadConverter.Limits current = SmartechPayloadConverter.getLimits();
+        boolean isTruncating = current.isTruncating;
+        if ("truncate".equals(overflowPolicy)) {
+            isTruncating = true;
+        } else if ("reject".equals(overflowPolicy)) {
+            isTruncating = false;
+        } else if (overflowPolicy != null) {
+            diagnostics.warn("Ignoring unknown payload overflow policy", overflowPolicy);
+        }
+        SmartechPayloadConverter.setLimits(new SmartechPayloadConverter.Limits(
+                maxDepth > 0 ? maxDepth : current.maxDepth,
+                maxElements > 0 ? maxElements : current.maxElements,
+                maxStringBytes > 0 ? maxStringBytes : current.maxStringBytes,
+                isTruncating));
+        metrics.record("bridge.setPayloadLimits", startNanos);
+    }
+
+    /**
+     * This method is used to deliver the deeplink customPayload as a parsed object instead of the raw JSON string.
+     * Payloads are parsed once on the native side and cached, a payload which is not a JSON object stays a string.
+     */
     @ReactMethod
-    public void setUserIdentity(String identity, Callback callback) {
+    public void setDeeplinkPayloadParsing(boolean isEnabled) {
+        long startNanos = System.nanoTime();
+        isCustomPayloadParsed = isEnabled;
+        metrics.record("bridge.setDeeplinkPayloadParsing", startNanos);
+    }
+
+    // Used to journal a converted event and queue it for the SDK, along with the number of events of its name dropped before it.
+    private void dispatchTrackEvent(String name, final HashMap<String, Object> hmapPayload, long droppedCount) {
+        if (droppedCount > 0) {
+            hmapPayload.put(SmartechEventPolicy.DROPPED_COUNT_ATTRIBUTE, droppedCount);
+        }
+        String eventName = internTable.intern(name);
+        dispatchJournaledEvent(eventName, hmapPayload, journalEvent(eventName, hmapPayload));
+    }
+
+    // Used to queue a journaled event in the critical or the bulk lane. An event dropped by the lane is removed from the journal.
+    private void dispatchJournaledEvent(final String eventName, final HashMap<String, Object> hmapPayload, final int journalId) {
+        dispatcher.dispatch(getEventLane(eventName), "sdk.trackEvent", new SmartechDispatcher.Call() {
+            @Override
+            public void run() {
+                try {
+                    smartech.trackEvent(eventName, hmapPayload);
+                } catch (Exception e) {
+                    diagnostics.error("sdk.trackEvent failed", e);
+                } finally {
+                    acknowledgeEvent(journalId);
+                }
+            }
+
+            @Override
+            public void onDropped() {
+                acknowledgeEvent(journalId);
+            }
+        });
+    }
+
+    // Used to get the dispatcher lane of a custom event.
+    private int getEventLane(String eventName) {
+        return criticalEventNames.contains(eventName) ? SmartechDispatcher.LANE_CRITICAL : SmartechDispatcher.LANE_BULK;
+    }
+
+    /**
+     * This method is used to track a batch of custom events in a single bridge call.
+     * Each entry of the array is a map of the form {name: String, payload: Map}.
+     * The events are read from the bridge one by one and sent to the SDK in order.
+     */
+    @ReactMethod
+    public void trackEvents(ReadableArray events) {
+        long startNanos = System.nanoTime();
         try {
-            if (identity != null && identity.length() > 0) {
-                smartech.setUserIdentity(identity);
-                callbackHandler(callback, "Identity is set successfully.");
+            if (events == null) {
+                return;
+            }
+
+            int eventCount = events.size();
+            final List<String> eventNames = new ArrayList<>(eventCount);
+            final List<HashMap<String, Object>> payloads = new ArrayList<>(eventCount);
+            final int[] journalIds = new int[eventCount];
+            for (int index = 0; index < eventCount; index++) {
+                if (events.getType(index) != ReadableType.Map) {
+                    continue;
+                }
+                ReadableMap event = events.getMap(index);
+                if (!event.hasKey(SmartechEventNameIdentifier) || event.getType(SmartechEventNameIdentifier) != ReadableType.String) {
+                    continue;
+                }
+                String eventName = event.getString(SmartechEventNameIdentifier);
+                // An event which is no longer aggregated, after the rules changed or the aggregator was shut down, is tracked as is.
+                if (eventAggregator.isAggregated(eventName)) {
+                    ReadableMap payload = event.hasKey(SmartechEventPayloadIdentifier) && event.getType(SmartechEventPayloadIdentifier) == ReadableType.Map
+                            ? event.getMap(SmartechEventPayloadIdentifier) : null;
+                    if (eventAggregator.add(eventName, payload)) {
+                        continue;
+                    }
+                }
+                long droppedCount = eventPolicy.acquire(eventName, startNanos);
+                if (droppedCount == SmartechEventPolicy.DROPPED) {
+                    continue;
+                }
+                // A payload over the converter limits only drops its own event.
+                HashMap<String, Object> hmapPayload;
+                try {
+                    boolean hasPayload = event.hasKey(SmartechEventPayloadIdentifier) && event.getType(SmartechEventPayloadIdentifier) == ReadableType.Map;
+                    hmapPayload = hasPayload ? SmartechHelper.convertReadableMapToHashMap(event.getMap(SmartechEventPayloadIdentifier)) : new HashMap<String, Object>();
+                } catch (Exception e) {
+                    diagnostics.error("bridge.trackEvents failed", e);
+                    continue;
+                }
+                if (droppedCount > 0) {
+                    hmapPayload.put(SmartechEventPolicy.DROPPED_COUNT_ATTRIBUTE, droppedCount);
+                }
+                String canonicalName = internTable.intern(eventName);
+                int journalId = journalEvent(canonicalName, hmapPayload);
+                // Critical events are queued on their own, ahead of the bulk events of the batch.
+                if (getEventLane(canonicalName) == SmartechDispatcher.LANE_CRITICAL) {
+                    dispatchJournaledEvent(canonicalName, hmapPayload, journalId);
+                    continue;
+                }
+                journalIds[eventNames.size()] = journalId;
+                eventNames.add(canonicalName);
+                payloads.add(hmapPayload);
+            }
+            if (eventNames.isEmpty()) {
+                return;
+            }
+
+            dispatcher.dispatch(SmartechDispatcher.LANE_BULK, "sdk.trackEvents", new SmartechDispatcher.Call() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < eventNames.size(); i++) {
+                        try {
+                            smartech.trackEvent(eventNames.get(i), payloads.get(i));
+                        } catch (Exception e) {
+                            diagnostics.error("sdk.trackEvents failed", e);
+                        } finally {
+                            acknowledgeEvent(journalIds[i]);
+                        }
+                    }
+                }
+
+                @Override
+                public void onDropped() {
+                    for (int i = 0; i < eventNames.size(); i++) {
+                        acknowledgeEvent(journalIds[i]);
+                    }
+                }
+            });
+        } finally {
+            metrics.record("bridge.trackEvents", startNanos);
+        }
+    }
+
+    /**
+     * This method is used to send login event to Smartech backend.
+     * This method should be called only when the app gets the user's identity
+     * or when the user does a login activity in the application.
+     * A login with the identity already logged in is not sent again.
+     */
+    @ReactMethod
+    public void login(final String identity) {
+        long startNanos = System.nanoTime();
+        final int calls = identityState.login(identity);
+        if (calls != SmartechIdentityState.CALL_NONE) {
+            // The pending profile updates are sent ahead of the login, for the user they were made for.
+            if ((calls & SmartechIdentityState.CALL_SET_USER_IDENTITY) != 0) {
+                profileBatcher.reset();
             } else {
-                callbackHandler(callback, "Expected one non-empty string argument.");
+                profileBatcher.flush();
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            callbackHandler(callback, "Exception: " + e.getMessage());
+            dispatcher.dispatch("sdk.login", new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if ((calls & SmartechIdentityState.CALL_SET_USER_IDENTITY) != 0) {
+                            smartech.setUserIdentity(identity);
+                        }
+                        smartech.login(identity);
+                    } catch (Exception e) {
+                        identityState.invalidate();
+                        diagnostics.error("sdk.login failed", e);
+                    }
+                }
+            });
         }
+        metrics.record("bridge.login", startNanos);
+    }
+
+    /**
+     * This method would logout the user and clear identity on Smartech backend.
+     * This method should be called only when the user log out of the application.
+     */
+    @ReactMethod
+    public void logoutAndClearUserIdentity(final Boolean isLogout) {
+        long startNanos = System.nanoTime();
+        identityState.logout();
+        profileBatcher.reset();
+        dispatcher.dispatch("sdk.logoutAndClearUserIdentity", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    smartech.logoutAndClearUserIdentity(isLogout);
+                } catch (Exception e) {
+                    identityState.invalidate();
+                    diagnostics.error("sdk.logoutAndClearUserIdentity failed", e);
+                }
+            }
+        });
+        metrics.record("bridge.logoutAndClearUserIdentity", startNanos);
+    }
+
+    // This method would set the user identity locally and with all subsequent events this identity will be send.
+    @ReactMethod
+    public void setUserIdentity(final String identity, final Callback callback) {
+        long startNanos = System.nanoTime();
+        if (identity == null || identity.length() == 0) {
+            callbackError(callback, ERROR_INVALID_ARGUMENT, "Expected one non-empty string argument.");
+        } else if (!identityState.setUserIdentity(identity)) {
+            callbackHandler(callback, "Identity is set successfully.");
+        } else {
+            profileBatcher.reset();
+            dispatcher.dispatch("sdk.setUserIdentity", new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        smartech.setUserIdentity(identity);
+                        callbackHandler(callback, "Identity is set successfully.");
+                    } catch (Exception e) {
+                        identityState.invalidate();
+                        diagnostics.error("sdk.setUserIdentity failed", e);
+                        callbackError(callback, ERROR_SDK, "Exception: " + e.getMessage());
+                    }
+                }
+            });
+        }
+        metrics.record("bridge.setUserIdentity", startNanos);
     }
 
     // This method would get the user identity that is stored in the SDK.
     @ReactMethod
-    private void getUserIdentity(Callback callback) {
+    public void getUserIdentity(final Callback callback) {
+        long startNanos = System.nanoTime();
+        dispatcher.dispatch("sdk.getUserIdentity", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    String userIdentity = smartech.getUserIdentity();
+                    callbackHandler(callback, userIdentity);
+                } catch (Exception e) {
+                    diagnostics.error("sdk.getUserIdentity failed", e);
+                    callbackError(callback, ERROR_SDK, "Exception: " + e.getMessage());
+                }
+            }
+        });
+        metrics.record("bridge.getUserIdentity", startNanos);
+    }
+
+    // This method returns the user identity that is stored in the SDK synchronously, null while the SDK is not initialized.
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public String getUserIdentitySync() {
+        long startNanos = System.nanoTime();
         try {
-            String userIdentity = smartech.getUserIdentity();
-            callbackHandler(callback, userIdentity);
+            Smartech instance = getInitializedSmartech();
+            return instance != null ? instance.getUserIdentity() : null;
         } catch (Exception e) {
-            e.printStackTrace();
-            callbackHandler(callback, "Exception: " + e.getMessage());
+            diagnostics.error("bridge.getUserIdentitySync failed", e);
+            return null;
+        } finally {
+            metrics.record("bridge.getUserIdentitySync", startNanos);
         }
     }
 
     // This method would clear the identity that is stored in the SDK.
     @ReactMethod
     public void clearUserIdentity() {
-        try {
-            smartech.clearUserIdentity();
-        } catch (Exception e) {
-            e.printStackTrace();
+        long startNanos = System.nanoTime();
+        if (identityState.clearUserIdentity()) {
+            profileBatcher.reset();
+            dispatcher.dispatch("sdk.clearUserIdentity", new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        smartech.clearUserIdentity();
+                    } catch (Exception e) {
+                        identityState.invalidate();
+                        diagnostics.error("sdk.clearUserIdentity failed", e);
+                    }
+                }
+            });
         }
+        metrics.record("bridge.clearUserIdentity", startNanos);
+    }
+
+    /**
+     * This method is used to get the identity state kept by the bridge ("unknown", "anonymous", "identified" or "loggedIn")
+     * and how many identity calls were applied or skipped because they would not change the identity.
+     */
+    @ReactMethod
+    public void getIdentityState(Callback callback) {
+        long startNanos = System.nanoTime();
+        callbackHandler(callback, Arguments.makeNativeMap(identityState.getStats()));
+        metrics.record("bridge.getIdentityState", startNanos);
     }
 
     // This method is used to update the user profile.
     @ReactMethod
     public void updateUserProfile(ReadableMap profileData) {
+        long startNanos = System.nanoTime();
         try {
             HashMap<String, Object> hmapProfile = SmartechHelper.convertReadableMapToHashMap(profileData);
-            smartech.updateUserProfile(hmapProfile);
+            profileBatcher.update(hmapProfile);
         } catch (Exception e) {
-            e.printStackTrace();
+            diagnostics.error("bridge.updateUserProfile failed", e);
         }
+        metrics.record("bridge.updateUserProfile", startNanos);
+    }
+
+    /**
+     * This method is used to merge the profile updates received within the given window into one update.
+     * Only the attributes which changed since the last update sent to the SDK are sent. 0 sends every update right away.
+     */
+    @ReactMethod
+    public void setProfileUpdateWindow(int windowMillis) {
+        long startNanos = System.nanoTime();
+        profileBatcher.setWindowMillis(windowMillis);
+        metrics.record("bridge.setProfileUpdateWindow", startNanos);
     }
 
     // ----- GDPR Methods -----
 
     // This method is used to opt tracking.
     @ReactMethod
-    public void optTracking(Boolean value) {
-        try {
-            smartech.optTracking(value);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    public void optTracking(final Boolean value) {
+        long startNanos = System.nanoTime();
+        dispatcher.dispatch("sdk.optTracking", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    smartech.optTracking(value);
+                    if (value != null && consentCache.updateTracking(value)) {
+                        emitConsentUpdated();
+                    }
+                } catch (Exception e) {
+                    diagnostics.error("sdk.optTracking failed", e);
+                }
+            }
+        });
+        metrics.record("bridge.optTracking", startNanos);
     }
 
     // This method is used to get the current status of opt tracking.
     @ReactMethod
-    public void hasOptedTracking(Callback callback) {
+    public void hasOptedTracking(final Callback callback) {
+        long startNanos = System.nanoTime();
+        dispatcher.dispatch("sdk.hasOptedTracking", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Boolean isTracking = smartech.hasOptedTracking();
+                    callbackHandler(callback, isTracking);
+                } catch (Exception e) {
+                    diagnostics.error("sdk.hasOptedTracking failed", e);
+                    callbackError(callback, ERROR_SDK, "Exception: " + e.getMessage());
+                }
+            }
+        });
+        metrics.record("bridge.hasOptedTracking", startNanos);
+    }
+
+    // This method returns the current status of opt tracking synchronously from the consent cache, null while the SDK is not initialized.
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public Boolean hasOptedTrackingSync() {
+        long startNanos = System.nanoTime();
         try {
-            Boolean isTracking = smartech.hasOptedTracking();
-            callbackHandler(callback, isTracking);
+            SmartechConsentCache.Snapshot consent = consentCache.get();
+            if (consent != null) {
+                return consent.isTrackingOpted;
+            }
+            Smartech instance = getInitializedSmartech();
+            return instance != null ? instance.hasOptedTracking() : null;
         } catch (Exception e) {
-            e.printStackTrace();
-            callbackHandler(callback, "Exception: " + e.getMessage());
+            diagnostics.error("bridge.hasOptedTrackingSync failed", e);
+            return null;
+        } finally {
+            metrics.record("bridge.hasOptedTrackingSync", startNanos);
         }
     }
 
     // This method is used to opt push notifications.
     @ReactMethod
-    public void optPushNotification(Boolean value) {
-        try {
-            smartech.optPushNotification(value);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    public void optPushNotification(final Boolean value) {
+        long startNanos = System.nanoTime();
+        dispatcher.dispatch("sdk.optPushNotification", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    smartech.optPushNotification(value);
+                    if (value != null && consentCache.updatePushNotification(value)) {
+                        emitConsentUpdated();
+                    }
+                } catch (Exception e) {
+                    diagnostics.error("sdk.optPushNotification failed", e);
+                }
+            }
+        });
+        metrics.record("bridge.optPushNotification", startNanos);
     }
 
     // This method is used to get the current status of opt push notification.
     @ReactMethod
-    public void hasOptedPushNotification(Callback callback) {
+    public void hasOptedPushNotification(final Callback callback) {
+        long startNanos = System.nanoTime();
+        dispatcher.dispatch("sdk.hasOptedPushNotification", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Boolean isPushNotificationOpted = smartech.hasOptedPushNotification();
+                    callbackHandler(callback, isPushNotificationOpted);
+                } catch (Exception e) {
+                    diagnostics.error("sdk.hasOptedPushNotification failed", e);
+                    callbackError(callback, ERROR_SDK, "Exception: " + e.getMessage());
+                }
+            }
+        });
+        metrics.record("bridge.hasOptedPushNotification", startNanos);
+    }
+
+    // This method returns the current status of opt push notification synchronously from the consent cache, null while the SDK is not initialized.
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public Boolean hasOptedPushNotificationSync() {
+        long startNanos = System.nanoTime();
         try {
-            Boolean isPushNotificationOpted = smartech.hasOptedPushNotification();
-            callbackHandler(callback, isPushNotificationOpted);
+            SmartechConsentCache.Snapshot consent = consentCache.get();
+            if (consent != null) {
+                return consent.isPushNotificationOpted;
+            }
+            Smartech instance = getInitializedSmartech();
+            return instance != null ? instance.hasOptedPushNotification() : null;
         } catch (Exception e) {
-            e.printStackTrace();
-            callbackHandler(callback, "Exception: " + e.getMessage());
+            diagnostics.error("bridge.hasOptedPushNotificationSync failed", e);
+            return null;
+        } finally {
+            metrics.record("bridge.hasOptedPushNotificationSync", startNanos);
         }
     }
 
     //  This method is used to opt in-app messages.
     @ReactMethod
-    public void optInAppMessage(Boolean value) {
+    public void optInAppMessage(final Boolean value) {
+        long startNanos = System.nanoTime();
+        dispatcher.dispatch("sdk.optInAppMessage", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    smartech.optInAppMessage(value);
+                    if (value != null && consentCache.updateInAppMessage(value)) {
+                        emitConsentUpdated();
+                    }
+                } catch (Exception e) {
+                    diagnostics.error("sdk.optInAppMessage failed", e);
+                }
+            }
+        });
+        metrics.record("bridge.optInAppMessage", startNanos);
+    }
+
+    // This method is used to get the current status of opt in-app messages.
+    @ReactMethod
+    public void hasOptedInAppMessage(final Callback callback) {
+        long startNanos = System.nanoTime();
+        dispatcher.dispatch("sdk.hasOptedInAppMessage", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Boolean isInAppOpted = smartech.hasOptedInAppMessage();
+                    callbackHandler(callback, isInAppOpted);
+                } catch (Exception e) {
+                    diagnostics.error("sdk.hasOptedInAppMessage failed", e);
+                    callbackError(callback, ERROR_SDK, "Exception: " + e.getMessage());
+                }
+            }
+        });
+        metrics.record("bridge.hasOptedInAppMessage", startNanos);
+    }
+
+    // This method returns the current status of opt in-app messages synchronously from the consent cache, null while the SDK is not initialized.
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public Boolean hasOptedInAppMessageSync() {
+        long startNanos = System.nanoTime();
         try {
-            smartech.optInAppMessage(value);
+            SmartechConsentCache.Snapshot consent = consentCache.get();
+            if (consent != null) {
+                return consent.isInAppMessageOpted;
+            }
+            Smartech instance = getInitializedSmartech();
+            return instance != null ? instance.hasOptedInAppMessage() : null;
         } catch (Exception e) {
-            e.printStackTrace();
+            diagnostics.error("bridge.hasOptedInAppMessageSync failed", e);
+            return null;
+        } finally {
+            metrics.record("bridge.hasOptedInAppMessageSync", startNanos);
         }
     }
 
-    // This method is used to get the current status of opt in-app messages.
+    /**
+     * This method is used to get the tracking, push notification and in-app message consents at once, as
+     * { tracking, pushNotification, inAppMessage }. The callback runs after the opt calls made before it.
+     * Changes are pushed through the SmartechConsentUpdated event.
+     */
     @ReactMethod
-    public void hasOptedInAppMessage(Callback callback) {
+    public void getConsentStatus(final Callback callback) {
+        long startNanos = System.nanoTime();
+        dispatcher.dispatch("sdk.getConsentStatus", new Runnable() {
+            @Override
+            public void run() {
+                SmartechConsentCache.Snapshot consent = consentCache.get();
+                if (consent == null) {
+                    consent = refreshConsent(false);
+                }
+                callbackHandler(callback, consent != null ? Arguments.makeNativeMap(consent.toHashMap()) : new WritableNativeMap());
+            }
+        });
+        metrics.record("bridge.getConsentStatus", startNanos);
+    }
+
+    /**
+     * This method returns the consents synchronously from the cache, the opt calls still queued for the SDK are not reflected.
+     * The map is empty until the consents are loaded: they are then loaded on the dispatcher and pushed through the
+     * SmartechConsentUpdated event.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap getConsentStatusSync() {
+        long startNanos = System.nanoTime();
         try {
-            Boolean isInAppOpted = smartech.hasOptedInAppMessage();
-            callbackHandler(callback, isInAppOpted);
-        } catch (Exception e) {
-            e.printStackTrace();
-            callbackHandler(callback, "Exception: " + e.getMessage());
+            SmartechConsentCache.Snapshot consent = consentCache.get();
+            if (consent == null) {
+                loadConsent();
+            }
+            return consent != null ? Arguments.makeNativeMap(consent.toHashMap()) : new WritableNativeMap();
+        } finally {
+            metrics.record("bridge.getConsentStatusSync", startNanos);
         }
     }
 
     // ----- Location Methods -----
 
-    // This method is used to set the user's location to the SDK.
+    /**
+     * This method is used to set the user's location to the SDK.
+     * With a location throttle set, updates too close in distance and time to the last one sent are dropped.
+     * The location is kept in a single slot which the dispatcher reads when the call runs, so only the latest
+     * location is queued. The call is a barrier, it is never dropped by the overflow policy of a lane.
+     */
     @ReactMethod
-    public void setUserLocation(Double latitude, Double longitude) {
-        try {
-            Location location = new Location("Smartech");
-            location.setLatitude(latitude);
-            location.setLongitude(longitude);
-            smartech.setUserLocation(location);
-        } catch (Exception e) {
-            e.printStackTrace();
+    public void setUserLocation(final Double latitude, final Double longitude) {
+        long startNanos = System.nanoTime();
+        if (latitude == null || longitude == null) {
+            diagnostics.warn("Ignoring user location without a latitude and a longitude", null);
+        } else if (locationThrottle.accept(latitude, longitude, SystemClock.elapsedRealtime())
+                && pendingLocation.getAndSet(new double[]{latitude, longitude}) == null) {
+            dispatcher.dispatch("sdk.setUserLocation", new Runnable() {
+                @Override
+                public void run() {
+                    double[] coordinates = pendingLocation.getAndSet(null);
+                    try {
+                        Location location = new Location("Smartech");
+                        location.setLatitude(coordinates[0]);
+                        location.setLongitude(coordinates[1]);
+                        smartech.setUserLocation(location);
+                    } catch (Exception e) {
+                        diagnostics.error("sdk.setUserLocation failed", e);
+                    }
+                }
+            });
         }
+        metrics.record("bridge.setUserLocation", startNanos);
+    }
+
+    /**
+     * This method is used to forward a location update only when it is at least minDistanceMeters away from,
+     * or minIntervalMillis later than, the last update sent to the SDK. 0 for both sends every update.
+     */
+    @ReactMethod
+    public void setLocationThrottle(double minDistanceMeters, int minIntervalMillis) {
+        long startNanos = System.nanoTime();
+        locationThrottle.setThresholds(minDistanceMeters, minIntervalMillis);
+        metrics.record("bridge.setLocationThrottle", startNanos);
+    }
+
+    // This method is used to get the location throttle thresholds and the accepted and dropped update counts.
+    @ReactMethod
+    public void getLocationThrottleStats(Callback callback) {
+        long startNanos = System.nanoTime();
+        callbackHandler(callback, Arguments.makeNativeMap(locationThrottle.getStats()));
+        metrics.record("bridge.getLocationThrottleStats", startNanos);
     }
 
     // ----- Helper Methods -----
 
     // This method is used to get the app id used by the Smartech SDK.
     @ReactMethod
-    public void getAppId(Callback callback) {
+    public void getAppId(final Callback callback) {
+        long startNanos = System.nanoTime();
         try {
-            String appId = smartech.getAppID();
-            callbackHandler(callback, appId);
-        } catch (Exception e) {
-            e.printStackTrace();
-            callbackHandler(callback, "Exception: " + e.getMessage());
+            SmartechIdentifierCache.Snapshot identifiers = identifierCache.get();
+            if (identifiers != null) {
+                callbackHandler(callback, identifiers.appId);
+                return;
+            }
+            dispatcher.dispatch("sdk.getAppId", new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        String appId = smartech.getAppID();
+                        callbackHandler(callback, appId);
+                    } catch (Exception e) {
+                        diagnostics.error("sdk.getAppId failed", e);
+                        callbackError(callback, ERROR_SDK, "Exception: " + e.getMessage());
+                    }
+                }
+            });
+        } finally {
+            metrics.record("bridge.getAppId", startNanos);
         }
     }
 
     // This method is used to get the device push token used by Smartech SDK.
     @ReactMethod
-    public void getDevicePushToken(Callback callback) {
+    public void getDevicePushToken(final Callback callback) {
+        long startNanos = System.nanoTime();
         try {
-            String token = smartech.getDevicePushToken();
-            callbackHandler(callback, token);
-        } catch (Exception e) {
-            e.printStackTrace();
-            callbackHandler(callback, "Exception: " + e.getMessage());
+            SmartechIdentifierCache.Snapshot identifiers = identifierCache.get();
+            if (identifiers != null && identifiers.isPushTokenLoaded) {
+                callbackHandler(callback, identifiers.devicePushToken);
+                return;
+            }
+            dispatcher.dispatch("sdk.getDevicePushToken", new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        String token = smartech.getDevicePushToken();
+                        if (identifierCache.updatePushToken(token)) {
+                            emitIdentifiersUpdated();
+                        }
+                        callbackHandler(callback, token);
+                    } catch (Exception e) {
+                        diagnostics.error("sdk.getDevicePushToken failed", e);
+                        callbackError(callback, ERROR_SDK, "Exception: " + e.getMessage());
+                    }
+                }
+            });
+        } finally {
+            metrics.record("bridge.getDevicePushToken", startNanos);
         }
     }
 
     // This method is used to get the device unique id used by Smartech SDK.
     @ReactMethod
-    public void getDeviceGuid(Callback callback) {
+    public void getDeviceGuid(final Callback callback) {
+        long startNanos = System.nanoTime();
         try {
-            String GUID = smartech.getDeviceUniqueId();
-            callbackHandler(callback, GUID);
-        } catch (Exception e) {
-            e.printStackTrace();
-            callbackHandler(callback, "Exception: " + e.getMessage());
+            SmartechIdentifierCache.Snapshot identifiers = identifierCache.get();
+            if (identifiers != null) {
+                callbackHandler(callback, identifiers.deviceGuid);
+                return;
+            }
+            dispatcher.dispatch("sdk.getDeviceGuid", new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        String GUID = smartech.getDeviceUniqueId();
+                        callbackHandler(callback, GUID);
+                    } catch (Exception e) {
+                        diagnostics.error("sdk.getDeviceGuid failed", e);
+                        callbackError(callback, ERROR_SDK, "Exception: " + e.getMessage());
+                    }
+                }
+            });
+        } finally {
+            metrics.record("bridge.getDeviceGuid", startNanos);
         }
     }
 
     // This method is used to get the current Smartech SDK version.
     @ReactMethod
-    public void getSDKVersion(Callback callback) {
+    public void getSDKVersion(final Callback callback) {
+        long startNanos = System.nanoTime();
         try {
-            String sdkVersion = smartech.getSDKVersion();
-            callbackHandler(callback, sdkVersion);
-        } catch (Exception e) {
-            e.printStackTrace();
-            callbackHandler(callback, "Exception: " + e.getMessage());
+            SmartechIdentifierCache.Snapshot identifiers = identifierCache.get();
+            if (identifiers != null) {
+                callbackHandler(callback, identifiers.sdkVersion);
+                return;
+            }
+            dispatcher.dispatch("sdk.getSDKVersion", new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        String sdkVersion = smartech.getSDKVersion();
+                        callbackHandler(callback, sdkVersion);
+                    } catch (Exception e) {
+                        diagnostics.error("sdk.getSDKVersion failed", e);
+                        callbackError(callback, ERROR_SDK, "Exception: " + e.getMessage());
+                    }
+                }
+            });
+        } finally {
+            metrics.record("bridge.getSDKVersion", startNanos);
         }
     }
 
-    // This method is used to set device push tokens which is used by SDK to send notifications.
-    @ReactMethod
-    public void setDevicePushToken(String token) {
+    /**
+     * This method returns the cached app id, device guid, SDK version and device push token synchronously.
+     * The values are null until the cache has been filled after the SDK initialization.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap getIdentifiersSync() {
+        long startNanos = System.nanoTime();
+        try {
+            SmartechIdentifierCache.Snapshot identifiers = identifierCache.get();
+            if (identifiers == null) {
+                return new WritableNativeMap();
+            }
+            return Arguments.makeNativeMap(identifiers.toHashMap());
+        } finally {
+            metrics.record("bridge.getIdentifiersSync", startNanos);
+        }
+    }
+
+    // Used by the synchronous getters of the TurboModule, the identifiers are read from the SDK until the cache is filled.
+    SmartechIdentifierCache.Snapshot getIdentifierSnapshot() {
+        SmartechIdentifierCache.Snapshot identifiers = identifierCache.get();
+        if (identifiers != null && identifiers.isPushTokenLoaded) {
+            return identifiers;
+        }
+        Smartech instance = getInitializedSmartech();
+        if (instance == null) {
+            return identifiers;
+        }
         try {
-            smartech.setDevicePushToken(token);
+            if (identifiers != null) {
+                return new SmartechIdentifierCache.Snapshot(identifiers.appId, identifiers.deviceGuid, identifiers.sdkVersion, instance.getDevicePushToken(), true);
+            }
+            return new SmartechIdentifierCache.Snapshot(instance.getAppID(), instance.getDeviceUniqueId(), instance.getSDKVersion(), instance.getDevicePushToken(), true);
         } catch (Exception e) {
-            e.printStackTrace();
+            diagnostics.error("bridge.getIdentifiersSync failed", e);
+            return identifiers;
         }
     }
 
+    // This method is used to set device push tokens which is used by SDK to send notifications.
+    @ReactMethod
+    public void setDevicePushToken(final String token) {
+        long startNanos = System.nanoTime();
+        dispatcher.dispatch("sdk.setDevicePushToken", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    smartech.setDevicePushToken(token);
+                    if (identifierCache.updatePushToken(smartech.getDevicePushToken())) {
+                        emitIdentifiersUpdated();
+                    }
+                } catch (Exception e) {
+                    diagnostics.error("sdk.setDevicePushToken failed", e);
+                }
+            }
+        });
+        metrics.record("bridge.setDevicePushToken", startNanos);
+    }
+
     // This method will be used to fetch already generated tokens for existings users.
     @ReactMethod
     public void fetchAlreadyGeneratedTokenFromFCM() {
+        long startNanos = System.nanoTime();
+        dispatcher.dispatch("sdk.fetchAlreadyGeneratedTokenFromFCM", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    smartech.fetchAlreadyGeneratedTokenFromFCM();
+                    identifierCache.invalidatePushToken();
+                } catch (Exception e) {
+                    diagnostics.error("sdk.fetchAlreadyGeneratedTokenFromFCM failed", e);
+                }
+            }
+        });
+        metrics.record("bridge.fetchAlreadyGeneratedTokenFromFCM", startNanos);
+    }
+
+    // Used to fill the identifier cache from the SDK, this runs on the dispatcher thread.
+    private void refreshIdentifiers() {
+        try {
+            boolean isFirstLoad = identifierCache.get() == null;
+            boolean hasChanged = identifierCache.update(smartech.getAppID(), smartech.getDeviceUniqueId(), smartech.getSDKVersion(), smartech.getDevicePushToken());
+            if (hasChanged && !isFirstLoad) {
+                emitIdentifiersUpdated();
+            }
+        } catch (Exception e) {
+            diagnostics.error("refreshIdentifiers failed", e);
+        }
+    }
+
+    // Used to start the identity state from the identity stored by the SDK.
+    private void seedIdentityState() {
         try {
-            smartech.fetchAlreadyGeneratedTokenFromFCM();
+            identityState.seed(smartech.getUserIdentity());
         } catch (Exception e) {
-            e.printStackTrace();
+            diagnostics.error("seedIdentityState failed", e);
         }
     }
 
+    // Used to load the consents from the SDK, JS is notified when they changed since the last load, or always if asked.
+    private SmartechConsentCache.Snapshot refreshConsent(boolean isAlwaysEmitted) {
+        try {
+            boolean isFirstLoad = consentCache.get() == null;
+            boolean hasChanged = consentCache.update(smartech.hasOptedTracking(), smartech.hasOptedPushNotification(), smartech.hasOptedInAppMessage());
+            if (isAlwaysEmitted || (hasChanged && !isFirstLoad)) {
+                emitConsentUpdated();
+            }
+        } catch (Exception e) {
+            diagnostics.error("refreshConsent failed", e);
+        }
+        return consentCache.get();
+    }
+
+    // Used after a cache miss of a synchronous read, the consents are pushed to JS once loaded even if they did not change.
+    private void loadConsent() {
+        if (!isConsentLoadQueued.compareAndSet(false, true)) {
+            return;
+        }
+        dispatcher.dispatch("sdk.loadConsent", new Runnable() {
+            @Override
+            public void run() {
+                isConsentLoadQueued.set(false);
+                refreshConsent(true);
+            }
+        });
+    }
+
+    // Used to push the current consents to JS.
+    private void emitConsentUpdated() {
+        SmartechConsentCache.Snapshot consent = consentCache.get();
+        if (consent != null) {
+            eventReplayBuffer.emit(SmartechConsentUpdated, Arguments.makeNativeMap(consent.toHashMap()));
+        }
+    }
+
+    // Used to get the JS event emitter, it is looked up once and kept until the React instance goes away.
+    private DeviceEventManagerModule.RCTDeviceEventEmitter getJsEventEmitter() {
+        DeviceEventManagerModule.RCTDeviceEventEmitter emitter = jsEventEmitter;
+        if (emitter == null) {
+            emitter = reactContext.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class);
+            jsEventEmitter = emitter;
+        }
+        return emitter;
+    }
+
+    // Used to push the current identifiers to JS.
+    private void emitIdentifiersUpdated() {
+        SmartechIdentifierCache.Snapshot identifiers = identifierCache.get();
+        if (identifiers != null) {
+            eventReplayBuffer.emit(SmartechIdentifiersUpdated, Arguments.makeNativeMap(identifiers.toHashMap()));
+        }
+    }
+
+    // ----- Dispatcher Methods -----
+
+    /**
+     * This method is used to get how long the module took to start, in microseconds.
+     * initDelayMicros is the time from the module creation until the SDK initialization started.
+     */
+    @ReactMethod
+    public void getStartupTimings(Callback callback) {
+        long startNanos = System.nanoTime();
+        WritableMap timings = new WritableNativeMap();
+        long initStarted = initStartedAtNanos;
+        long initFinished = initFinishedAtNanos;
+        timings.putBoolean("isLazyInitialization", isLazyInitialization);
+        timings.putBoolean("isInitialized", smartech != null);
+        timings.putDouble("constructorMicros", TimeUnit.NANOSECONDS.toMicros(constructorDurationNanos));
+        if (initStarted != 0) {
+            timings.putDouble("initDelayMicros", TimeUnit.NANOSECONDS.toMicros(initStarted - moduleCreatedAtNanos));
+        }
+        if (initFinished != 0) {
+            timings.putDouble("initDurationMicros", TimeUnit.NANOSECONDS.toMicros(initFinished - initStarted));
+        }
+        callbackHandler(callback, timings);
+        metrics.record("bridge.getStartupTimings", startNanos);
+    }
+
+    // This method is used to get the queue depth, drop and wait time counters of the SDK call dispatcher, in total and per lane.
+    @ReactMethod
+    public void getDispatcherStats(Callback callback) {
+        long startNanos = System.nanoTime();
+        callbackHandler(callback, Arguments.makeNativeMap(dispatcher.getStats()));
+        metrics.record("bridge.getDispatcherStats", startNanos);
+    }
+
+    // ----- Metrics Methods -----
+
+    /**
+     * This method is used to get the call counts and latency histograms of the bridge methods ("bridge."),
+     * the payload conversions ("convert.") and the SDK calls run by the dispatcher ("sdk."), in microseconds.
+     * The hit rate of the event name and payload key intern table is reported under "internTable", and
+     * the counters of the batches of events sent to JS ("emit.") under "eventBatcher", the hit rate of the
+     * parsed deeplink payloads under "deeplinkPayloadCache", and the limits and the rejected and truncated payload
+     * counters of the conversions under "payloadConverter", the number of registered event schemas and compact
+     * events under "eventSchemas", and the aggregated event and summary counts under "eventAggregator".
+     */
+    @ReactMethod
+    public void getBridgeMetrics(Callback callback) {
+        long startNanos = System.nanoTime();
+        HashMap<String, Object> snapshot = metrics.getSnapshot();
+        snapshot.put("internTable", internTable.getStats());
+        snapshot.put("eventBatcher", eventBatcher.getStats());
+        snapshot.put("deeplinkPayloadCache", deeplinkPayloadCache.getStats());
+        snapshot.put("payloadConverter", SmartechPayloadConverter.getStats());
+        snapshot.put("eventSchemas", eventSchemas.getStats());
+        snapshot.put("eventAggregator", eventAggregator.getStats());
+        callbackHandler(callback, Arguments.makeNativeMap(snapshot));
+        metrics.record("bridge.getBridgeMetrics", startNanos);
+    }
+
+    // This method is used to clear the bridge metrics.
+    @ReactMethod
+    public void resetBridgeMetrics() {
+        long startNanos = System.nanoTime();
+        metrics.reset();
+        metrics.record("bridge.resetBridgeMetrics", startNanos);
+    }
+
+    /**
+     * This method is used to log the bridge metrics at the given interval, 0 stops the periodic logs.
+     * The reports are info records of the diagnostics log, so the diagnostics level must be "info" or lower.
+     */
+    @ReactMethod
+    public void setBridgeMetricsReportInterval(int intervalMillis) {
+        long startNanos = System.nanoTime();
+        metrics.setReportInterval(intervalMillis, new SmartechBridgeMetrics.Reporter() {
+            @Override
+            public void report(HashMap<String, Object> snapshot) {
+                diagnostics.info("Bridge metrics", snapshot);
+            }
+        });
+        metrics.record("bridge.setBridgeMetricsReportInterval", startNanos);
+    }
+
+    /**
+     * This method is used to set the capacity and overflow policy of a dispatcher lane: "identity" (identity and profile calls),
+     * "critical" (app install and update tracking and the critical events) or "bulk" (the other events).
+     * The overflow policy of a full lane is "dropOldest", "dropNewest" or "block", which waits up to blockTimeoutMillis for room
+     * and then drops the new call.
+     */
+    @ReactMethod
+    public void setDispatchLanePolicy(String lane, int capacity, String overflowPolicy, int blockTimeoutMillis) {
+        long startNanos = System.nanoTime();
+        int laneIndex = SmartechDispatcher.laneOf(lane);
+        SmartechDispatcher.OverflowPolicy policy = toOverflowPolicy(overflowPolicy);
+        if (laneIndex < 0 || policy == null) {
+            diagnostics.warn("Ignoring dispatch lane policy, unknown lane or overflow policy", lane, overflowPolicy);
+        } else {
+            dispatcher.setLanePolicy(laneIndex, capacity, policy, blockTimeoutMillis);
+        }
+        metrics.record("bridge.setDispatchLanePolicy", startNanos);
+    }
+
+    // This method is used to set the names of the custom events which are queued in the critical lane, ahead of the other events.
+    @ReactMethod
+    public void setCriticalEvents(ReadableArray eventNames) {
+        long startNanos = System.nanoTime();
+        Set<String> names = new HashSet<>();
+        if (eventNames != null) {
+            for (Object eventName : eventNames.toArrayList()) {
+                if (eventName instanceof String) {
+                    names.add((String) eventName);
+                }
+            }
+        }
+        criticalEventNames = names;
+        metrics.record("bridge.setCriticalEvents", startNanos);
+    }
+
+    private static SmartechDispatcher.OverflowPolicy toOverflowPolicy(String overflowPolicy) {
+        if ("dropOldest".equals(overflowPolicy)) {
+            return SmartechDispatcher.OverflowPolicy.DROP_OLDEST;
+        } else if ("dropNewest".equals(overflowPolicy)) {
+            return SmartechDispatcher.OverflowPolicy.DROP_NEWEST;
+        } else if ("block".equals(overflowPolicy)) {
+            return SmartechDispatcher.OverflowPolicy.BLOCK;
+        }
+        return null;
+    }
+
+    // This method invokes the callback once every call made before it has been handed to the SDK.
+    @ReactMethod
+    public void flushDispatcher(final Callback callback) {
+        long startNanos = System.nanoTime();
+        dispatcher.dispatch(new Runnable() {
+            @Override
+            public void run() {
+                callbackHandler(callback, true);
+            }
+        });
+        metrics.record("bridge.flushDispatcher", startNanos);
+    }
+
+    // ----- Diagnostics Methods -----
+
+    // This method is used to set the lowest level of the diagnostics records: "verbose", "debug", "info", "warn" (the default), "error" or "none".
+    @ReactMethod
+    public void setDiagnosticsLevel(String level) {
+        long startNanos = System.nanoTime();
+        int diagnosticsLevel = SmartechDiagnostics.levelOf(level);
+        if (diagnosticsLevel < 0) {
+            diagnostics.warn("Ignoring unknown diagnostics level", level);
+        } else {
+            diagnostics.setLevel(diagnosticsLevel);
+        }
+        metrics.record("bridge.setDiagnosticsLevel", startNanos);
+    }
+
+    // This method is used to get the recent diagnostics records of the bridge, oldest first, to attach them to a bug report.
+    @ReactMethod
+    public void dumpDiagnostics(Callback callback) {
+        long startNanos = System.nanoTime();
+        callbackHandler(callback, Arguments.makeNativeMap(diagnostics.dump()));
+        metrics.record("bridge.dumpDiagnostics", startNanos);
+    }
+
     // This is empty method used in iOS only..
     @ReactMethod
     public void registerForPushNotificationWithAuthorizationOptions(boolean alert, boolean badge, boolean sound) {}
 
+    // Implemented by the callbacks which report a failure apart from a result, such as the promises of the TurboModule.
+    interface ErrorCallback extends Callback {
+        void reject(String code, String message);
+    }
+
+    // Used to report a failure, the legacy callbacks receive the message as their result.
+    private void callbackError(Callback callback, String code, String message) {
+        if (callback instanceof ErrorCallback) {
+            try {
+                ((ErrorCallback) callback).reject(code, message);
+            } catch (Exception e) {
+                diagnostics.error("callbackError failed", e);
+            }
+            return;
+        }
+        callbackHandler(callback, message);
+    }
+
     // Used to handle callback.
     private void callbackHandler(Callback callback, Object response) {
         if (callback == null) {
-            Log.i(TAG, "Callback is null.");
+            diagnostics.log(SmartechDiagnostics.LEVEL_INFO, "Callback is null.", null, null);
             return;
         }
 
         try {
             callback.invoke(response);
         } catch (Exception e) {
-            e.printStackTrace();
+            diagnostics.error("callbackHandler failed", e);
         }
     }
 
@@ -0,0 +1,54 @@
+package com.netcore.reactnative;
+
+import com.facebook.react.TurboReactPackage;
+import com.facebook.react.bridge.NativeModule;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.module.model.ReactModuleInfo;
+import com.facebook.react.module.model.ReactModuleInfoProvider;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class SmartechReactNativePackage extends TurboReactPackage {
+
+    private final boolean isLazyInitialization;
+
+    public SmartechReactNativePackage() {
+        this(false);
+    }
+
+    /**
+     * Pass true to initialize the Smartech SDK off the thread which creates the native modules,
+     * which keeps the SDK initialization off the app cold-start critical path.
+     */
+    public SmartechReactNativePackage(boolean isLazyInitialization) {
+        this.isLazyInitialization = isLazyInitialization;
+    }
+
+    @Override
+    public NativeModule getModule(String name, ReactApplicationContext reactContext) {
+        if (NativeSmartechReactNativeSpec.NAME.equals(name)) {
+            return new SmartechReactNativeTurboModule(reactContext, isLazyInitialization);
+        }
+        return null;
+    }
+
+    @Override
+    public ReactModuleInfoProvider getReactModuleInfoProvider() {
+        return new ReactModuleInfoProvider() {
+            @Override
+            public Map<String, ReactModuleInfo> getReactModuleInfos() {
+                Map<String, ReactModuleInfo> moduleInfos = new HashMap<>();
+                moduleInfos.put(NativeSmartechReactNativeSpec.NAME, new ReactModuleInfo(
+                        NativeSmartechReactNativeSpec.NAME,
+                        SmartechReactNativeTurboModule.class.getName(),
+                        false,
+                        false,
+                        true,
+                        false,
+                        true));
+                return moduleInfos;
+            }
+        };
+    }
+}
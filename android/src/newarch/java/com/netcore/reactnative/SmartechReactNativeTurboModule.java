@@ -0,0 +1,376 @@
+package com.netcore.reactnative;
+
+import com.facebook.react.bridge.Callback;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.Map;
+
+/**
+ * TurboModule implementation of the Smartech bridge used with the New Architecture.
+ *
+ * Every call is delegated to SmartechReactNativeModule so that both architectures share the same
+ * dispatcher, journal and caches. Cheap getters are answered synchronously, the calls which are only
+ * queued for the Smartech SDK return nothing and the other methods return a Promise, which is rejected
+ * when the legacy method reports a failure.
+ *
+ * The identifier getters read the identifier cache, or the Smartech SDK once it is initialized. Unlike
+ * the legacy methods, which wait on the dispatcher for the SDK, they return null before that.
+ */
+public class SmartechReactNativeTurboModule extends NativeSmartechReactNativeSpec {
+
+    private final SmartechReactNativeModule delegate;
+
+    public SmartechReactNativeTurboModule(ReactApplicationContext reactContext, boolean isLazyInitialization) {
+        super(reactContext);
+        this.delegate = new SmartechReactNativeModule(reactContext, isLazyInitialization);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    protected Map<String, Object> getTypedExportedConstants() {
+        return delegate.getConstants();
+    }
+
+    @Override
+    public void invalidate() {
+        super.invalidate();
+        delegate.onCatalystInstanceDestroy();
+    }
+
+    // ----- Synchronous Getters -----
+
+    @Override
+    public String getUserIdentity() {
+        return delegate.getUserIdentitySync();
+    }
+
+    @Override
+    public Boolean hasOptedTracking() {
+        return delegate.hasOptedTrackingSync();
+    }
+
+    @Override
+    public Boolean hasOptedPushNotification() {
+        return delegate.hasOptedPushNotificationSync();
+    }
+
+    @Override
+    public Boolean hasOptedInAppMessage() {
+        return delegate.hasOptedInAppMessageSync();
+    }
+
+    @Override
+    public String getAppId() {
+        SmartechIdentifierCache.Snapshot identifiers = delegate.getIdentifierSnapshot();
+        return identifiers != null ? identifiers.appId : null;
+    }
+
+    @Override
+    public String getDeviceGuid() {
+        SmartechIdentifierCache.Snapshot identifiers = delegate.getIdentifierSnapshot();
+        return identifiers != null ? identifiers.deviceGuid : null;
+    }
+
+    @Override
+    public String getSDKVersion() {
+        SmartechIdentifierCache.Snapshot identifiers = delegate.getIdentifierSnapshot();
+        return identifiers != null ? identifiers.sdkVersion : null;
+    }
+
+    @Override
+    public String getDevicePushToken() {
+        SmartechIdentifierCache.Snapshot identifiers = delegate.getIdentifierSnapshot();
+        return identifiers != null ? identifiers.devicePushToken : null;
+    }
+
+    @Override
+    public WritableMap getIdentifiersSync() {
+        return delegate.getIdentifiersSync();
+    }
+
+    @Override
+    public WritableMap getConsentStatusSync() {
+        return delegate.getConsentStatusSync();
+    }
+
+    // ----- Events -----
+
+    @Override
+    public void getDeepLinkUrl(Promise promise) {
+        delegate.getDeepLinkUrl(new PromiseCallback(promise));
+    }
+
+    @Override
+    public void addListener(String eventName) {
+        delegate.addListener(eventName);
+    }
+
+    @Override
+    public void removeListeners(double count) {
+        delegate.removeListeners(count);
+    }
+
+    @Override
+    public void trackAppInstall() {
+        delegate.trackAppInstall();
+    }
+
+    @Override
+    public void trackAppUpdate() {
+        delegate.trackAppUpdate();
+    }
+
+    @Override
+    public void trackAppInstallUpdateBySmartech() {
+        delegate.trackAppInstallUpdateBySmartech();
+    }
+
+    @Override
+    public void trackEvent(String eventName, ReadableMap payload) {
+        delegate.trackEvent(eventName, payload);
+    }
+
+    @Override
+    public void trackEvents(ReadableArray events) {
+        delegate.trackEvents(events);
+    }
+
+    @Override
+    public void trackEventJson(String eventName, String payloadJson) {
+        delegate.trackEventJson(eventName, payloadJson);
+    }
+
+    @Override
+    public void registerEventSchema(String eventName, ReadableArray fields, Promise promise) {
+        delegate.registerEventSchema(eventName, fields, new PromiseCallback(promise));
+    }
+
+    @Override
+    public void trackEventCompact(double schemaId, ReadableArray values) {
+        delegate.trackEventCompact((int) schemaId, values);
+    }
+
+    @Override
+    public void setJsonPayloadLimits(double maxDepth, double maxLength, Promise promise) {
+        delegate.setJsonPayloadLimits((int) maxDepth, (int) maxLength);
+        promise.resolve(null);
+    }
+
+    @Override
+    public void setPayloadLimits(double maxDepth, double maxElements, double maxStringBytes, String overflowPolicy, Promise promise) {
+        delegate.setPayloadLimits((int) maxDepth, (int) maxElements, (int) maxStringBytes, overflowPolicy);
+        promise.resolve(null);
+    }
+
+    @Override
+    public void setEventPolicies(ReadableMap policies, Promise promise) {
+        delegate.setEventPolicies(policies);
+        promise.resolve(null);
+    }
+
+    @Override
+    public void getEventPolicyStats(Promise promise) {
+        delegate.getEventPolicyStats(new PromiseCallback(promise));
+    }
+
+    @Override
+    public void setEventAggregations(ReadableMap aggregations, Promise promise) {
+        delegate.setEventAggregations(aggregations);
+        promise.resolve(null);
+    }
+
+    @Override
+    public void getEventAggregationStats(Promise promise) {
+        delegate.getEventAggregationStats(new PromiseCallback(promise));
+    }
+
+    @Override
+    public void setDeeplinkPayloadParsing(boolean isEnabled, Promise promise) {
+        delegate.setDeeplinkPayloadParsing(isEnabled);
+        promise.resolve(null);
+    }
+
+    // ----- User Methods -----
+
+    @Override
+    public void login(String identity) {
+        delegate.login(identity);
+    }
+
+    @Override
+    public void logoutAndClearUserIdentity(boolean isLogout) {
+        delegate.logoutAndClearUserIdentity(isLogout);
+    }
+
+    @Override
+    public void setUserIdentity(String identity, Promise promise) {
+        delegate.setUserIdentity(identity, new PromiseCallback(promise));
+    }
+
+    @Override
+    public void clearUserIdentity() {
+        delegate.clearUserIdentity();
+    }
+
+    @Override
+    public void getIdentityState(Promise promise) {
+        delegate.getIdentityState(new PromiseCallback(promise));
+    }
+
+    @Override
+    public void updateUserProfile(ReadableMap profile) {
+        delegate.updateUserProfile(profile);
+    }
+
+    @Override
+    public void setProfileUpdateWindow(double windowMillis, Promise promise) {
+        delegate.setProfileUpdateWindow((int) windowMillis);
+        promise.resolve(null);
+    }
+
+    // ----- GDPR Methods -----
+
+    @Override
+    public void optTracking(boolean value) {
+        delegate.optTracking(value);
+    }
+
+    @Override
+    public void optPushNotification(boolean value) {
+        delegate.optPushNotification(value);
+    }
+
+    @Override
+    public void optInAppMessage(boolean value) {
+        delegate.optInAppMessage(value);
+    }
+
+    @Override
+    public void getConsentStatus(Promise promise) {
+        delegate.getConsentStatus(new PromiseCallback(promise));
+    }
+
+    // ----- Location Methods -----
+
+    @Override
+    public void setUserLocation(double latitude, double longitude) {
+        delegate.setUserLocation(latitude, longitude);
+    }
+
+    @Override
+    public void setLocationThrottle(double minDistanceMeters, double minIntervalMillis, Promise promise) {
+        delegate.setLocationThrottle(minDistanceMeters, (int) minIntervalMillis);
+        promise.resolve(null);
+    }
+
+    @Override
+    public void getLocationThrottleStats(Promise promise) {
+        delegate.getLocationThrottleStats(new PromiseCallback(promise));
+    }
+
+    // ----- Helper Methods -----
+
+    @Override
+    public void setDevicePushToken(String token) {
+        delegate.setDevicePushToken(token);
+    }
+
+    @Override
+    public void fetchAlreadyGeneratedTokenFromFCM() {
+        delegate.fetchAlreadyGeneratedTokenFromFCM();
+    }
+
+    @Override
+    public void registerForPushNotificationWithAuthorizationOptions(boolean alert, boolean badge, boolean sound, Promise promise) {
+        delegate.registerForPushNotificationWithAuthorizationOptions(alert, badge, sound);
+        promise.resolve(null);
+    }
+
+    // ----- Dispatcher Methods -----
+
+    @Override
+    public void getStartupTimings(Promise promise) {
+        delegate.getStartupTimings(new PromiseCallback(promise));
+    }
+
+    @Override
+    public void getDispatcherStats(Promise promise) {
+        delegate.getDispatcherStats(new PromiseCallback(promise));
+    }
+
+    @Override
+    public void flushDispatcher(Promise promise) {
+        delegate.flushDispatcher(new PromiseCallback(promise));
+    }
+
+    @Override
+    public void setDispatchLanePolicy(String lane, double capacity, String overflowPolicy, double blockTimeoutMillis, Promise promise) {
+        delegate.setDispatchLanePolicy(lane, (int) capacity, overflowPolicy, (int) blockTimeoutMillis);
+        promise.resolve(null);
+    }
+
+    @Override
+    public void setCriticalEvents(ReadableArray eventNames, Promise promise) {
+        delegate.setCriticalEvents(eventNames);
+        promise.resolve(null);
+    }
+
+    // ----- Metrics Methods -----
+
+    @Override
+    public void getBridgeMetrics(Promise promise) {
+        delegate.getBridgeMetrics(new PromiseCallback(promise));
+    }
+
+    @Override
+    public void resetBridgeMetrics(Promise promise) {
+        delegate.resetBridgeMetrics();
+        promise.resolve(null);
+    }
+
+    @Override
+    public void setBridgeMetricsReportInterval(double intervalMillis, Promise promise) {
+        delegate.setBridgeMetricsReportInterval((int) intervalMillis);
+        promise.resolve(null);
+    }
+
+    // ----- Diagnostics Methods -----
+
+    @Override
+    public void setDiagnosticsLevel(String level, Promise promise) {
+        delegate.setDiagnosticsLevel(level);
+        promise.resolve(null);
+    }
+
+    @Override
+    public void dumpDiagnostics(Promise promise) {
+        delegate.dumpDiagnostics(new PromiseCallback(promise));
+    }
+
+    // Used to adapt the callback based methods of the legacy module to promises, failures reject the promise.
+    private static final class PromiseCallback implements SmartechReactNativeModule.ErrorCallback {
+        private final Promise promise;
+
+        PromiseCallback(Promise promise) {
+            this.promise = promise;
+        }
+
+        @Override
+        public void invoke(Object... args) {
+            promise.resolve(args != null && args.length > 0 ? args[0] : null);
+        }
+
+        @Override
+        public void reject(String code, String message) {
+            promise.reject(code, message);
+        }
+    }
+}
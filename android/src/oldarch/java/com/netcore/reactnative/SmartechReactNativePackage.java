@@ -11,9 +11,24 @@ import java.util.Collections;
 import java.util.List;
 
 public class SmartechReactNativePackage implements ReactPackage {
+
+    private final boolean isLazyInitialization;
+
+    public SmartechReactNativePackage() {
+        this(false);
+    }
+
+    /**
+     * Pass true to initialize the Smartech SDK off the thread which creates the native modules,
+     * which keeps the SDK initialization off the app cold-start critical path.
+     */
+    public SmartechReactNativePackage(boolean isLazyInitialization) {
+        this.isLazyInitialization = isLazyInitialization;
+    }
+
     @Override
     public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
-        return Arrays.<NativeModule>asList(new SmartechReactNativeModule(reactContext));
+        return Arrays.<NativeModule>asList(new SmartechReactNativeModule(reactContext, isLazyInitialization));
     }
 
     @Override
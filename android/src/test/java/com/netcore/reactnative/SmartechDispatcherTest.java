@@ -0,0 +1,171 @@
+package com.netcore.reactnative;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SmartechDispatcherTest {
+
+    private SmartechDispatcher dispatcher;
+    private CountDownLatch gate;
+    private List<String> executed;
+
+    @Before
+    public void setUp() throws InterruptedException {
+        dispatcher = new SmartechDispatcher();
+        gate = new CountDownLatch(1);
+        executed = Collections.synchronizedList(new ArrayList<String>());
+        holdDispatcherThread();
+    }
+
+    @After
+    public void tearDown() {
+        gate.countDown();
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void runsTheHighestPriorityLaneFirst() throws InterruptedException {
+        dispatcher.dispatch(SmartechDispatcher.LANE_BULK, null, record("bulk"));
+        dispatcher.dispatch(SmartechDispatcher.LANE_CRITICAL, null, record("critical"));
+        dispatcher.dispatch(SmartechDispatcher.LANE_IDENTITY, null, record("identity"));
+        dispatcher.dispatch(SmartechDispatcher.LANE_BULK, null, record("bulk2"));
+
+        assertEquals(Arrays.asList("identity", "critical", "bulk", "bulk2"), drain());
+    }
+
+    @Test
+    public void runsABarrierAfterEveryEarlierCallAndBeforeEveryLaterOne() throws InterruptedException {
+        dispatcher.dispatch(SmartechDispatcher.LANE_BULK, null, record("bulk"));
+        dispatcher.dispatch(SmartechDispatcher.LANE_CRITICAL, null, record("critical"));
+        dispatcher.dispatch(record("barrier"));
+        dispatcher.dispatch(SmartechDispatcher.LANE_BULK, null, record("bulk2"));
+        dispatcher.dispatch(SmartechDispatcher.LANE_CRITICAL, null, record("critical2"));
+
+        List<String> order = drain();
+        assertEquals(5, order.size());
+        assertEquals("barrier", order.get(2));
+        assertTrue(order.subList(0, 2).containsAll(Arrays.asList("bulk", "critical")));
+        assertEquals(Arrays.asList("critical2", "bulk2"), order.subList(3, 5));
+    }
+
+    @Test
+    public void neverDropsABarrier() throws InterruptedException {
+        dispatcher.setLanePolicy(SmartechDispatcher.LANE_IDENTITY, 1, SmartechDispatcher.OverflowPolicy.DROP_NEWEST, 0);
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(record("barrier" + i));
+        }
+
+        assertEquals(10, drain().size());
+        assertEquals(0.0, laneStats("identity").get("droppedCount"));
+    }
+
+    @Test
+    public void dropsAndCountsTheNewCallOfAFullCriticalLaneWithoutBlocking() throws InterruptedException {
+        AtomicInteger droppedCount = new AtomicInteger();
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < SmartechDispatcher.CRITICAL_CAPACITY + 2; i++) {
+            dispatcher.dispatch(SmartechDispatcher.LANE_CRITICAL, null, countDropped(droppedCount));
+        }
+
+        assertTrue(System.nanoTime() - startNanos < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(2, droppedCount.get());
+        assertEquals("DROP_NEWEST", laneStats("critical").get("overflowPolicy"));
+        assertEquals("DROP_NEWEST", laneStats("identity").get("overflowPolicy"));
+        assertEquals(2.0, laneStats("critical").get("droppedCount"));
+    }
+
+    @Test
+    public void dropsTheOldestCallOfAFullBulkLane() throws InterruptedException {
+        dispatcher.setLanePolicy(SmartechDispatcher.LANE_BULK, 2, SmartechDispatcher.OverflowPolicy.DROP_OLDEST, 0);
+        dispatcher.dispatch(SmartechDispatcher.LANE_BULK, null, record("first"));
+        dispatcher.dispatch(SmartechDispatcher.LANE_BULK, null, record("second"));
+        dispatcher.dispatch(SmartechDispatcher.LANE_BULK, null, record("third"));
+        dispatcher.setLanePolicy(SmartechDispatcher.LANE_BULK, SmartechDispatcher.BULK_CAPACITY, SmartechDispatcher.OverflowPolicy.DROP_OLDEST, 0);
+
+        assertEquals(Arrays.asList("second", "third"), drain());
+        assertEquals(1.0, laneStats("bulk").get("droppedCount"));
+    }
+
+    @Test
+    public void blocksUpToTheTimeoutOnlyOnceBlockingIsSet() throws InterruptedException {
+        AtomicInteger droppedCount = new AtomicInteger();
+        dispatcher.setLanePolicy(SmartechDispatcher.LANE_CRITICAL, 1, SmartechDispatcher.OverflowPolicy.BLOCK, 50);
+        dispatcher.dispatch(SmartechDispatcher.LANE_CRITICAL, null, countDropped(droppedCount));
+        long startNanos = System.nanoTime();
+        dispatcher.dispatch(SmartechDispatcher.LANE_CRITICAL, null, countDropped(droppedCount));
+
+        assertTrue(System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertEquals(1, droppedCount.get());
+    }
+
+    // Blocks the dispatcher thread until the gate is opened, so the calls of a test are queued together.
+    private void holdDispatcherThread() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        dispatcher.dispatch(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    // Waits on a bulk call rather than a flush, as the flush barrier would run the queued calls in dispatch order.
+    private List<String> drain() throws InterruptedException {
+        final CountDownLatch drained = new CountDownLatch(1);
+        dispatcher.dispatch(SmartechDispatcher.LANE_BULK, null, new Runnable() {
+            @Override
+            public void run() {
+                drained.countDown();
+            }
+        });
+        gate.countDown();
+        assertTrue(drained.await(5, TimeUnit.SECONDS));
+        return new ArrayList<>(executed);
+    }
+
+    private Runnable record(final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                executed.add(name);
+            }
+        };
+    }
+
+    private static SmartechDispatcher.Call countDropped(final AtomicInteger droppedCount) {
+        return new SmartechDispatcher.Call() {
+            @Override
+            public void run() {
+            }
+
+            @Override
+            public void onDropped() {
+                droppedCount.incrementAndGet();
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private HashMap<String, Object> laneStats(String lane) {
+        return (HashMap<String, Object>) ((HashMap<String, Object>) dispatcher.getStats().get("lanes")).get(lane);
+    }
+}
@@ -0,0 +1,284 @@
+package com.netcore.reactnative;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SmartechEventJournalTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int CAPACITY = 4096;
+    private static final int HEADER_SIZE = SmartechEventJournal.HEADER_SIZE;
+    private static final int DATA_START = SmartechEventJournal.DATA_START;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File journalFile;
+    private SmartechEventJournal journal;
+
+    @Before
+    public void setUp() throws IOException {
+        journalFile = new File(folder.getRoot(), "journal");
+        journal = new SmartechEventJournal(journalFile, CAPACITY);
+    }
+
+    @After
+    public void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    public void recoversOnlyUnacknowledgedRecords() throws IOException {
+        int first = journal.append(bytes("first"));
+        journal.append(bytes("second"));
+        int third = journal.append(bytes("third"));
+        journal.acknowledge(first);
+        journal.acknowledge(third);
+        assertEquals(1, journal.getPendingCount());
+
+        reopen();
+
+        assertEquals(list("second"), payloads(journal.takeRecoveredRecords()));
+        assertEquals(1, journal.getPendingCount());
+        assertEquals(0, journal.takeRecoveredRecords().size());
+    }
+
+    @Test
+    public void acknowledgedRecoveredRecordsAreNotRecoveredAgain() throws IOException {
+        journal.append(bytes("first"));
+        reopen();
+        for (SmartechEventJournal.Record record : journal.takeRecoveredRecords()) {
+            journal.acknowledge(record.id);
+        }
+        journal.append(bytes("second"));
+
+        reopen();
+
+        assertEquals(list("second"), payloads(journal.takeRecoveredRecords()));
+    }
+
+    @Test
+    public void discardsRecordWithChecksumMismatch() throws IOException {
+        journal.append(bytes("first"));
+        journal.append(bytes("second"));
+        journal.append(bytes("third"));
+        journal.close();
+        int second = DATA_START + HEADER_SIZE + bytes("first").length;
+        corrupt(second + HEADER_SIZE, (byte) 'X');
+
+        journal = new SmartechEventJournal(journalFile, CAPACITY);
+
+        // The torn record ends the chain, the records after it cannot be trusted.
+        assertEquals(list("first"), payloads(journal.takeRecoveredRecords()));
+        assertTrue(journal.append(bytes("fourth")) >= 0);
+        reopen();
+        assertEquals(list("first", "fourth"), payloads(journal.takeRecoveredRecords()));
+    }
+
+    @Test
+    public void discardsRecordCutOffByTheEndOfTheJournal() throws IOException {
+        journal.append(bytes("first"));
+        journal.append(bytes("second"));
+        journal.close();
+        writeInt(DATA_START + HEADER_SIZE + bytes("first").length, CAPACITY);
+
+        journal = new SmartechEventJournal(journalFile, CAPACITY);
+
+        assertEquals(list("first"), payloads(journal.takeRecoveredRecords()));
+        assertTrue(journal.append(bytes("third")) >= 0);
+        reopen();
+        assertEquals(list("first", "third"), payloads(journal.takeRecoveredRecords()));
+    }
+
+    @Test
+    public void startsOverFromAFileWithoutTheJournalHeader() throws IOException {
+        journal.append(bytes("first"));
+        journal.close();
+        writeInt(0, 0);
+
+        journal = new SmartechEventJournal(journalFile, CAPACITY);
+
+        assertEquals(0, journal.takeRecoveredRecords().size());
+        assertEquals(0, journal.getPendingCount());
+    }
+
+    @Test
+    public void startsOverOnceEveryRecordIsAcknowledged() {
+        byte[] payload = new byte[1000];
+        payload[0] = 1;
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(journal.append(payload));
+        }
+        for (int id : ids) {
+            journal.acknowledge(id);
+        }
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(journal.append(payload) >= 0);
+        }
+        assertEquals(4, journal.getPendingCount());
+    }
+
+    @Test
+    public void recoversTheRecordsWrittenAcrossTheEndOfTheJournal() throws IOException {
+        int first = journal.append(payload("first", 1000));
+        int second = journal.append(payload("second", 1000));
+        journal.append(payload("third", 1000));
+        journal.append(payload("fourth", 1000));
+        journal.acknowledge(first);
+        journal.acknowledge(second);
+
+        // Only the space in front of the third record is free, the fifth record wraps into it.
+        assertTrue(journal.append(payload("fifth", 1000)) >= 0);
+        assertEquals(-1, journal.append(payload("sixth", 1000)));
+        reopen();
+
+        List<SmartechEventJournal.Record> records = journal.takeRecoveredRecords();
+        assertEquals(list("third", "fourth", "fifth"), tags(records));
+        for (SmartechEventJournal.Record record : records) {
+            journal.acknowledge(record.id);
+        }
+        assertEquals(0, journal.getPendingCount());
+    }
+
+    @Test
+    public void keepsALongAggregationWindowAcrossWrapsOfTheJournal() throws IOException {
+        // The checkpoint of the window stays pending while the events tracked meanwhile go round the journal several times.
+        int checkpoint = journal.append(payload("checkpoint0", 200));
+        for (int i = 1; i <= 50; i++) {
+            int event = journal.append(payload("event" + i, 500));
+            assertTrue(event >= 0);
+            journal.acknowledge(event);
+            if (i % 20 == 0) {
+                // Each checkpoint replaces the previous one once it is stored.
+                int next = journal.append(payload("checkpoint" + i, 200));
+                assertTrue(next >= 0);
+                journal.acknowledge(checkpoint);
+                checkpoint = next;
+            }
+        }
+        assertEquals(1, journal.getPendingCount());
+        reopen();
+
+        List<SmartechEventJournal.Record> records = journal.takeRecoveredRecords();
+        assertEquals(list("checkpoint40"), tags(records));
+        assertEquals(checkpoint, records.get(0).id);
+    }
+
+    @Test
+    public void acknowledgesARecordByItsIdAfterItWasCopiedAhead() throws IOException {
+        int pinned = journal.append(payload("pinned", 100));
+        for (int i = 0; i < 30; i++) {
+            int event = journal.append(payload("event" + i, 700));
+            assertTrue(event >= 0);
+            journal.acknowledge(event);
+        }
+        int last = journal.append(payload("last", 700));
+
+        journal.acknowledge(pinned);
+        assertEquals(1, journal.getPendingCount());
+        reopen();
+        assertEquals(list("last"), tags(journal.takeRecoveredRecords()));
+        assertTrue(journal.append(payload("next", 100)) != last);
+    }
+
+    @Test
+    public void rejectsRecordsWhichDoNotFit() {
+        assertEquals(-1, journal.append(new byte[CAPACITY]));
+        assertEquals(-1, journal.append(new byte[0]));
+        assertEquals(0, journal.getPendingCount());
+    }
+
+    @Test
+    public void reportsFullWhileTheRecordsAreLive() {
+        byte[] payload = new byte[1000];
+        for (int i = 0; i < 4; i++) {
+            assertTrue(journal.append(payload) >= 0);
+        }
+
+        assertEquals(-1, journal.append(payload));
+        assertEquals(4, journal.getPendingCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void refusesASecondOpenOfTheSameFile() throws IOException {
+        new SmartechEventJournal(journalFile, CAPACITY);
+    }
+
+    private void reopen() throws IOException {
+        journal.close();
+        journal = new SmartechEventJournal(journalFile, CAPACITY);
+    }
+
+    private void corrupt(int offset, byte value) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(journalFile, "rw");
+        try {
+            file.seek(offset);
+            file.write(value);
+        } finally {
+            file.close();
+        }
+    }
+
+    private void writeInt(int offset, int value) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(journalFile, "rw");
+        try {
+            file.seek(offset);
+            file.writeInt(value);
+        } finally {
+            file.close();
+        }
+    }
+
+    // A payload of the given size which starts with the tag followed by a space.
+    private static byte[] payload(String tag, int size) {
+        byte[] payload = new byte[size];
+        Arrays.fill(payload, (byte) '.');
+        byte[] prefix = bytes(tag + " ");
+        System.arraycopy(prefix, 0, payload, 0, prefix.length);
+        return payload;
+    }
+
+    private static List<String> tags(List<SmartechEventJournal.Record> records) {
+        List<String> tags = new ArrayList<>();
+        for (String payload : payloads(records)) {
+            tags.add(payload.substring(0, payload.indexOf(' ')));
+        }
+        return tags;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(UTF_8);
+    }
+
+    private static List<String> list(String... values) {
+        List<String> list = new ArrayList<>();
+        for (String value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    private static List<String> payloads(List<SmartechEventJournal.Record> records) {
+        List<String> payloads = new ArrayList<>();
+        for (SmartechEventJournal.Record record : records) {
+            payloads.add(new String(record.payload, UTF_8));
+        }
+        return payloads;
+    }
+}
@@ -0,0 +1,106 @@
+package com.netcore.reactnative;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class SmartechEventPolicyTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void acceptsEventsWithoutARule() {
+        SmartechEventPolicy policy = policy("screen_view", new SmartechEventPolicy.Rule(1, 1, 0));
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, policy.acquire("add_to_cart", now));
+        }
+        assertEquals(0, policy.acquire(null, now));
+    }
+
+    @Test
+    public void acceptsTheBurstBackToBackAndDropsTheRest() {
+        SmartechEventPolicy policy = policy("screen_view", new SmartechEventPolicy.Rule(10, 3, 0));
+        long now = System.nanoTime();
+
+        assertEquals(0, policy.acquire("screen_view", now));
+        assertEquals(0, policy.acquire("screen_view", now));
+        assertEquals(0, policy.acquire("screen_view", now));
+        assertEquals(SmartechEventPolicy.DROPPED, policy.acquire("screen_view", now));
+        assertEquals(SmartechEventPolicy.DROPPED, policy.acquire("screen_view", now));
+    }
+
+    @Test
+    public void refillsAtTheRateAndReportsTheDroppedCount() {
+        SmartechEventPolicy policy = policy("screen_view", new SmartechEventPolicy.Rule(10, 1, 0));
+        long now = System.nanoTime();
+
+        assertEquals(0, policy.acquire("screen_view", now));
+        assertEquals(SmartechEventPolicy.DROPPED, policy.acquire("screen_view", now + 10 * MILLIS));
+        assertEquals(SmartechEventPolicy.DROPPED, policy.acquire("screen_view", now + 50 * MILLIS));
+        assertEquals(2, policy.acquire("screen_view", now + 100 * MILLIS));
+        assertEquals(SmartechEventPolicy.DROPPED, policy.acquire("screen_view", now + 150 * MILLIS));
+        assertEquals(1, policy.acquire("screen_view", now + 200 * MILLIS));
+    }
+
+    @Test
+    public void doesNotSaveUpMoreThanTheBurstWhileIdle() {
+        SmartechEventPolicy policy = policy("screen_view", new SmartechEventPolicy.Rule(10, 2, 0));
+        long later = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+
+        assertEquals(0, policy.acquire("screen_view", later));
+        assertEquals(0, policy.acquire("screen_view", later));
+        assertEquals(SmartechEventPolicy.DROPPED, policy.acquire("screen_view", later));
+    }
+
+    @Test
+    public void keepsTheSampleRateOfTheEventsOverTheRate() {
+        SmartechEventPolicy policy = policy("screen_view", new SmartechEventPolicy.Rule(1, 1, 0.25));
+        long now = System.nanoTime();
+
+        assertEquals(0, policy.acquire("screen_view", now));
+        int sampled = 0;
+        for (int i = 0; i < 100; i++) {
+            long result = policy.acquire("screen_view", now);
+            if (result != SmartechEventPolicy.DROPPED) {
+                assertEquals(3, result);
+                sampled++;
+            }
+        }
+        assertEquals(25, sampled);
+
+        HashMap<String, Object> stats = stats(policy, "screen_view");
+        assertEquals(1.0, stats.get("acceptedCount"));
+        assertEquals(25.0, stats.get("sampledCount"));
+        assertEquals(75.0, stats.get("droppedCount"));
+    }
+
+    @Test
+    public void replacingTheRulesRemovesTheOldOnes() {
+        SmartechEventPolicy policy = policy("screen_view", new SmartechEventPolicy.Rule(1, 1, 0));
+        long now = System.nanoTime();
+
+        assertEquals(0, policy.acquire("screen_view", now));
+        assertEquals(SmartechEventPolicy.DROPPED, policy.acquire("screen_view", now));
+        policy.setRules(null);
+
+        assertEquals(0, policy.acquire("screen_view", now));
+        assertEquals(0, policy.getStats().size());
+    }
+
+    private static SmartechEventPolicy policy(String eventName, SmartechEventPolicy.Rule rule) {
+        SmartechEventPolicy policy = new SmartechEventPolicy();
+        policy.setRules(Collections.singletonMap(eventName, rule));
+        return policy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HashMap<String, Object> stats(SmartechEventPolicy policy, String eventName) {
+        return (HashMap<String, Object>) policy.getStats().get(eventName);
+    }
+}
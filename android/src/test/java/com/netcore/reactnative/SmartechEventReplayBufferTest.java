@@ -0,0 +1,86 @@
+package com.netcore.reactnative;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SmartechEventReplayBufferTest {
+
+    private final List<String> emitted = new ArrayList<>();
+    private SmartechEventReplayBuffer buffer;
+
+    private final SmartechEventReplayBuffer.Emitter emitter = new SmartechEventReplayBuffer.Emitter() {
+        @Override
+        public void emit(String eventName, Object payload) {
+            synchronized (emitted) {
+                emitted.add(eventName + ":" + payload);
+            }
+        }
+    };
+
+    @After
+    public void tearDown() {
+        buffer.shutdown();
+    }
+
+    @Test
+    public void holdsEventsUntilTheirOwnListenerIsAttached() {
+        buffer = new SmartechEventReplayBuffer(emitter, 4, 60000);
+        buffer.emit("deeplink", 1);
+        buffer.emit("consent", 2);
+        buffer.emit("deeplink", 3);
+
+        buffer.onListenerAttached("consent");
+        assertEquals(Arrays.asList("consent:2"), emitted());
+
+        buffer.onListenerAttached("deeplink");
+        buffer.emit("deeplink", 4);
+        assertEquals(Arrays.asList("consent:2", "deeplink:1", "deeplink:3", "deeplink:4"), emitted());
+    }
+
+    @Test
+    public void sendsTheOldestEventOfAFullQueue() {
+        buffer = new SmartechEventReplayBuffer(emitter, 2, 60000);
+        buffer.emit("deeplink", 1);
+        buffer.emit("deeplink", 2);
+        buffer.emit("deeplink", 3);
+
+        assertEquals(Arrays.asList("deeplink:1"), emitted());
+        assertEquals(1, buffer.getReleasedCount());
+    }
+
+    @Test
+    public void sendsHeldEventsWithoutAListenerOnceTheHoldWindowHasElapsed() throws InterruptedException {
+        buffer = new SmartechEventReplayBuffer(emitter, 4, 100);
+        buffer.emit("deeplink", 1);
+        assertTrue(emitted().isEmpty());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (emitted().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        buffer.emit("deeplink", 2);
+
+        assertEquals(Arrays.asList("deeplink:1", "deeplink:2"), emitted());
+    }
+
+    @Test
+    public void sendsRightAwayWithoutAHoldWindow() {
+        buffer = new SmartechEventReplayBuffer(emitter, 4, 0);
+        buffer.emit("deeplink", 1);
+
+        assertEquals(Arrays.asList("deeplink:1"), emitted());
+    }
+
+    private List<String> emitted() {
+        synchronized (emitted) {
+            return new ArrayList<>(emitted);
+        }
+    }
+}
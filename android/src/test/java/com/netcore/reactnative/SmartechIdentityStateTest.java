@@ -0,0 +1,91 @@
+package com.netcore.reactnative;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SmartechIdentityStateTest {
+
+    private static final int CALL_BOTH = SmartechIdentityState.CALL_SET_USER_IDENTITY | SmartechIdentityState.CALL_LOGIN;
+
+    @Test
+    public void skipsNothingUntilTheStoredIdentityIsKnown() {
+        SmartechIdentityState identityState = new SmartechIdentityState();
+
+        assertEquals(CALL_BOTH, identityState.login("user@example.com"));
+        assertTrue(identityState.clearUserIdentity());
+        assertEquals("anonymous", identityState.getStats().get("state"));
+    }
+
+    @Test
+    public void skipsTheRepeatedLoginOfTheLoggedInIdentity() {
+        SmartechIdentityState identityState = new SmartechIdentityState();
+
+        assertEquals(CALL_BOTH, identityState.login("user@example.com"));
+        assertEquals(SmartechIdentityState.CALL_NONE, identityState.login("user@example.com"));
+        assertFalse(identityState.setUserIdentity("user@example.com"));
+        assertEquals(CALL_BOTH, identityState.login("other@example.com"));
+
+        assertEquals("loggedIn", identityState.getStats().get("state"));
+        assertEquals("other@example.com", identityState.getStats().get("identity"));
+        assertEquals(2.0, identityState.getStats().get("appliedCount"));
+        assertEquals(2.0, identityState.getStats().get("skippedCount"));
+    }
+
+    @Test
+    public void onlyLogsInTheSeededIdentity() {
+        SmartechIdentityState identityState = new SmartechIdentityState();
+        identityState.seed("user@example.com");
+
+        assertEquals("identified", identityState.getStats().get("state"));
+        assertFalse(identityState.setUserIdentity("user@example.com"));
+        assertEquals(SmartechIdentityState.CALL_LOGIN, identityState.login("user@example.com"));
+        assertEquals(SmartechIdentityState.CALL_NONE, identityState.login("user@example.com"));
+    }
+
+    @Test
+    public void ignoresTheSeedOnceATransitionHasBeenApplied() {
+        SmartechIdentityState identityState = new SmartechIdentityState();
+        identityState.login("user@example.com");
+        identityState.seed(null);
+
+        assertEquals("loggedIn", identityState.getStats().get("state"));
+        assertEquals(SmartechIdentityState.CALL_NONE, identityState.login("user@example.com"));
+    }
+
+    @Test
+    public void skipsClearingAnIdentityWhichIsNotSet() {
+        SmartechIdentityState identityState = new SmartechIdentityState();
+        identityState.seed(null);
+
+        assertFalse(identityState.clearUserIdentity());
+        assertTrue(identityState.setUserIdentity("user@example.com"));
+        assertTrue(identityState.clearUserIdentity());
+        assertFalse(identityState.clearUserIdentity());
+    }
+
+    @Test
+    public void alwaysAppliesALogout() {
+        SmartechIdentityState identityState = new SmartechIdentityState();
+        identityState.seed(null);
+        identityState.logout();
+        identityState.logout();
+
+        assertEquals("anonymous", identityState.getStats().get("state"));
+        assertEquals(2.0, identityState.getStats().get("appliedCount"));
+        assertEquals(CALL_BOTH, identityState.login("user@example.com"));
+    }
+
+    @Test
+    public void skipsNothingAfterAFailedCallUntilTheNextTransition() {
+        SmartechIdentityState identityState = new SmartechIdentityState();
+        identityState.login("user@example.com");
+        identityState.invalidate();
+
+        assertEquals("unknown", identityState.getStats().get("state"));
+        assertEquals(CALL_BOTH, identityState.login("user@example.com"));
+        assertEquals(SmartechIdentityState.CALL_NONE, identityState.login("user@example.com"));
+    }
+}
@@ -0,0 +1,54 @@
+package com.netcore.reactnative;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SmartechInternTableTest {
+
+    @Test
+    public void returnsTheCanonicalInstanceOfEqualStrings() {
+        SmartechInternTable internTable = new SmartechInternTable(64, 16);
+        String first = internTable.intern(new String("screen_view"));
+        String second = internTable.intern(new String("screen_view"));
+
+        assertSame(first, second);
+        assertEquals(1.0, internTable.getStats().get("hitCount"));
+        assertEquals(1.0, internTable.getStats().get("missCount"));
+    }
+
+    @Test
+    public void internsACharacterRangeWithoutAllocatingOnAHit() {
+        SmartechInternTable internTable = new SmartechInternTable(64, 16);
+        String canonical = internTable.intern("screen");
+
+        assertSame(canonical, internTable.intern("{\"screen\":1}", 2, 8));
+    }
+
+    @Test
+    public void neverInternsStringsLongerThanTheMaximumLength() {
+        SmartechInternTable internTable = new SmartechInternTable(64, 4);
+        String value = new String("screen");
+
+        assertSame(value, internTable.intern(value));
+        assertNotSame(internTable.intern(new String("screen")), internTable.intern(new String("screen")));
+        assertNull(internTable.intern(null));
+    }
+
+    @Test
+    public void staysBoundedByEvictingEntries() {
+        SmartechInternTable internTable = new SmartechInternTable(16, 16);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("key" + i, internTable.intern("key" + i));
+        }
+
+        double capacity = (Double) internTable.getStats().get("capacity");
+        assertEquals(16.0, capacity, 0);
+        assertTrue((Double) internTable.getStats().get("size") <= capacity);
+        assertTrue((Double) internTable.getStats().get("evictionCount") > 0);
+    }
+}
@@ -0,0 +1,93 @@
+package com.netcore.reactnative;
+
+import org.json.JSONException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SmartechJsonParserTest {
+
+    @Test
+    public void parsesValuesIntoTheSdkPayloadTypes() throws JSONException {
+        HashMap<String, Object> payload = parse("{\"int\": 42, \"long\": 12345678901, \"double\": 1.5, \"exp\": 1.25e1, \"integralExp\": 1e3,"
+                + " \"text\": \"a\\\"b\\u00e9\", \"flag\": true, \"none\": null, \"list\": [1, \"x\", {}], \"map\": {\"k\": false}}");
+
+        assertEquals(42, payload.get("int"));
+        assertEquals(12345678901L, payload.get("long"));
+        assertEquals(1.5, payload.get("double"));
+        assertEquals(12.5, payload.get("exp"));
+        assertEquals(1000, payload.get("integralExp"));
+        assertEquals("a\"bé", payload.get("text"));
+        assertEquals(true, payload.get("flag"));
+        assertTrue(payload.containsKey("none"));
+        assertNull(payload.get("none"));
+        assertEquals(Arrays.asList(1, "x", new HashMap<String, Object>()), payload.get("list"));
+        assertEquals(false, ((Map<?, ?>) payload.get("map")).get("k"));
+    }
+
+    @Test
+    public void acceptsNestingUpToTheMaximumDepth() throws JSONException {
+        HashMap<String, Object> payload = SmartechJsonParser.parseObject("{\"a\": {\"b\": [1]}}", 3, 1024, null);
+
+        assertEquals(Arrays.asList(1), ((Map<?, ?>) payload.get("a")).get("b"));
+    }
+
+    @Test
+    public void rejectsNestingDeeperThanTheMaximumDepth() {
+        assertRejected("{\"a\": {\"b\": [1]}}", 2, 1024);
+    }
+
+    @Test
+    public void rejectsVeryDeepNestingWithoutOverflowingTheStack() {
+        StringBuilder json = new StringBuilder("{\"a\":");
+        for (int i = 0; i < 100000; i++) {
+            json.append('[');
+        }
+        assertRejected(json.toString(), SmartechJsonParser.DEFAULT_MAX_DEPTH, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void rejectsPayloadsLongerThanTheMaximumLength() {
+        assertRejected("{\"key\": \"value\"}", 32, 8);
+    }
+
+    @Test
+    public void rejectsInvalidJson() {
+        List<String> invalid = Arrays.asList(null, "", "[1]", "{", "{\"a\" 1}", "{\"a\": 1,}", "{\"a\": tru}", "{} {}", "{\"a\": 01x}");
+        for (String json : invalid) {
+            assertRejected(json, 32, 1024);
+        }
+    }
+
+    @Test
+    public void internsObjectKeys() throws JSONException {
+        SmartechInternTable internTable = new SmartechInternTable(64, 16);
+        HashMap<String, Object> first = SmartechJsonParser.parseObject("{\"screen\": 1}", 32, 1024, internTable);
+        HashMap<String, Object> second = SmartechJsonParser.parseObject("{\"screen\": 2}", 32, 1024, internTable);
+
+        assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+        assertSame(internTable.intern("screen"), first.keySet().iterator().next());
+    }
+
+    private static HashMap<String, Object> parse(String json) throws JSONException {
+        return SmartechJsonParser.parseObject(json, SmartechJsonParser.DEFAULT_MAX_DEPTH, SmartechJsonParser.DEFAULT_MAX_LENGTH, null);
+    }
+
+    private static void assertRejected(String json, int maxDepth, int maxLength) {
+        try {
+            SmartechJsonParser.parseObject(json, maxDepth, maxLength, null);
+            fail("Expected a JSONException for " + json);
+        } catch (JSONException e) {
+            // expected
+        }
+    }
+}
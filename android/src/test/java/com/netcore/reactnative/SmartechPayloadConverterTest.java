@@ -0,0 +1,163 @@
+package com.netcore.reactnative;
+
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SmartechPayloadConverterTest {
+
+    @After
+    public void tearDown() {
+        SmartechPayloadConverter.setLimits(null);
+    }
+
+    @Test
+    public void convertsNestedPayloadsAndNarrowsIntegralNumbers() {
+        JavaOnlyArray items = new JavaOnlyArray();
+        items.pushString("shoes");
+        items.pushDouble(2);
+        items.pushNull();
+        JavaOnlyMap cart = new JavaOnlyMap();
+        cart.putDouble("total", 12.5);
+        cart.putArray("items", items);
+        JavaOnlyMap payload = new JavaOnlyMap();
+        payload.putBoolean("isGuest", false);
+        payload.putDouble("count", 3);
+        payload.putDouble("timestamp", 1700000000000d);
+        payload.putMap("cart", cart);
+
+        HashMap<String, Object> converted = SmartechPayloadConverter.toHashMap(payload);
+
+        assertEquals(false, converted.get("isGuest"));
+        assertEquals(3, converted.get("count"));
+        assertEquals(1700000000000L, converted.get("timestamp"));
+        HashMap<?, ?> convertedCart = (HashMap<?, ?>) converted.get("cart");
+        assertEquals(12.5, convertedCart.get("total"));
+        assertEquals(Arrays.asList("shoes", 2, null), convertedCart.get("items"));
+        assertNull(SmartechPayloadConverter.toHashMap(null));
+    }
+
+    @Test
+    public void rejectsAPayloadNestedTooDeep() {
+        SmartechPayloadConverter.setLimits(new SmartechPayloadConverter.Limits(3, 100, 1024, false));
+
+        try {
+            SmartechPayloadConverter.toHashMap(nested(4));
+            fail();
+        } catch (SmartechPayloadConverter.LimitExceededException expected) {
+            // The payload is rejected as a whole.
+        }
+        assertEquals(3, depthOf(SmartechPayloadConverter.toHashMap(nested(3))));
+    }
+
+    @Test
+    public void convertsAVeryDeepPayloadWithoutOverflowingTheStack() {
+        SmartechPayloadConverter.setLimits(new SmartechPayloadConverter.Limits(100000, 200000, 1024 * 1024, false));
+
+        assertEquals(20000, depthOf(SmartechPayloadConverter.toHashMap(nested(20000))));
+    }
+
+    @Test
+    public void leavesOutTheContainersNestedTooDeepWhenTruncating() {
+        SmartechPayloadConverter.setLimits(new SmartechPayloadConverter.Limits(2, 100, 1024, true));
+        JavaOnlyMap payload = nested(3);
+        payload.putString("name", "value");
+
+        HashMap<String, Object> converted = SmartechPayloadConverter.toHashMap(payload);
+
+        assertEquals("value", converted.get("name"));
+        assertEquals(2, depthOf(converted));
+        assertTrue(((HashMap<?, ?>) converted.get("child")).isEmpty());
+    }
+
+    @Test
+    public void stopsReadingAtTheFirstValueOverTheValueLimit() {
+        SmartechPayloadConverter.setLimits(new SmartechPayloadConverter.Limits(8, 10, 1024, true));
+        final int[] readCount = {0};
+        JavaOnlyArray values = new JavaOnlyArray() {
+            @Override
+            public String getString(int index) {
+                readCount[0]++;
+                return super.getString(index);
+            }
+        };
+        for (int i = 0; i < 1000; i++) {
+            values.pushString("value" + i);
+        }
+
+        ArrayList<Object> converted = SmartechPayloadConverter.toList(values);
+
+        assertEquals(10, converted.size());
+        assertEquals("value9", converted.get(9));
+        assertTrue(readCount[0] <= 11);
+    }
+
+    @Test
+    public void boundsTheBytesOfTheKeysAndStrings() {
+        SmartechPayloadConverter.setLimits(new SmartechPayloadConverter.Limits(8, 100, 10, false));
+        JavaOnlyMap payload = new JavaOnlyMap();
+        payload.putString("name", "été");
+
+        assertEquals("été", SmartechPayloadConverter.toHashMap(payload).get("name"));
+        payload.putString("city", "Paris");
+        try {
+            SmartechPayloadConverter.toHashMap(payload);
+            fail();
+        } catch (SmartechPayloadConverter.LimitExceededException expected) {
+            // 4 + 5 bytes for the first entry leave no room for the second one.
+        }
+    }
+
+    @Test
+    public void countsTheRejectedAndTruncatedPayloads() {
+        HashMap<String, Object> before = SmartechPayloadConverter.getStats();
+        SmartechPayloadConverter.setLimits(new SmartechPayloadConverter.Limits(1, 100, 1024, true));
+        SmartechPayloadConverter.toHashMap(nested(2));
+        SmartechPayloadConverter.setLimits(new SmartechPayloadConverter.Limits(1, 100, 1024, false));
+        try {
+            SmartechPayloadConverter.toHashMap(nested(2));
+            fail();
+        } catch (SmartechPayloadConverter.LimitExceededException expected) {
+            // Counted below.
+        }
+
+        HashMap<String, Object> after = SmartechPayloadConverter.getStats();
+        assertEquals(1.0, (Double) after.get("truncatedCount") - (Double) before.get("truncatedCount"), 0);
+        assertEquals(1.0, (Double) after.get("rejectedCount") - (Double) before.get("rejectedCount"), 0);
+        assertEquals(2.0, (Double) after.get("depthExceededCount") - (Double) before.get("depthExceededCount"), 0);
+        assertFalse("truncate".equals(after.get("overflowPolicy")));
+    }
+
+    // A map nesting the given number of maps under "child", itself included.
+    private static JavaOnlyMap nested(int depth) {
+        JavaOnlyMap payload = new JavaOnlyMap();
+        for (int i = 1; i < depth; i++) {
+            JavaOnlyMap parent = new JavaOnlyMap();
+            parent.putMap("child", payload);
+            payload = parent;
+        }
+        return payload;
+    }
+
+    private static int depthOf(HashMap<?, ?> payload) {
+        int depth = 0;
+        Object current = payload;
+        while (current instanceof HashMap) {
+            depth++;
+            current = ((HashMap<?, ?>) current).get("child");
+        }
+        return depth;
+    }
+}
@@ -1,9 +1,33 @@
 import { DeviceEventEmitter, NativeEventEmitter, NativeModules } from 'react-native';
 
-const SmartechReactBridge = NativeModules.SmartechReactNative;
+// With the New Architecture the module is a TurboModule, cheap getters are synchronous and the other methods return a Promise.
+const isTurboModuleEnabled = global.__turboModuleProxy != null;
+const SmartechTurboModule = isTurboModuleEnabled ? require('./specs/NativeSmartechReactNative').default : null;
+const SmartechReactBridge = SmartechTurboModule || NativeModules.SmartechReactNative;
+const SmartechConstants = SmartechTurboModule ? SmartechTurboModule.getConstants() : SmartechReactBridge;
 const SmartechEventEmitter = NativeModules.SmartechReactEventEmitter ? new NativeEventEmitter(NativeModules.SmartechReactEventEmitter) : DeviceEventEmitter;
 let eventEmitter;
 
+// Events tracked within the same frame are sent to the native side as one batch.
+const MAX_EVENT_BATCH_SIZE = 500;
+const scheduleFrame = typeof requestAnimationFrame === 'function' ? requestAnimationFrame : (fn) => setTimeout(fn, 0);
+let pendingEvents = [];
+let isFlushScheduled = false;
+// Event schemas registered in JS on the platforms which do not support compact events natively.
+let localEventSchemas = [];
+
+// Events sent by the native side within the same frame arrive as one batch and are delivered to the listeners one by one.
+if (SmartechConstants.SmartechEventBatch && SmartechEventEmitter) {
+    SmartechEventEmitter.addListener(SmartechConstants.SmartechEventBatch, (events) => {
+        if (!Array.isArray(events)) {
+            return;
+        }
+        events.forEach((event) => {
+            SmartechEventEmitter.emit(event.name, event.payload);
+        });
+    });
+}
+
 function defaultCallback(method, err, res) {
     if (err) {
         console.log('Smartech ' + method + ' default callback error', err);
@@ -20,22 +44,82 @@ function callWithCallback(method, args, callback) {
             defaultCallback(method, err, res);
         };
     }
+    if (typeof SmartechReactBridge[method] !== 'function') {
+        console.log('Smartech ' + method + ' is not supported on this platform');
+        return;
+    }
     if (args == null) {
         args = [];
     }
+    if (SmartechTurboModule) {
+        const result = SmartechReactBridge[method].apply(this, args);
+        if (result != null && typeof result.then === 'function') {
+            result
+                .then((res) => callback(res))
+                .catch((err) => callback(err && err.message ? err.message : String(err)));
+        }
+        else {
+            callback(result);
+        }
+        return;
+    }
     args.push(callback);
     SmartechReactBridge[method].apply(this, args);
 }
 
+// Used to let the native side deliver the events it held until a listener was attached.
+function notifyListenerAttached(eventName) {
+    if (typeof SmartechReactBridge.addListener === 'function') {
+        SmartechReactBridge.addListener(eventName);
+    }
+}
+
+// Used to send all the buffered events to the native side.
+function flushPendingEvents() {
+    isFlushScheduled = false;
+    if (pendingEvents.length === 0) {
+        return;
+    }
+    const events = pendingEvents;
+    pendingEvents = [];
+    if (typeof SmartechReactBridge.trackEvents === 'function') {
+        SmartechReactBridge.trackEvents(events);
+    }
+    else {
+        events.forEach((event) => {
+            SmartechReactBridge.trackEvent(event.name, event.payload);
+        });
+    }
+}
+
+// Used to buffer an event until the end of the current frame. The payload is copied so that the
+// caller can reuse or change its object before the batch is sent.
+function enqueueEvent(eventName, payload) {
+    if (payload != null && typeof payload === 'object') {
+        payload = Array.isArray(payload) ? payload.slice() : Object.assign({}, payload);
+    }
+    pendingEvents.push({ name: eventName, payload: payload });
+    if (pendingEvents.length >= MAX_EVENT_BATCH_SIZE) {
+        flushPendingEvents();
+    }
+    else if (!isFlushScheduled) {
+        isFlushScheduled = true;
+        scheduleFrame(flushPendingEvents);
+    }
+}
+
 var SmartechReact = {
 
     // All the constants declared in the Smartech React Bridge.
-    SmartechDeeplinkNotification: SmartechReactBridge.SmartechDeeplinkNotification,
+    SmartechDeeplinkNotification: SmartechConstants.SmartechDeeplinkNotification,
+    SmartechIdentifiersUpdated: SmartechConstants.SmartechIdentifiersUpdated,
+    SmartechConsentUpdated: SmartechConstants.SmartechConsentUpdated,
 
     // This method is used to register listener.
     addListener: function (eventName, handler) {
         if (SmartechEventEmitter) {
             SmartechEventEmitter.addListener(eventName, handler);
+            notifyListenerAttached(eventName);
         }
     },
 
@@ -50,6 +134,7 @@ var SmartechReact = {
     addDeepLinkListener: function (eventName, handler, callback) {
         if (SmartechEventEmitter) {
           const eventEmitter = SmartechEventEmitter.addListener(eventName, handler);
+          notifyListenerAttached(eventName);
           callback(eventEmitter)
         }
     },
@@ -62,11 +147,22 @@ var SmartechReact = {
         callWithCallback('getDeepLinkUrl', null, callback);
     },
 
+    /**
+     * This method is used to receive the deeplink customPayload as a parsed object instead of a JSON string,
+     * in the deeplink event and in getDeepLinkUrl. Supported on Android only.
+     */
+    setDeeplinkPayloadParsing: function (isEnabled) {
+        if (typeof SmartechReactBridge.setDeeplinkPayloadParsing === 'function') {
+            SmartechReactBridge.setDeeplinkPayloadParsing(isEnabled);
+        }
+    },
+
     /**
      * This method is used to track app update event.
      * This method should be called by the developer to track the app updates event to Smartech.
      */
     trackAppInstall: function () {
+        flushPendingEvents();
         SmartechReactBridge.trackAppInstall();
     },
 
@@ -75,6 +171,7 @@ var SmartechReact = {
      * This method should be called by the developer to track the app updates event to Smartech.
      */
     trackAppUpdate: function () {
+        flushPendingEvents();
         SmartechReactBridge.trackAppUpdate();
     },
 
@@ -84,6 +181,7 @@ var SmartechReact = {
      * If you are calling this method then you should not call trackAppInstall or trackAppUpdate method.
      */
     trackAppInstallUpdateBySmartech: function () {
+        flushPendingEvents();
         SmartechReactBridge.trackAppInstallUpdateBySmartech();
     },
 
@@ -93,7 +191,128 @@ var SmartechReact = {
      * that is performed by the user in the app to Smartech backend.
      */
     trackEvent: function (eventName, payload) {
-        SmartechReactBridge.trackEvent(eventName, payload);
+        enqueueEvent(eventName, payload);
+    },
+
+    /**
+     * This method is used to track custom event whose payload is already a JSON string.
+     * On Android the string is parsed natively in a single pass, without a JSON.parse in JS.
+     */
+    trackEventJson: function (eventName, payloadJson) {
+        if (typeof SmartechReactBridge.trackEventJson === 'function') {
+            flushPendingEvents();
+            SmartechReactBridge.trackEventJson(eventName, payloadJson);
+        }
+        else {
+            enqueueEvent(eventName, JSON.parse(payloadJson));
+        }
+    },
+
+    /**
+     * This method is used to register the schema of an event: its name and the ordered list of its payload keys,
+     * each given as a string or as { key, type } with a type of 'any', 'string', 'number', 'boolean', 'map' or 'array'.
+     * The callback receives the id to pass to trackEventCompact, or -1 if the schema is not valid.
+     */
+    registerEventSchema: function (eventName, fields, callback) {
+        if (typeof SmartechReactBridge.registerEventSchema === 'function') {
+            callWithCallback('registerEventSchema', [eventName, fields], callback);
+        }
+        else if (typeof callback === 'function') {
+            localEventSchemas.push({
+                eventName: eventName,
+                keys: fields.map((field) => (typeof field === 'string' ? field : field.key)),
+            });
+            callback(localEventSchemas.length - 1);
+        }
+    },
+
+    /**
+     * This method is used to track a custom event of a registered schema, with the payload values given in the
+     * order of the schema keys. On Android only the values cross the bridge and the payload is rebuilt natively.
+     */
+    trackEventCompact: function (schemaId, values) {
+        if (typeof SmartechReactBridge.trackEventCompact === 'function') {
+            flushPendingEvents();
+            SmartechReactBridge.trackEventCompact(schemaId, values);
+        }
+        else if (localEventSchemas[schemaId] != null) {
+            const schema = localEventSchemas[schemaId];
+            const payload = {};
+            schema.keys.forEach((key, index) => {
+                payload[key] = values[index];
+            });
+            enqueueEvent(schema.eventName, payload);
+        }
+    },
+
+    /**
+     * This method is used to set the maximum nesting depth and length in characters accepted by trackEventJson.
+     * Supported on Android only.
+     */
+    setJsonPayloadLimits: function (maxDepth, maxLength) {
+        if (typeof SmartechReactBridge.setJsonPayloadLimits === 'function') {
+            SmartechReactBridge.setJsonPayloadLimits(maxDepth, maxLength);
+        }
+    },
+
+    /**
+     * This method is used to set the limits of the event and profile payloads: the nesting depth, the number of values
+     * and the UTF-8 bytes of the keys and strings, 0 keeps the current limit. With the 'reject' policy, the default,
+     * a payload over a limit is dropped, with 'truncate' it is cut down to the limits. Supported on Android only.
+     */
+    setPayloadLimits: function (maxDepth, maxElements, maxStringBytes, overflowPolicy) {
+        if (typeof SmartechReactBridge.setPayloadLimits === 'function') {
+            SmartechReactBridge.setPayloadLimits(maxDepth, maxElements, maxStringBytes, overflowPolicy);
+        }
+    },
+
+    /**
+     * This method is used to rate limit and sample custom events by name, for example
+     * { scroll_depth: { maxPerSecond: 2, burst: 5, sampleRate: 0.1 } } tracks up to 2 scroll_depth events per second,
+     * with bursts of up to 5, and 10% of the events over that rate. The next tracked event carries the number of
+     * events dropped before it as droppedEventCount. Supported on Android only.
+     */
+    setEventPolicies: function (policies) {
+        if (typeof SmartechReactBridge.setEventPolicies === 'function') {
+            SmartechReactBridge.setEventPolicies(policies);
+        }
+    },
+
+    /**
+     * This method is used to get the accepted, sampled and dropped counts of each event policy.
+     * Supported on Android only.
+     */
+    getEventPolicyStats: function (callback) {
+        callWithCallback('getEventPolicyStats', null, callback);
+    },
+
+    /**
+     * This method is used to aggregate high-frequency custom events natively, for example
+     * { scroll: { windowMillis: 30000, fields: ['depth'] } } tracks a single scroll event every 30 seconds with
+     * aggregatedEventCount, windowStartedAt, windowEndedAt, depth_count, depth_sum, depth_min and depth_max.
+     * Open windows are also tracked when the app goes to the background. Supported on Android only.
+     */
+    setEventAggregations: function (aggregations) {
+        if (typeof SmartechReactBridge.setEventAggregations === 'function') {
+            flushPendingEvents();
+            SmartechReactBridge.setEventAggregations(aggregations);
+        }
+    },
+
+    /**
+     * This method is used to get the aggregated event and summary counts of each event aggregation.
+     * Supported on Android only.
+     */
+    getEventAggregationStats: function (callback) {
+        callWithCallback('getEventAggregationStats', null, callback);
+    },
+
+    /**
+     * This method is used to send all the buffered custom events to the native side immediately.
+     * Events are otherwise sent as one batch at the end of the current frame.
+     */
+    flushEvents: function () {
+        flushPendingEvents();
     },
 
     /**
@@ -102,6 +321,7 @@ var SmartechReact = {
      * or when the user does a login activity in the application.
      */
     login: function (identity) {
+        flushPendingEvents();
         SmartechReactBridge.login(identity);
     },
 
@@ -110,6 +330,7 @@ var SmartechReact = {
      * This method should be called only when the user log out of the application.
      */
     logoutAndClearUserIdentity: function (isLougoutClearIdentity) {
+        flushPendingEvents();
         SmartechReactBridge.logoutAndClearUserIdentity(isLougoutClearIdentity)
     },
 
@@ -118,6 +339,7 @@ var SmartechReact = {
      * This method should be called only when the user gets the identity.
      */
     setUserIdentity: function (identity, callback) {
+        flushPendingEvents();
         callWithCallback('setUserIdentity', [identity], callback);
     },
 
@@ -134,17 +356,39 @@ var SmartechReact = {
      * This method will clear the user's identity by removing it from.
      */
     clearUserIdentity: function () {
+        flushPendingEvents();
         SmartechReactBridge.clearUserIdentity();
     },
 
+    /**
+     * This method is used to get the identity state kept by the native bridge ('unknown', 'anonymous', 'identified'
+     * or 'loggedIn') and how many identity calls were applied or skipped because they would not change the identity.
+     * Supported on Android only.
+     */
+    getIdentityState: function (callback) {
+        callWithCallback('getIdentityState', null, callback);
+    },
+
     /**
      * This method is used to update the user profile.
      * This method should be called by the developer to update all the user related attributes to Smartech.
      */
     updateUserProfile: function (profilePayload) {
+        flushPendingEvents();
         SmartechReactBridge.updateUserProfile(profilePayload);
     },
 
+    /**
+     * This method is used to merge the profile updates received within the given window (in milliseconds) into one update.
+     * Only the attributes which changed since the last update are sent to Smartech. 0 sends every update right away.
+     * Supported on Android only.
+     */
+    setProfileUpdateWindow: function (windowMillis) {
+        if (typeof SmartechReactBridge.setProfileUpdateWindow === 'function') {
+            SmartechReactBridge.setProfileUpdateWindow(windowMillis);
+        }
+    },
+
     // ----- GDPR Methods ----- 
 
     /**
@@ -152,6 +396,7 @@ var SmartechReact = {
      * If you call this method then we will opt in or opt out the user of tracking.
      */
     optTracking: function (isTrackingOpted) {
+        flushPendingEvents();
         SmartechReactBridge.optTracking(isTrackingOpted);
     },
 
@@ -168,6 +413,7 @@ var SmartechReact = {
      * If you call this method then we will opt in or opt out the user of recieving push notifications.
      */
     optPushNotification: function (isPushNotificationOpted) {
+        flushPendingEvents();
         SmartechReactBridge.optPushNotification(isPushNotificationOpted);
     },
 
@@ -184,6 +430,7 @@ var SmartechReact = {
      * If you call this method then we will opt in or opt out the user of in-app messages.
      */
     optInAppMessage: function (isInappOpted) {
+        flushPendingEvents();
         SmartechReactBridge.optInAppMessage(isInappOpted);
     },
 
@@ -195,6 +442,26 @@ var SmartechReact = {
         callWithCallback('hasOptedInAppMessage', null, callback);
     },
 
+    /**
+     * This method is used to get the tracking, push notification and in-app message consents at once,
+     * as { tracking, pushNotification, inAppMessage }, after the opt calls made before it.
+     * Changes are pushed through the SmartechConsentUpdated event. Supported on Android only.
+     */
+    getConsentStatus: function (callback) {
+        callWithCallback('getConsentStatus', null, callback);
+    },
+
+    /**
+     * This method returns the consents cached natively, without a callback. It is empty until the consents are loaded
+     * from the SDK, they are then delivered through the SmartechConsentUpdated event. Supported on Android only.
+     */
+    getConsentStatusSync: function () {
+        if (typeof SmartechReactBridge.getConsentStatusSync === 'function') {
+            return SmartechReactBridge.getConsentStatusSync();
+        }
+        return {};
+    },
+
     // ----- Location Methods ----- 
 
     /**
@@ -202,9 +469,28 @@ var SmartechReact = {
      * You need to call this method to set location which will be passed on the Smartech SDK.
      */
     setUserLocation: function (latitude, longitude) {
+        flushPendingEvents();
         SmartechReactBridge.setUserLocation(latitude, longitude);
     },
 
+    /**
+     * This method is used to send a location update to Smartech only when it is at least minDistanceMeters away from,
+     * or minIntervalMillis later than, the last update sent. 0 for both sends every update. Supported on Android only.
+     */
+    setLocationThrottle: function (minDistanceMeters, minIntervalMillis) {
+        if (typeof SmartechReactBridge.setLocationThrottle === 'function') {
+            SmartechReactBridge.setLocationThrottle(minDistanceMeters, minIntervalMillis);
+        }
+    },
+
+    /**
+     * This method is used to get the location throttle thresholds and the number of accepted and dropped location updates.
+     * Supported on Android only.
+     */
+    getLocationThrottleStats: function (callback) {
+        callWithCallback('getLocationThrottleStats', null, callback);
+    },
+
     // ----- Helper Methods ----- 
 
     /**
@@ -249,6 +535,17 @@ var SmartechReact = {
         callWithCallback('getSDKVersion', null, callback);
     },
 
+    /**
+     * This method returns the app id, device guid, SDK version and device push token cached natively, without a callback.
+     * Updates are pushed through the SmartechIdentifiersUpdated event. Supported on Android only.
+     */
+    getIdentifiers: function () {
+        if (typeof SmartechReactBridge.getIdentifiersSync === 'function') {
+            return SmartechReactBridge.getIdentifiersSync();
+        }
+        return SmartechConstants.SmartechIdentifiers || {};
+    },
+
     /**
      * This method is used to fetch the existing device Token already generated by FCM.
      * You should call this method only if you don't have device tokens of existing user's.
@@ -257,6 +554,106 @@ var SmartechReact = {
         SmartechReactBridge.fetchAlreadyGeneratedTokenFromFCM();
     },
 
+    // ----- Dispatcher Methods ----- 
+
+    /**
+     * This method is used to get how long the native module took to start, in microseconds.
+     * Supported on Android only.
+     */
+    getStartupTimings: function (callback) {
+        callWithCallback('getStartupTimings', null, callback);
+    },
+
+    /**
+     * This method is used to get the queue depth, drop and wait time counters of the native SDK call dispatcher, in total and per lane.
+     * Supported on Android only.
+     */
+    getDispatcherStats: function (callback) {
+        callWithCallback('getDispatcherStats', null, callback);
+    },
+
+    /**
+     * This method is used to set the capacity and overflow policy of a native dispatcher lane: 'identity' (identity and profile calls),
+     * 'critical' (app install and update tracking and the critical events) or 'bulk' (the other events).
+     * The overflow policy of a full lane is 'dropOldest', 'dropNewest' or 'block', which waits up to blockTimeoutMillis for room
+     * and then drops the new call. By default the lanes never block: 'identity' and 'critical' hold 8192 calls with 'dropNewest'
+     * and 'bulk' holds 4096 calls with 'dropOldest'. Supported on Android only.
+     */
+    setDispatchLanePolicy: function (lane, capacity, overflowPolicy, blockTimeoutMillis) {
+        if (typeof SmartechReactBridge.setDispatchLanePolicy === 'function') {
+            SmartechReactBridge.setDispatchLanePolicy(lane, capacity, overflowPolicy, blockTimeoutMillis || 0);
+        }
+    },
+
+    /**
+     * This method is used to set the names of the custom events which are sent ahead of the other events.
+     * Supported on Android only.
+     */
+    setCriticalEvents: function (eventNames) {
+        if (typeof SmartechReactBridge.setCriticalEvents === 'function') {
+            SmartechReactBridge.setCriticalEvents(eventNames);
+        }
+    },
+
+    /**
+     * This method invokes the callback once every call made before it has been handed to the SDK.
+     * Supported on Android only.
+     */
+    flushDispatcher: function (callback) {
+        flushPendingEvents();
+        callWithCallback('flushDispatcher', null, callback);
+    },
+
+    // ----- Metrics Methods ----- 
+
+    /**
+     * This method is used to get the call counts and latency histograms, in microseconds, of the native bridge methods,
+     * payload conversions and SDK calls. Supported on Android only.
+     */
+    getBridgeMetrics: function (callback) {
+        callWithCallback('getBridgeMetrics', null, callback);
+    },
+
+    /**
+     * This method is used to clear the native bridge metrics.
+     * Supported on Android only.
+     */
+    resetBridgeMetrics: function () {
+        if (typeof SmartechReactBridge.resetBridgeMetrics === 'function') {
+            SmartechReactBridge.resetBridgeMetrics();
+        }
+    },
+
+    /**
+     * This method is used to log the native bridge metrics to logcat at the given interval (in milliseconds), 0 stops the logs.
+     * The reports go through the native diagnostics log, which must be set to the "info" level or lower. Supported on Android only.
+     */
+    setBridgeMetricsReportInterval: function (intervalMillis) {
+        if (typeof SmartechReactBridge.setBridgeMetricsReportInterval === 'function') {
+            SmartechReactBridge.setBridgeMetricsReportInterval(intervalMillis);
+        }
+    },
+
+    // ----- Diagnostics Methods -----
+
+    /**
+     * This method is used to set the lowest level of the native diagnostics records:
+     * 'verbose', 'debug', 'info', 'warn' (the default), 'error' or 'none'. Supported on Android only.
+     */
+    setDiagnosticsLevel: function (level) {
+        if (typeof SmartechReactBridge.setDiagnosticsLevel === 'function') {
+            SmartechReactBridge.setDiagnosticsLevel(level);
+        }
+    },
+
+    /**
+     * This method is used to get the recent native diagnostics records, oldest first, to attach them to a bug report.
+     * Supported on Android only.
+     */
+    dumpDiagnostics: function (callback) {
+        callWithCallback('dumpDiagnostics', null, callback);
+    },
+
     registerForPushNotificationWithAuthorizationOptions: function (enableAlert, enableBadge, enableSound) {
         SmartechReactBridge.registerForPushNotificationWithAuthorizationOptions(enableAlert, enableBadge, enableSound);
     }
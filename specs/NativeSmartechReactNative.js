@@ -0,0 +1,97 @@
+// @flow strict-local
+
+import type { TurboModule } from 'react-native/Libraries/TurboModule/RCTExport';
+import { TurboModuleRegistry } from 'react-native';
+
+/**
+ * Codegen spec of the Smartech TurboModule used with the New Architecture.
+ * Cheap getters are blocking-synchronous and the tracking, identity, consent, location and push token
+ * calls return nothing, as they are only queued for the Smartech SDK. Every other method returns a Promise,
+ * which is rejected with the code and message of the failure when the Smartech SDK call fails.
+ * getAppId, getDeviceGuid, getSDKVersion and getDevicePushToken read the identifier cache, or the Smartech
+ * SDK once it is initialized, and return null before that, while the legacy module waits for the SDK.
+ */
+export interface Spec extends TurboModule {
+    +getConstants: () => {|
+        SmartechDeeplinkNotification: string,
+        SmartechIdentifiersUpdated: string,
+        SmartechConsentUpdated: string,
+        SmartechEventBatch: string,
+        SmartechIdentifiers?: ?Object,
+    |};
+
+    // ----- Synchronous Getters -----
+    +getUserIdentity: () => ?string;
+    +hasOptedTracking: () => ?boolean;
+    +hasOptedPushNotification: () => ?boolean;
+    +hasOptedInAppMessage: () => ?boolean;
+    +getAppId: () => ?string;
+    +getDeviceGuid: () => ?string;
+    +getSDKVersion: () => ?string;
+    +getDevicePushToken: () => ?string;
+    +getIdentifiersSync: () => Object;
+    +getConsentStatusSync: () => Object;
+
+    // ----- Events -----
+    +getDeepLinkUrl: () => Promise<Object>;
+    +addListener: (eventName: string) => void;
+    +removeListeners: (count: number) => void;
+    +trackAppInstall: () => void;
+    +trackAppUpdate: () => void;
+    +trackAppInstallUpdateBySmartech: () => void;
+    +trackEvent: (eventName: string, payload: Object) => void;
+    +trackEvents: (events: Array<Object>) => void;
+    +trackEventJson: (eventName: string, payloadJson: string) => void;
+    +registerEventSchema: (eventName: string, fields: Array<Object>) => Promise<number>;
+    +trackEventCompact: (schemaId: number, values: Array<mixed>) => void;
+    +setJsonPayloadLimits: (maxDepth: number, maxLength: number) => Promise<void>;
+    +setPayloadLimits: (maxDepth: number, maxElements: number, maxStringBytes: number, overflowPolicy: string) => Promise<void>;
+    +setEventPolicies: (policies: Object) => Promise<void>;
+    +getEventPolicyStats: () => Promise<Object>;
+    +setEventAggregations: (aggregations: Object) => Promise<void>;
+    +getEventAggregationStats: () => Promise<Object>;
+    +setDeeplinkPayloadParsing: (isEnabled: boolean) => Promise<void>;
+
+    // ----- User Methods -----
+    +login: (identity: string) => void;
+    +logoutAndClearUserIdentity: (isLogout: boolean) => void;
+    +setUserIdentity: (identity: string) => Promise<string>;
+    +clearUserIdentity: () => void;
+    +getIdentityState: () => Promise<Object>;
+    +updateUserProfile: (profile: Object) => void;
+    +setProfileUpdateWindow: (windowMillis: number) => Promise<void>;
+
+    // ----- GDPR Methods -----
+    +optTracking: (value: boolean) => void;
+    +optPushNotification: (value: boolean) => void;
+    +optInAppMessage: (value: boolean) => void;
+    +getConsentStatus: () => Promise<Object>;
+
+    // ----- Location Methods -----
+    +setUserLocation: (latitude: number, longitude: number) => void;
+    +setLocationThrottle: (minDistanceMeters: number, minIntervalMillis: number) => Promise<void>;
+    +getLocationThrottleStats: () => Promise<Object>;
+
+    // ----- Helper Methods -----
+    +setDevicePushToken: (token: string) => void;
+    +fetchAlreadyGeneratedTokenFromFCM: () => void;
+    +registerForPushNotificationWithAuthorizationOptions: (alert: boolean, badge: boolean, sound: boolean) => Promise<void>;
+
+    // ----- Dispatcher Methods -----
+    +getStartupTimings: () => Promise<Object>;
+    +getDispatcherStats: () => Promise<Object>;
+    +flushDispatcher: () => Promise<boolean>;
+    +setDispatchLanePolicy: (lane: string, capacity: number, overflowPolicy: string, blockTimeoutMillis: number) => Promise<void>;
+    +setCriticalEvents: (eventNames: Array<string>) => Promise<void>;
+
+    // ----- Metrics Methods -----
+    +getBridgeMetrics: () => Promise<Object>;
+    +resetBridgeMetrics: () => Promise<void>;
+    +setBridgeMetricsReportInterval: (intervalMillis: number) => Promise<void>;
+
+    // ----- Diagnostics Methods -----
+    +setDiagnosticsLevel: (level: string) => Promise<void>;
+    +dumpDiagnostics: () => Promise<Object>;
+}
+
+export default (TurboModuleRegistry.get<Spec>('SmartechReactNative'): ?Spec);